@@ -0,0 +1,131 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures `ShortestPaths.findAllPaths()` on synthetic 8-connected `side`x`side` grid graphs with
+ * random edge weights in [0..255], for each frontier strategy.  Unlike `ImageGraph`, the grid's
+ * weights are intrinsic to its edges, so this isolates the solver from the cost of weighing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class GridShortestPathsBenchmark {
+
+    /**
+     * The width and height of the grid.
+     */
+    @Param({"256", "1024"})
+    public int side;
+
+    /**
+     * The `FrontierStrategy` to solve with.
+     */
+    @Param({"AUTO", "BINARY_HEAP", "HEAP_4", "LAZY_HEAP", "BUCKET", "RADIX"})
+    public String strategy;
+
+    private GridGraph graph;
+    private ShortestPaths<GridVertex, GridEdge> pathfinder;
+
+    @Setup
+    public void setup() {
+        graph = new GridGraph(side, side, new Random(1));
+        pathfinder = new ShortestPaths<>(graph, new GridWeigher(),
+                FrontierStrategy.parse(strategy));
+    }
+
+    @Benchmark
+    public PathfindingSnapshot findAllPaths() {
+        return pathfinder.findAllPaths(graph.vertexCount() / 2 + side / 2);
+    }
+}
+
+/**
+ * An 8-connected grid graph whose edges have random intrinsic weights in [0..255].
+ */
+class GridGraph implements Graph<GridVertex> {
+
+    /**
+     * Column and row offsets of the neighbor in each direction (0 is right, 2 is up).
+     */
+    static final int[] DX = {1, 1, 0, -1, -1, -1, 0, 1};
+    static final int[] DY = {0, -1, -1, -1, 0, 1, 1, 1};
+
+    final int width;
+    final int height;
+
+    /**
+     * `weights[8*id + dir]` is the weight of the edge leaving vertex `id` in direction `dir`.
+     */
+    final byte[] weights;
+
+    GridGraph(int width, int height, Random rng) {
+        this.width = width;
+        this.height = height;
+        weights = new byte[8 * width * height];
+        rng.nextBytes(weights);
+    }
+
+    @Override
+    public int vertexCount() {
+        return width * height;
+    }
+
+    @Override
+    public GridVertex getVertex(int id) {
+        return new GridVertex(this, id);
+    }
+}
+
+record GridVertex(GridGraph graph, int id) implements Vertex<GridEdge> {
+
+    @Override
+    public Iterable<GridEdge> outgoingEdges() {
+        int x = id % graph.width;
+        int y = id / graph.width;
+        List<GridEdge> edges = new ArrayList<>(8);
+        for (int dir = 0; dir < 8; ++dir) {
+            int nx = x + GridGraph.DX[dir];
+            int ny = y + GridGraph.DY[dir];
+            if (nx >= 0 && nx < graph.width && ny >= 0 && ny < graph.height) {
+                edges.add(new GridEdge(id, nx + ny * graph.width,
+                        Byte.toUnsignedInt(graph.weights[8 * id + dir])));
+            }
+        }
+        return edges;
+    }
+}
+
+record GridEdge(int startId, int endId, int weight) implements Edge {
+
+}
+
+class GridWeigher implements Weigher<GridEdge> {
+
+    @Override
+    public int weight(GridEdge edge) {
+        return edge.weight();
+    }
+
+    @Override
+    public int maxWeight() {
+        return 255;
+    }
+}
@@ -0,0 +1,127 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures every `MinQueue` implementation under the add/update/remove mix of a Dijkstra frontier.
+ * Each invocation drains a queue while running Dijkstra's algorithm over a fixed random graph with
+ * `keys` vertices of out-degree `degree` and edge weights in [0..255]: every removal is followed by
+ * `degree` relaxations, each of which adds a new element, lowers an existing element's priority,
+ * or does nothing.  A larger degree therefore shifts the mix towards adds and updates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MinQueueBenchmark {
+
+    /**
+     * The largest edge weight in the random graph.
+     */
+    static final int MAX_WEIGHT = 255;
+
+    /**
+     * The queue to measure: the name of a generic `MinQueue` class, or of a `FrontierStrategy`.
+     */
+    @Param({"HeapMinQueue", "RefMinQueue", "BINARY_HEAP", "HEAP_4", "HEAP_8", "LAZY_HEAP",
+            "BUCKET", "RADIX"})
+    public String queue;
+
+    /**
+     * The number of vertices (distinct queue elements).
+     */
+    @Param({"10000"})
+    public int keys;
+
+    /**
+     * The out-degree of each vertex, i.e. the number of relaxations per removal.
+     */
+    @Param({"2", "4", "8"})
+    public int degree;
+
+    /**
+     * `targets[degree*id + j]` and `weights[degree*id + j]` describe the `j`th edge leaving vertex
+     * `id`.
+     */
+    private int[] targets;
+    private int[] weights;
+
+    /**
+     * Best known distance to each vertex, or -1 if undiscovered.
+     */
+    private int[] distances;
+
+    /**
+     * The queue being measured, as a generic queue (for the boxed implementations) or as an
+     * `IntMinQueue` (null for the boxed implementations).
+     */
+    private MinQueue<Integer> boxed;
+    private IntMinQueue primitive;
+
+    @Setup
+    public void setup() {
+        Random rng = new Random(1);
+        targets = new int[degree * keys];
+        weights = new int[degree * keys];
+        for (int i = 0; i < targets.length; ++i) {
+            targets[i] = rng.nextInt(keys);
+            weights[i] = rng.nextInt(MAX_WEIGHT + 1);
+        }
+        distances = new int[keys];
+
+        switch (queue) {
+            case "HeapMinQueue" -> boxed = new HeapMinQueue<>();
+            case "RefMinQueue" -> boxed = new RefMinQueue<>();
+            default -> {
+                primitive = FrontierStrategy.parse(queue).make(keys, MAX_WEIGHT);
+                boxed = primitive;
+            }
+        }
+    }
+
+    /**
+     * Run Dijkstra's algorithm from vertex 0 until the queue is empty, and return the sum of the
+     * removed priorities (so that the work cannot be optimized away).
+     */
+    @Benchmark
+    public long drain() {
+        Arrays.fill(distances, -1);
+        boxed.clear();
+        distances[0] = 0;
+        boxed.addOrUpdate(0, 0);
+        long checksum = 0;
+        while (!boxed.isEmpty()) {
+            int d = boxed.minPriority();
+            int id = (primitive != null) ? primitive.removeInt() : boxed.remove();
+            checksum += d;
+            for (int e = degree * id; e < degree * (id + 1); ++e) {
+                int end = targets[e];
+                int newDistance = d + weights[e];
+                if (distances[end] < 0 || newDistance < distances[end]) {
+                    distances[end] = newDistance;
+                    if (primitive != null) {
+                        primitive.addOrUpdate(end, newDistance);
+                    } else {
+                        boxed.addOrUpdate(end, newDistance);
+                    }
+                }
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,100 @@
+package scissors;
+
+import graph.DeltaSteppingPaths;
+import graph.PathfindingSnapshot;
+import graph.ShortestPaths;
+import graph.Weigher;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full-image scissors solve by `DeltaSteppingPaths` on a pool of `threads` threads with
+ * buckets `delta` wide, with the image rescaled to `megapixels`.  The sequential baseline is
+ * `ImageShortestPathsBenchmark` at the same size.  Setup checks that the solver finds the same
+ * distances as `ShortestPaths`, and reuses it for every solve, so that starting each search costs
+ * what it would in the app.  The large sizes need a large heap (see `@Fork`).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class DeltaSteppingBenchmark {
+
+    /**
+     * The image to rescale, relative to the working directory.
+     */
+    @Param({"McGraw_Tower.jpg"})
+    public String image;
+
+    /**
+     * The approximate size of the rescaled image, in millions of pixels.
+     */
+    @Param({"1", "12"})
+    public double megapixels;
+
+    /**
+     * The number of threads in the pool relaxing edges.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    /**
+     * The width of each bucket's range of distances, and the heaviest edge considered light.
+     */
+    @Param({"8", "32", "128"})
+    public int delta;
+
+    private ImageGraph graph;
+    private ForkJoinPool pool;
+    private DeltaSteppingPaths<ImageVertex, ImageEdge> pathfinder;
+    private int startId;
+
+    @Setup
+    public void setup() throws IOException {
+        BufferedImage original = ImageIO.read(new File(image));
+        double scale = Math.sqrt(megapixels * 1e6
+                / ((double) original.getWidth() * original.getHeight()));
+        graph = new ImageGraph(FrontierBenchmark.rescale(original, scale));
+        Weigher<ImageEdge> weigher = ScissorsWeights.makeWeigher("CrossGradMono", graph);
+        startId = graph.vertexCount() / 2 + graph.width() / 2;
+        pool = new ForkJoinPool(threads);
+        pathfinder = new DeltaSteppingPaths<>(graph, weigher, pool, delta);
+
+        PathfindingSnapshot expected = new ShortestPaths<>(graph, weigher).findAllPaths(startId);
+        PathfindingSnapshot paths = pathfinder.findAllPaths(startId);
+        for (int id = 0; id < graph.vertexCount(); ++id) {
+            if (paths.distanceTo(id) != expected.distanceTo(id)) {
+                throw new AssertionError("Distance to " + id + " is " + paths.distanceTo(id)
+                        + ", not " + expected.distanceTo(id));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public PathfindingSnapshot findAllPaths() {
+        return pathfinder.findAllPaths(startId);
+    }
+}
@@ -0,0 +1,218 @@
+package scissors;
+
+import graph.BucketMinQueue;
+import graph.HeapMinQueue;
+import graph.IntHeapMinQueue;
+import graph.IntMinQueue;
+import graph.LazyHeapMinQueue;
+import graph.MinQueue;
+import graph.RadixMinQueue;
+import graph.Weigher;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+/**
+ * Compares frontier queue implementations by running Dijkstra's algorithm over the pixel graph of
+ * an image, rescaled to several resolutions.  Edge weights are computed up front by the
+ * "CrossGradMono" weigher, so the timings reflect queue operations rather than weighing.  Heaps
+ * of several arities are compared, along with the peak frontier size they had to hold.
+ * <p>
+ * Usage: `FrontierBenchmark [image] [repetitions] [scale...]` (defaults to "McGraw_Tower.jpg", 5,
+ * and scales 1, 2, 4), run from the directory containing the image.
+ */
+public class FrontierBenchmark {
+
+    /**
+     * The image graph being searched.
+     */
+    private final ImageGraph graph;
+
+    /**
+     * `weights[8*id + dir]` is the weight of the edge leaving vertex `id` in direction `dir`, or -1
+     * if that neighbor is outside the image.  Scissors weights fit in a `short`, which keeps this
+     * table affordable for large images.
+     */
+    private final short[] weights;
+
+    /**
+     * The largest weight in `weights`.
+     */
+    private final int maxWeight;
+
+    /**
+     * Distances found by the most recent solve.
+     */
+    private final int[] distances;
+
+    /**
+     * The largest number of vertices in the frontier at once during the most recent solve.
+     */
+    private int peakFrontier;
+
+    /**
+     * Prepare to benchmark searches over `img` weighed by the weigher named `weightName`.
+     */
+    FrontierBenchmark(BufferedImage img, String weightName) {
+        graph = new ImageGraph(img);
+        Weigher<ImageEdge> weigher = ScissorsWeights.makeWeigher(weightName, graph);
+        maxWeight = weigher.maxWeight();
+        weights = new short[8 * graph.vertexCount()];
+        for (int id = 0; id < graph.vertexCount(); ++id) {
+            ImageVertex v = graph.getVertex(id);
+            for (int dir = 0; dir < 8; ++dir) {
+                weights[8 * id + dir] = (short) (v.validDir(dir)
+                        ? weigher.weight(new ImageEdge(id, v.neighborId(dir), dir)) : -1);
+            }
+        }
+        distances = new int[graph.vertexCount()];
+    }
+
+    /**
+     * Return the ID of the neighbor of vertex `id` in direction `dir`.  Requires the neighbor is
+     * within the image.
+     */
+    private int neighbor(int id, int dir) {
+        int w = graph.width();
+        return switch (dir) {
+            case 0 -> id + 1;
+            case 1 -> id + 1 - w;
+            case 2 -> id - w;
+            case 3 -> id - 1 - w;
+            case 4 -> id - 1;
+            case 5 -> id - 1 + w;
+            case 6 -> id + w;
+            case 7 -> id + 1 + w;
+            default -> throw new IllegalArgumentException();
+        };
+    }
+
+    /**
+     * Solve for all shortest paths from `startId` using `frontier`, which is operated on through
+     * its boxed `MinQueue` interface.  Returns the sum of all distances (as a checksum).
+     */
+    long solveBoxed(MinQueue<Integer> frontier, int startId) {
+        Arrays.fill(distances, -1);
+        frontier.clear();
+        distances[startId] = 0;
+        frontier.addOrUpdate(startId, 0);
+        long checksum = 0;
+        while (!frontier.isEmpty()) {
+            int d = frontier.minPriority();
+            int id = frontier.remove();
+            checksum += d;
+            for (int dir = 0; dir < 8; ++dir) {
+                int w = weights[8 * id + dir];
+                if (w >= 0) {
+                    int end = neighbor(id, dir);
+                    int newDistance = d + w;
+                    if (distances[end] < 0 || newDistance < distances[end]) {
+                        distances[end] = newDistance;
+                        frontier.addOrUpdate(end, newDistance);
+                    }
+                }
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Solve for all shortest paths from `startId` using `frontier`'s primitive operations.
+     * Returns the sum of all distances (as a checksum).
+     */
+    long solve(IntMinQueue frontier, int startId) {
+        Arrays.fill(distances, -1);
+        frontier.clear();
+        distances[startId] = 0;
+        frontier.addOrUpdate(startId, 0);
+        long checksum = 0;
+        peakFrontier = 0;
+        while (!frontier.isEmpty()) {
+            peakFrontier = Math.max(peakFrontier, frontier.size());
+            int d = frontier.minPriority();
+            int id = frontier.removeInt();
+            checksum += d;
+            for (int dir = 0; dir < 8; ++dir) {
+                int w = weights[8 * id + dir];
+                if (w >= 0) {
+                    int end = neighbor(id, dir);
+                    int newDistance = d + w;
+                    if (distances[end] < 0 || newDistance < distances[end]) {
+                        distances[end] = newDistance;
+                        frontier.addOrUpdate(end, newDistance);
+                    }
+                }
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Time `reps` solves from the center of the image with `frontier`, after as many warmup
+     * solves, and print the mean time per solve and the resulting throughput.
+     */
+    void time(String name, MinQueue<Integer> frontier, int reps) {
+        int startId = graph.vertexCount() / 2 + graph.width() / 2;
+        long checksum = 0;
+        long elapsed = 0;
+        for (int i = 0; i < 2 * reps; ++i) {
+            long t0 = System.nanoTime();
+            checksum = (frontier instanceof IntMinQueue q) ? solve(q, startId)
+                    : solveBoxed(frontier, startId);
+            if (i >= reps) {
+                elapsed += System.nanoTime() - t0;
+            }
+        }
+        double seconds = elapsed / 1e9 / reps;
+        System.out.printf("  %-16s %9.2f ms/solve %8.2f Mvertex/s  (checksum %d)%n", name,
+                seconds * 1e3, graph.vertexCount() / seconds / 1e6, checksum);
+    }
+
+    /**
+     * Return a copy of `img` scaled by `scale` in each dimension.
+     */
+    static BufferedImage rescale(BufferedImage img, double scale) {
+        int w = (int) Math.round(img.getWidth() * scale);
+        int h = (int) Math.round(img.getHeight() * scale);
+        BufferedImage scaled = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(img, 0, 0, w, h, null);
+        g.dispose();
+        return scaled;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String file = (args.length > 0) ? args[0] : "McGraw_Tower.jpg";
+        int reps = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+        double[] scales = (args.length > 2)
+                ? Arrays.stream(args, 2, args.length).mapToDouble(Double::parseDouble).toArray()
+                : new double[]{1, 2, 4};
+        BufferedImage original = ImageIO.read(new File(file));
+
+        for (double scale : scales) {
+            BufferedImage img = (scale == 1) ? original : rescale(original, scale);
+            FrontierBenchmark bench = new FrontierBenchmark(img, "CrossGradMono");
+            int n = bench.graph.vertexCount();
+            System.out.printf("%s x%.1f: %dx%d (%.1f MP), max weight %d%n", file, scale,
+                    img.getWidth(), img.getHeight(), n / 1e6, bench.maxWeight);
+
+            bench.time("HeapMinQueue", new HeapMinQueue<>(), reps);
+            for (int arity : new int[]{2, 4, 8, 16}) {
+                bench.time("IntHeap arity " + arity, new IntHeapMinQueue(n, arity), reps);
+            }
+            System.out.printf("  peak frontier size %d%n", bench.peakFrontier);
+            LazyHeapMinQueue lazy = new LazyHeapMinQueue(n);
+            bench.time("LazyHeapMinQueue", lazy, reps);
+            System.out.printf("  duplicate pushes %d (%.1f%% of vertices)%n",
+                    lazy.duplicatePushes(), 100.0 * lazy.duplicatePushes() / n);
+            bench.time("BucketMinQueue", new BucketMinQueue(n, bench.maxWeight), reps);
+            bench.time("RadixMinQueue", new RadixMinQueue(n), reps);
+        }
+    }
+}
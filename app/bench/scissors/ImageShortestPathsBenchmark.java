@@ -0,0 +1,77 @@
+package scissors;
+
+import graph.FrontierStrategy;
+import graph.PathfindingSnapshot;
+import graph.ShortestPaths;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a full-image scissors solve, `ShortestPaths.findAllPaths()` over an `ImageGraph`, with
+ * the image rescaled to `megapixels`.  Each solve at 50 MP takes many seconds, so every iteration
+ * is a single solve.  The large sizes need a large heap (see `@Fork`).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class ImageShortestPathsBenchmark {
+
+    /**
+     * The image to rescale, relative to the working directory.
+     */
+    @Param({"McGraw_Tower.jpg"})
+    public String image;
+
+    /**
+     * The approximate size of the rescaled image, in millions of pixels.
+     */
+    @Param({"1", "12", "50"})
+    public double megapixels;
+
+    /**
+     * The name of the weigher, as recognized by `ScissorsWeights`.
+     */
+    @Param({"CrossGradMono"})
+    public String weightName;
+
+    /**
+     * The `FrontierStrategy` to solve with.
+     */
+    @Param({"AUTO"})
+    public String strategy;
+
+    private ImageGraph graph;
+    private ShortestPaths<ImageVertex, ImageEdge> pathfinder;
+
+    @Setup
+    public void setup() throws IOException {
+        BufferedImage original = ImageIO.read(new File(image));
+        double scale = Math.sqrt(megapixels * 1e6
+                / ((double) original.getWidth() * original.getHeight()));
+        graph = new ImageGraph(FrontierBenchmark.rescale(original, scale));
+        pathfinder = new ShortestPaths<>(graph, ScissorsWeights.makeWeigher(weightName, graph),
+                FrontierStrategy.parse(strategy));
+    }
+
+    @Benchmark
+    public PathfindingSnapshot findAllPaths() {
+        return pathfinder.findAllPaths(graph.vertexCount() / 2 + graph.width() / 2);
+    }
+}
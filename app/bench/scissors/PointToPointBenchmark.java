@@ -0,0 +1,151 @@
+package scissors;
+
+import graph.BidirectionalShortestPaths;
+import graph.PathfindingSnapshot;
+import graph.ShortestPaths;
+import graph.Weigher;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares ways of finding the two segments that `ScissorsSelectionModel.movePoint()` needs: paths
+ * from a moved point to its predecessor and successor, which lie at Chebyshev distance `radius`
+ * from it.  Runs a full Dijkstra solve, a Dijkstra search that stops once both targets are
+ * settled, and a bidirectional search per target, cycling through the same random point triples
+ * for each.  The fraction of the image each search settled on average is printed once its trial
+ * ends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PointToPointBenchmark {
+
+    /**
+     * The number of random point triples cycled through.
+     */
+    private static final int TRIALS = 64;
+
+    /**
+     * The image to search, relative to the working directory.
+     */
+    @Param({"McGraw_Tower.jpg"})
+    public String image;
+
+    /**
+     * The Chebyshev distance from the moved point to each of its neighbors.
+     */
+    @Param({"20", "50", "100", "200"})
+    public int radius;
+
+    private ImageGraph graph;
+    private ShortestPaths<ImageVertex, ImageEdge> dijkstra;
+    private BidirectionalShortestPaths<ImageVertex, ImageEdge> bidirectional;
+
+    /**
+     * `startIds[i]` is the moved point of the `i`th triple, and `targetIds[i]` its neighbors.
+     */
+    private int[] startIds;
+    private int[][] targetIds;
+
+    /**
+     * The index of the next triple to search.
+     */
+    private int next;
+
+    /**
+     * The number of searches run and the total number of vertices they settled during this trial.
+     */
+    private long searches;
+    private long settled;
+
+    @Setup
+    public void setup() throws IOException {
+        BufferedImage img = ImageIO.read(new File(image));
+        graph = new ImageGraph(img);
+        Weigher<ImageEdge> weigher = ScissorsWeights.makeWeigher("CrossGradMono", graph);
+        dijkstra = new ShortestPaths<>(graph, weigher);
+        bidirectional = new BidirectionalShortestPaths<>(graph, weigher);
+
+        Random rng = new Random(1);
+        startIds = new int[TRIALS];
+        targetIds = new int[TRIALS][];
+        for (int i = 0; i < TRIALS; ++i) {
+            int x = radius + rng.nextInt(graph.width() - 2 * radius);
+            int y = radius + rng.nextInt(graph.height() - 2 * radius);
+            startIds[i] = x + y * graph.width();
+            targetIds[i] = new int[]{neighborAt(x, y, rng), neighborAt(x, y, rng)};
+        }
+    }
+
+    @TearDown
+    public void report() {
+        System.out.printf("%n  settled %.2f%% of %d pixels per search%n",
+                100.0 * settled / searches / graph.vertexCount(), graph.vertexCount());
+    }
+
+    @Benchmark
+    public PathfindingSnapshot full() {
+        PathfindingSnapshot paths = dijkstra.findAllPaths(startIds[next]);
+        count(dijkstra.settledCount());
+        return paths;
+    }
+
+    @Benchmark
+    public boolean earlyExit() {
+        dijkstra.setStart(startIds[next]);
+        boolean found = true;
+        for (int targetId : targetIds[next]) {
+            found &= dijkstra.settleUntil(targetId);
+        }
+        count(dijkstra.settledCount());
+        return found;
+    }
+
+    @Benchmark
+    public List<List<Integer>> bidirectional() {
+        List<List<Integer>> paths = bidirectional.pathsBetween(startIds[next], targetIds[next]);
+        count(bidirectional.settledCount());
+        return paths;
+    }
+
+    /**
+     * Record that the search of the current triple settled `settledCount` vertices, and move on to
+     * the next triple.
+     */
+    private void count(int settledCount) {
+        searches += 1;
+        settled += settledCount;
+        next = (next + 1) % TRIALS;
+    }
+
+    /**
+     * Return the ID of a random pixel at Chebyshev distance `radius` from (`x`, `y`), which must be
+     * at least that far from the image's borders.
+     */
+    private int neighborAt(int x, int y, Random rng) {
+        int offset = rng.nextInt(2 * radius + 1) - radius;
+        int sign = rng.nextBoolean() ? 1 : -1;
+        return rng.nextBoolean() ? (x + sign * radius) + (y + offset) * graph.width()
+                : (x + offset) + (y + sign * radius) * graph.width();
+    }
+}
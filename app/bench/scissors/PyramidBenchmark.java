@@ -0,0 +1,118 @@
+package scissors;
+
+import graph.ShortestPaths;
+import graph.Weigher;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+/**
+ * Compares coarse-to-fine path finding with an `ImagePyramid` against exact full-resolution
+ * searches, for random pairs of points at several distances.  Latency is the time to settle out to
+ * the second point from the first (as the live wire does), for the exact search at full resolution
+ * and for the coarse search, plus the time to refine the coarse path when it is committed.  Quality
+ * is the weight of the refined path relative to the shortest path's: its mean and maximum, and how
+ * often the refined path was optimal.
+ * <p>
+ * Usage: `PyramidBenchmark [image] [scale] [trials] [coarse pixels]` (defaults to
+ * "McGraw_Tower.jpg", 4, 20, and `ImagePyramid.COARSE_PIXELS`), run from the directory containing
+ * the image.
+ */
+public class PyramidBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String file = (args.length > 0) ? args[0] : "McGraw_Tower.jpg";
+        double scale = (args.length > 1) ? Double.parseDouble(args[1]) : 4;
+        int trials = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+        int coarsePixels = (args.length > 3) ? Integer.parseInt(args[3])
+                : ImagePyramid.COARSE_PIXELS;
+        BufferedImage img = ImageIO.read(new File(file));
+        if (scale != 1) {
+            img = FrontierBenchmark.rescale(img, scale);
+        }
+
+        ImageAnalysis analysis = new ImageAnalysis(img);
+        ImagePyramid pyramid = new ImagePyramid(analysis, coarsePixels);
+        long t0 = System.nanoTime();
+        pyramid.prepare("CrossGradMono");
+        long prepareNanos = System.nanoTime() - t0;
+        ImageGraph graph = analysis.graph();
+        Weigher<ImageEdge> weigher = analysis.weigher("CrossGradMono").get();
+        ImageAnalysis coarsest = pyramid.coarsest();
+        ShortestPaths<ImageVertex, ImageEdge> exact = new ShortestPaths<>(graph, weigher);
+        ShortestPaths<ImageVertex, ImageEdge> coarse = new ShortestPaths<>(coarsest.graph(),
+                coarsest.weigher("CrossGradMono").get());
+        System.out.printf("%s x%.1f: %dx%d (%.1f MP), %d levels down to %dx%d, built in %.0f ms; "
+                        + "%d trials per radius%n", file, scale, graph.width(), graph.height(),
+                graph.vertexCount() / 1e6, pyramid.levels().size(), coarsest.graph().width(),
+                coarsest.graph().height(), prepareNanos / 1e6, trials);
+        System.out.printf("  %6s %10s %10s %10s %10s %10s %8s%n", "radius", "exact ms",
+                "coarse ms", "refine ms", "mean cost", "max cost", "optimal");
+
+        Random rng = new Random(1);
+        int maxRadius = Math.min(graph.width(), graph.height()) / 2 - 1;
+        for (int radius : new int[]{25, 100, 400, 1600}) {
+            if (radius > maxRadius) {
+                break;
+            }
+            long exactNanos = 0;
+            long coarseNanos = 0;
+            long refineNanos = 0;
+            double ratioSum = 0;
+            double maxRatio = 1;
+            int optimal = 0;
+            for (int trial = 0; trial < trials; ++trial) {
+                int x = radius + rng.nextInt(graph.width() - 2 * radius);
+                int y = radius + rng.nextInt(graph.height() - 2 * radius);
+                int startId = x + y * graph.width();
+                double angle = rng.nextDouble(2 * Math.PI);
+                int endId = (x + (int) (radius * Math.cos(angle)))
+                        + (y + (int) (radius * Math.sin(angle))) * graph.width();
+
+                long t1 = System.nanoTime();
+                exact.setStart(startId);
+                exact.settleUntil(endId);
+                long t2 = System.nanoTime();
+                coarse.setStart(pyramid.coarseId(startId));
+                coarse.settleUntil(pyramid.coarseId(endId));
+                long t3 = System.nanoTime();
+                List<Integer> refined = pyramid.refine("CrossGradMono",
+                        coarse.pathTo(pyramid.coarseId(endId)), startId, endId);
+                long t4 = System.nanoTime();
+                exactNanos += t2 - t1;
+                coarseNanos += t3 - t2;
+                refineNanos += t4 - t3;
+
+                long best = pathWeight(graph, weigher, exact.pathTo(endId));
+                long found = pathWeight(graph, weigher, refined);
+                double ratio = (best > 0) ? (double) found / best : 1;
+                ratioSum += ratio;
+                maxRatio = Math.max(maxRatio, ratio);
+                optimal += (found == best) ? 1 : 0;
+            }
+            System.out.printf("  %6d %10.1f %10.1f %10.1f %10.3f %10.3f %7.0f%%%n", radius,
+                    exactNanos / 1e6 / trials, coarseNanos / 1e6 / trials,
+                    refineNanos / 1e6 / trials, ratioSum / trials, maxRatio,
+                    100.0 * optimal / trials);
+        }
+    }
+
+    /**
+     * Return the total weight of the edges along `path` in `graph` weighed by `weigher`.
+     */
+    private static long pathWeight(ImageGraph graph, Weigher<ImageEdge> weigher,
+            List<Integer> path) {
+        long[] total = {0};
+        for (int i = 1; i < path.size(); ++i) {
+            int endId = path.get(i);
+            graph.forEachNeighbor(path.get(i - 1), weigher, (id, dir, weight) -> {
+                if (id == endId) {
+                    total[0] += weight;
+                }
+            });
+        }
+        return total[0];
+    }
+}
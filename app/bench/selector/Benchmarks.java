@@ -0,0 +1,29 @@
+package selector;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks in the `bench` source folder with GC profiling enabled, so that both
+ * throughput and allocation rate (`gc.alloc.rate.norm`, in bytes per operation) are reported.  An
+ * increase in allocation per operation on the pathfinding hot path is as much a regression as a
+ * drop in throughput.
+ * <p>
+ * Program arguments are standard JMH options; for example, `MinQueueBenchmark` runs only the queue
+ * benchmarks, and `-p megapixels=1` limits the image benchmarks to small images.  Run from the
+ * directory containing the benchmark images.  The benchmarks' generated harness code comes from
+ * JMH's annotation processor, so annotation processing must be enabled when compiling them.
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
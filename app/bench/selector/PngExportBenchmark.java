@@ -0,0 +1,155 @@
+package selector;
+
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures exporting a selection as PNG with each `PngEncoder`: the JDK's sequential writer, and
+ * `ParallelPngWriter` with and without row filtering on a pool of `threads` threads, all at zlib
+ * level `level`.  The selection is an octagon inscribed in the image rescaled to `megapixels`,
+ * read through a `ClippedImage` as `SelectionExporter` reads it, and files are written to memory
+ * so that disk speed is not measured.  Each benchmark returns the file's size, and setup checks
+ * that every encoder's file decodes to the same pixels.
+ * <p>
+ * `imageIO()` does not use the pool, so its results are the same for every `threads`.  The
+ * smallest `threads` at which `parallel()` beats it sets `PngEncoder.MIN_PARALLEL_PROCESSORS`.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PngExportBenchmark {
+
+    /**
+     * The image to rescale, relative to the working directory.
+     */
+    @Param({"McGraw_Tower.jpg"})
+    public String image;
+
+    /**
+     * The approximate size of the rescaled image, in millions of pixels.
+     */
+    @Param({"2"})
+    public double megapixels;
+
+    /**
+     * The number of threads in the parallel writer's pool.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    /**
+     * The zlib compression level to write at.
+     */
+    @Param({"1", "4", "6"})
+    public int level;
+
+    private BufferedImage img;
+    private Polygon octagon;
+    private ForkJoinPool pool;
+    private ParallelPngWriter unfiltered;
+    private ParallelPngWriter filtered;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() throws IOException {
+        BufferedImage original = ImageIO.read(new File(image));
+        double scale = Math.sqrt(megapixels * 1e6
+                / ((double) original.getWidth() * original.getHeight()));
+        img = rescale(original, scale);
+        int w = img.getWidth();
+        int h = img.getHeight();
+        octagon = new Polygon(
+                new int[]{w / 4, 3 * w / 4, w, w, 3 * w / 4, w / 4, 0, 0},
+                new int[]{0, 0, h / 4, 3 * h / 4, h, h, 3 * h / 4, h / 4}, 8);
+        pool = new ForkJoinPool(threads);
+        unfiltered = new ParallelPngWriter(level, false, pool);
+        filtered = new ParallelPngWriter(level, true, pool);
+        out = new ByteArrayOutputStream(4 * w * h);
+
+        imageIO();
+        BufferedImage expected = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        parallel();
+        check(expected, ImageIO.read(new ByteArrayInputStream(out.toByteArray())));
+        parallelFiltered();
+        check(expected, ImageIO.read(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int imageIO() throws IOException {
+        out.reset();
+        PngEncoder.IMAGE_IO.write(new ClippedImage(img, octagon), out, level, percent -> {},
+                () -> false);
+        return out.size();
+    }
+
+    @Benchmark
+    public int parallel() throws IOException {
+        out.reset();
+        unfiltered.write(new ClippedImage(img, octagon), out, percent -> {});
+        return out.size();
+    }
+
+    @Benchmark
+    public int parallelFiltered() throws IOException {
+        out.reset();
+        filtered.write(new ClippedImage(img, octagon), out, percent -> {});
+        return out.size();
+    }
+
+    /**
+     * Throw an AssertionError unless `actual` has the same pixels as `expected`.
+     */
+    private static void check(BufferedImage expected, BufferedImage actual) {
+        for (int y = 0; y < expected.getHeight(); ++y) {
+            for (int x = 0; x < expected.getWidth(); ++x) {
+                if (actual.getRGB(x, y) != expected.getRGB(x, y)) {
+                    throw new AssertionError("Pixel " + x + "," + y + " differs");
+                }
+            }
+        }
+    }
+
+    /**
+     * Return a copy of `img` scaled by `scale` in each dimension.
+     */
+    private static BufferedImage rescale(BufferedImage img, double scale) {
+        int w = (int) Math.round(img.getWidth() * scale);
+        int h = (int) Math.round(img.getHeight() * scale);
+        BufferedImage scaled = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(img, 0, 0, w, h, null);
+        g.dispose();
+        return scaled;
+    }
+}
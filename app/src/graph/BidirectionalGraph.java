@@ -0,0 +1,16 @@
+package graph;
+
+/**
+ * An `IntGraph` that can also enumerate the edges _entering_ a vertex, as needed to search
+ * backwards from a destination (see `BidirectionalShortestPaths`).
+ */
+public interface BidirectionalGraph<VertexType extends Vertex<EdgeType>, EdgeType extends Edge>
+        extends IntGraph<VertexType, EdgeType> {
+
+    /**
+     * Call `visitor.visit()` once for each edge entering the vertex with ID `id`, passing the edge's
+     * _start_ ID, its direction (as reported by `forEachNeighbor()` from that start), and its
+     * weight according to `weigher`.  The edges must be exactly those whose `endId()` is `id`.
+     */
+    void forEachIncoming(int id, Weigher<EdgeType> weigher, IntEdgeVisitor visitor);
+}
@@ -0,0 +1,267 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds shortest paths between single pairs of vertices with bidirectional Dijkstra: one search
+ * grows forwards from the source while another grows backwards from the destination, until the
+ * sum of their frontiers' minimum distances reaches the shortest path found where they meet.  For
+ * a point-to-point query this typically settles far fewer vertices than `ShortestPaths`, which
+ * must settle every vertex closer to the source than the destination.
+ */
+public class BidirectionalShortestPaths<VertexType extends Vertex<EdgeType>,
+        EdgeType extends Edge> {
+
+    /**
+     * The graph we are searching for paths in.
+     */
+    private final BidirectionalGraph<VertexType, EdgeType> graph;
+
+    /**
+     * Weigher to use in order to query edge weights in our graph.
+     */
+    private final Weigher<EdgeType> weigher;
+
+    /**
+     * Which vertices the forward and backward searches have discovered and settled.  Lets each query
+     * forget the previous one without clearing the arrays below.
+     */
+    private final SearchMarks forwardMarks;
+    private final SearchMarks backwardMarks;
+
+    /**
+     * `forwardDistances[id]` is the weight of the shortest known path from the source to the vertex
+     * with ID `id`, and `backwardDistances[id]` the weight of the shortest known path from that
+     * vertex to the destination.  Unspecified unless the vertex is discovered by the corresponding
+     * search.
+     */
+    private final int[] forwardDistances;
+    private final int[] backwardDistances;
+
+    /**
+     * `predecessors[id]` is the penultimate vertex on the shortest known path from the source to
+     * the vertex with ID `id`, and `successors[id]` the second vertex on the shortest known path
+     * from that vertex to the destination; -1 if there is none.  Unspecified unless the vertex is
+     * discovered by the corresponding search.
+     */
+    private final int[] predecessors;
+    private final int[] successors;
+
+    /**
+     * Frontiers of the forward and backward searches, ordered by their distances.
+     */
+    private final IntMinQueue forwardFrontier;
+    private final IntMinQueue backwardFrontier;
+
+    /**
+     * Relax the edges visited from the vertex `relaxingId` by the forward and backward searches.
+     * Created once so that visiting a vertex's edges allocates nothing.
+     */
+    private final IntEdgeVisitor forwardRelaxer;
+    private final IntEdgeVisitor backwardRelaxer;
+
+    /**
+     * The ID of the vertex whose edges are currently being relaxed.
+     */
+    private int relaxingId;
+
+    /**
+     * The weight of the shortest path found so far through a vertex discovered by both searches,
+     * or -1 if the searches have not met.  `meetingId` is that vertex.
+     */
+    private int bestDistance;
+    private int meetingId;
+
+    /**
+     * The number of vertices settled by both searches during the last query.
+     */
+    private int settledCount;
+
+    /**
+     * Create a new solver for paths in `graph` whose edge weights are determined by `weigher`.  The
+     * frontiers are chosen by `FrontierStrategy.AUTO` unless overridden by the system property
+     * `FrontierStrategy.PROPERTY`.
+     */
+    public BidirectionalShortestPaths(BidirectionalGraph<VertexType, EdgeType> graph,
+            Weigher<EdgeType> weigher) {
+        this(graph, weigher, FrontierStrategy.configured(FrontierStrategy.AUTO));
+    }
+
+    /**
+     * Create a new solver for paths in `graph` whose edge weights are determined by `weigher`,
+     * ordering both of its frontiers with queues made by `frontierFactory`.
+     */
+    public BidirectionalShortestPaths(BidirectionalGraph<VertexType, EdgeType> graph,
+            Weigher<EdgeType> weigher, FrontierFactory frontierFactory) {
+        this.graph = graph;
+        this.weigher = weigher;
+        int n = graph.vertexCount();
+        forwardMarks = new SearchMarks(n);
+        backwardMarks = new SearchMarks(n);
+        forwardDistances = new int[n];
+        backwardDistances = new int[n];
+        predecessors = new int[n];
+        successors = new int[n];
+        forwardFrontier = frontierFactory.make(n, weigher.maxWeight());
+        backwardFrontier = frontierFactory.make(n, weigher.maxWeight());
+        forwardRelaxer = (endId, dir, weight) -> relaxForward(endId, weight);
+        backwardRelaxer = (startId, dir, weight) -> relaxBackward(startId, weight);
+    }
+
+    /**
+     * Return the number of vertices that were settled (by either search) during the last query.
+     */
+    public int settledCount() {
+        return settledCount;
+    }
+
+    /**
+     * Return the sequence of vertex IDs along a shortest path from the vertex with ID `srcId` to the
+     * vertex with ID `dstId` (inclusive).  Throws IllegalArgumentException if there is no such
+     * path.
+     */
+    public List<Integer> pathBetween(int srcId, int dstId) {
+        search(srcId, dstId);
+        if (bestDistance < 0) {
+            throw new IllegalArgumentException("No path exists from " + srcId + " to " + dstId);
+        }
+        return foundPath();
+    }
+
+    /**
+     * Return the sequences of vertex IDs along shortest paths from the vertex with ID `startId` to
+     * each vertex whose ID is in `targetIds` (inclusive), in the same order as `targetIds`.  The
+     * entry for a target that is unreachable from the start is null.  The paths are copies, so
+     * they stay valid after this solver's next query; `settledCount()` totals the vertices settled
+     * by every target's search.
+     */
+    public List<List<Integer>> pathsBetween(int startId, int[] targetIds) {
+        List<List<Integer>> paths = new ArrayList<>(targetIds.length);
+        int totalSettled = 0;
+        for (int targetId : targetIds) {
+            search(startId, targetId);
+            totalSettled += settledCount;
+            paths.add((bestDistance < 0) ? null : foundPath());
+        }
+        settledCount = totalSettled;
+        return paths;
+    }
+
+    /**
+     * Return the sequence of vertex IDs along the shortest path found by the last search, which
+     * must have found one: forwards from the source to the meeting point, then on to the
+     * destination.
+     */
+    private List<Integer> foundPath() {
+        List<Integer> path = new ArrayList<>();
+        for (int id = meetingId; id != -1; id = predecessors[id]) {
+            path.add(id);
+        }
+        Collections.reverse(path);
+        for (int id = successors[meetingId]; id != -1; id = successors[id]) {
+            path.add(id);
+        }
+        return path;
+    }
+
+    /**
+     * Run a bidirectional search from `srcId` to `dstId`, leaving `bestDistance` and `meetingId`
+     * describing a shortest path between them (`bestDistance` is -1 if there is none).
+     */
+    private void search(int srcId, int dstId) {
+        forwardMarks.clear();
+        backwardMarks.clear();
+        forwardFrontier.clear();
+        backwardFrontier.clear();
+        settledCount = 0;
+
+        forwardMarks.discover(srcId);
+        forwardDistances[srcId] = 0;
+        predecessors[srcId] = -1;
+        backwardMarks.discover(dstId);
+        backwardDistances[dstId] = 0;
+        successors[dstId] = -1;
+        forwardFrontier.addOrUpdate(srcId, 0);
+        backwardFrontier.addOrUpdate(dstId, 0);
+        bestDistance = (srcId == dstId) ? 0 : -1;
+        meetingId = srcId;
+
+        while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            int forwardMin = forwardFrontier.minPriority();
+            int backwardMin = backwardFrontier.minPriority();
+            // Any path not yet found must leave both searches' settled regions, so it weighs at
+            //  least the sum of their frontiers' minimums.
+            if (bestDistance >= 0 && forwardMin + backwardMin >= bestDistance) {
+                break;
+            }
+            if (forwardMin <= backwardMin) {
+                relaxingId = forwardFrontier.removeInt();
+                forwardMarks.settle(relaxingId);
+                graph.forEachNeighbor(relaxingId, weigher, forwardRelaxer);
+            } else {
+                relaxingId = backwardFrontier.removeInt();
+                backwardMarks.settle(relaxingId);
+                graph.forEachIncoming(relaxingId, weigher, backwardRelaxer);
+            }
+            settledCount += 1;
+        }
+    }
+
+    /**
+     * Offer the path from the source through `relaxingId` to the vertex with ID `endId`, whose final
+     * edge has weight `weight`, to the forward search, and check whether it meets the backward
+     * search there.
+     */
+    private void relaxForward(int endId, int weight) {
+        if (forwardMarks.settled(endId)) {
+            return;
+        }
+        int newDistance = forwardDistances[relaxingId] + weight;
+        if (!forwardMarks.discovered(endId) || newDistance < forwardDistances[endId]) {
+            if (!forwardMarks.discovered(endId)) {
+                forwardMarks.discover(endId);
+            }
+            forwardDistances[endId] = newDistance;
+            predecessors[endId] = relaxingId;
+            forwardFrontier.addOrUpdate(endId, newDistance);
+        }
+        offerMeeting(endId);
+    }
+
+    /**
+     * Offer the path from the vertex with ID `startId` through `relaxingId` to the destination,
+     * whose first edge has weight `weight`, to the backward search, and check whether it meets the
+     * forward search there.
+     */
+    private void relaxBackward(int startId, int weight) {
+        if (backwardMarks.settled(startId)) {
+            return;
+        }
+        int newDistance = backwardDistances[relaxingId] + weight;
+        if (!backwardMarks.discovered(startId) || newDistance < backwardDistances[startId]) {
+            if (!backwardMarks.discovered(startId)) {
+                backwardMarks.discover(startId);
+            }
+            backwardDistances[startId] = newDistance;
+            successors[startId] = relaxingId;
+            backwardFrontier.addOrUpdate(startId, newDistance);
+        }
+        offerMeeting(startId);
+    }
+
+    /**
+     * If both searches have reached the vertex with ID `id` and the path through it is the shortest
+     * found so far, record it.
+     */
+    private void offerMeeting(int id) {
+        if (forwardMarks.discovered(id) && backwardMarks.discovered(id)) {
+            int distance = forwardDistances[id] + backwardDistances[id];
+            if (bestDistance < 0 || distance < bestDistance) {
+                bestDistance = distance;
+                meetingId = id;
+            }
+        }
+    }
+}
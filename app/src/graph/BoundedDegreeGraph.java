@@ -0,0 +1,30 @@
+package graph;
+
+/**
+ * An `IntGraph` whose edge directions (as passed by `forEachNeighbor()`) are drawn from a small
+ * set, and identify each edge relative to its end: the start of an edge can be recovered from its
+ * end and direction.  Pixel grids, whose edges lead to one of a fixed set of neighbors, are the
+ * typical example.  `ShortestPaths` takes advantage of this by recording each vertex's predecessor
+ * as a one-byte direction rather than a four-byte vertex ID.
+ */
+public interface BoundedDegreeGraph<VertexType extends Vertex<EdgeType>, EdgeType extends Edge>
+        extends IntGraph<VertexType, EdgeType> {
+
+    /**
+     * The largest number of directions a graph may declare, so that each direction fits in a byte
+     * with one value to spare.
+     */
+    int MAX_DIRECTIONS = 255;
+
+    /**
+     * Return the number of distinct edge directions, which are the integers in
+     * [0..directionCount()).  Must be at most `MAX_DIRECTIONS`.
+     */
+    int directionCount();
+
+    /**
+     * Return the ID of the vertex whose outgoing edge in direction `dir` ends at the vertex with ID
+     * `endId`.  Requires that such an edge exists.
+     */
+    int startIdOf(int endId, int dir);
+}
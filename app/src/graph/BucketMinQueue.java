@@ -0,0 +1,188 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A monotone min priority queue of distinct `int` elements in `[0..capacity)`, implemented as a
+ * circular array of buckets indexed by priority (Dial's algorithm).  All priorities in the queue
+ * must lie within `maxSpread` of the current minimum, and no element may be given a priority
+ * smaller than the last minimum observed.  These conditions hold for a Dijkstra frontier whose edge
+ * weights lie in `[0..maxSpread]`, and in exchange every operation except finding the next
+ * non-empty bucket is O(1).
+ * <p>
+ * Each bucket is an intrusive doubly-linked list threaded through arrays indexed by element, so
+ * moving an element to a new bucket unlinks it directly rather than leaving a stale entry behind
+ * to be skipped later.
+ */
+public class BucketMinQueue implements IntMinQueue {
+
+    /**
+     * Marks the absence of an element in `heads`, `next`, and `prev`.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * `heads[b]` is the first element in bucket `b`, or NONE if the bucket is empty.  Bucket `b`
+     * holds the elements whose priority `p` satisfies `p % heads.length == b`.  Since all
+     * priorities lie in `[cursor..cursor + heads.length)`, each bucket holds a single priority.
+     */
+    private final int[] heads;
+
+    /**
+     * `next[key]` and `prev[key]` link `key` to its neighbors in its bucket's list (NONE at either
+     * end).  Unspecified for elements not in the queue.
+     */
+    private final int[] next;
+    private final int[] prev;
+
+    /**
+     * `priorities[key]` is the priority associated with `key`, or NONE if `key` is not in the
+     * queue.  Priorities must therefore be non-negative.
+     */
+    private final int[] priorities;
+
+    /**
+     * A lower bound on every priority in the queue; no bucket before `cursor` (circularly) is
+     * non-empty.  Advanced lazily when the minimum is queried.
+     */
+    private int cursor;
+
+    /**
+     * The number of elements in the queue.
+     */
+    private int size;
+
+    /**
+     * Create an empty queue that can hold elements in `[0..capacity)` whose priorities never
+     * exceed the current minimum priority by more than `maxSpread`.
+     */
+    public BucketMinQueue(int capacity, int maxSpread) {
+        assert capacity >= 0;
+        if (maxSpread < 0 || maxSpread == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid priority spread: " + maxSpread);
+        }
+        heads = new int[maxSpread + 1];
+        next = new int[capacity];
+        prev = new int[capacity];
+        priorities = new int[capacity];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(priorities, NONE);
+        cursor = 0;
+        size = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getInt() {
+        return heads[advance()];
+    }
+
+    @Override
+    public int minPriority() {
+        advance();
+        return cursor;
+    }
+
+    /**
+     * If `key` is already contained in this queue, change its associated priority to `priority`.
+     * Otherwise, add it to this queue with that priority.  Throws IllegalArgumentException if
+     * `priority` is negative, less than the current minimum, or farther above it than this queue's
+     * spread allows (an empty queue accepts any non-negative priority).
+     */
+    @Override
+    public void addOrUpdate(int key, int priority) {
+        if (priority < 0) {
+            throw new IllegalArgumentException("Negative priority: " + priority);
+        }
+        if (size == 0 && (priority < cursor || priority - cursor >= heads.length)) {
+            // Nothing constrains an empty queue's window, so start it over at this priority.
+            cursor = priority;
+        }
+        if (priority < cursor || priority - cursor >= heads.length) {
+            throw new IllegalArgumentException("Priority " + priority
+                    + " is outside the monotone window starting at " + cursor);
+        }
+        int old = priorities[key];
+        if (old == priority) {
+            return;
+        }
+        if (old == NONE) {
+            size += 1;
+        } else {
+            unlink(key, old);
+        }
+        priorities[key] = priority;
+        int b = priority % heads.length;
+        prev[key] = NONE;
+        next[key] = heads[b];
+        if (heads[b] != NONE) {
+            prev[heads[b]] = key;
+        }
+        heads[b] = key;
+    }
+
+    @Override
+    public int removeInt() {
+        int b = advance();
+        int key = heads[b];
+        unlink(key, cursor);
+        priorities[key] = NONE;
+        size -= 1;
+        return key;
+    }
+
+    @Override
+    public void clear() {
+        // Every element lies in one of the buckets, so emptying them all is O(buckets + size).
+        for (int b = 0; b < heads.length; ++b) {
+            for (int key = heads[b]; key != NONE; key = next[key]) {
+                priorities[key] = NONE;
+            }
+            heads[b] = NONE;
+        }
+        size = 0;
+        cursor = 0;
+    }
+
+    /**
+     * Advance `cursor` to the minimum priority in the queue and return the index of its bucket.
+     * Throws NoSuchElementException if this queue is empty.
+     */
+    private int advance() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty.");
+        }
+        int b = cursor % heads.length;
+        while (heads[b] == NONE) {
+            cursor += 1;
+            b = (b + 1 == heads.length) ? 0 : b + 1;
+        }
+        return b;
+    }
+
+    /**
+     * Remove `key`, whose priority is `priority`, from its bucket's list.
+     */
+    private void unlink(int key, int priority) {
+        int n = next[key];
+        int p = prev[key];
+        if (p == NONE) {
+            heads[priority % heads.length] = n;
+        } else {
+            next[p] = n;
+        }
+        if (n != NONE) {
+            prev[n] = p;
+        }
+    }
+}
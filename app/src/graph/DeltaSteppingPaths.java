@@ -0,0 +1,771 @@
+package graph;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds shortest paths from a starting vertex to every other vertex in parallel, by Meyer and
+ * Sanders's delta-stepping algorithm.  Vertices are kept in buckets of tentative distances
+ * `[b*delta..(b+1)*delta)`, which are settled in order.  Within a bucket, the _light_ edges (those
+ * weighing at most `delta`) of all of its vertices are relaxed in parallel, repeatedly until no
+ * relaxation lands in the bucket again; the _heavy_ edges of the vertices thereby settled are then
+ * relaxed in parallel once.  Concurrent relaxations of a vertex race to lower its distance with a
+ * compare-and-set, so no locks are taken.
+ * <p>
+ * This is the `SolverEngine.DELTA_STEPPING` engine behind the `PathSolver` contract, and finds the
+ * same distances as `ShortestPaths`, except that whole buckets are settled at a time.  Snapshots
+ * are views (see `PathfindingSnapshot`) made at bucket boundaries.  Like `ShortestPaths`, a solver
+ * can be reused for many searches at little cost: starting a search forgets the previous one in
+ * O(1), and the buffers and tasks used to settle a bucket are kept for the next.  Our graph and
+ * weigher must be safe to query from several threads at once.  Distances are held as `int`s, so a
+ * search that finds a path weighing `Integer.MAX_VALUE` or more throws ArithmeticException (after
+ * which the solver may still start a new search).
+ */
+public class DeltaSteppingPaths<VertexType extends Vertex<EdgeType>, EdgeType extends Edge>
+        implements PathSolver {
+
+    /**
+     * The number of vertices relaxed by each parallel task.  Buckets holding no more vertices than
+     * this are relaxed on the calling thread.
+     */
+    private static final int GRAIN = 1024;
+
+    /**
+     * The largest number of buckets whose distances may be pending at once, which bounds
+     * `maxWeight / delta`.
+     */
+    private static final int MAX_BUCKETS = 1 << 16;
+
+    /**
+     * The label of a vertex with no known path: distance Integer.MAX_VALUE and predecessor -1.
+     */
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    /**
+     * The claim of a vertex whose edges have not been relaxed.
+     */
+    private static final int UNCLAIMED = Integer.MAX_VALUE;
+
+    /**
+     * The epoch of a vertex whose label and claim are being reset by some task.
+     */
+    private static final int RESETTING = -1;
+
+    /**
+     * The phases of settling a bucket that `Chunk`s perform, in order.
+     */
+    private static final int RELAX_LIGHT = 0;
+    private static final int RELAX_HEAVY = 1;
+    private static final int RECORD = 2;
+
+    /**
+     * Atomic access to the elements of `labels`, `claims`, and `epochs`.
+     */
+    private static final VarHandle LABELS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle CLAIMS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle EPOCHS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * The graph we are searching for paths in.
+     */
+    private final Graph<VertexType> graph;
+
+    /**
+     * Our graph, if it can enumerate edges without allocating (see `IntGraph`), or null otherwise.
+     */
+    private final IntGraph<VertexType, EdgeType> intGraph;
+
+    /**
+     * Weigher to use in order to query edge weights in our graph.
+     */
+    private final Weigher<EdgeType> weigher;
+
+    /**
+     * The pool that runs our parallel relaxations.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The width of each bucket's range of distances, and the heaviest edge considered light.
+     */
+    private final int delta;
+
+    /**
+     * `labels[id]` packs the weight of the shortest known path to the vertex with ID `id` (in its
+     * high 32 bits) with the ID of that path's penultimate vertex (in its low 32 bits), so that
+     * both change together in one compare-and-set.  UNREACHED if no path is known.  Left over
+     * from an earlier search unless `epochs[id]` is the current `epoch` (see `currentLabel()`).
+     */
+    private final long[] labels;
+
+    /**
+     * `claims[id]` is the distance at which the light edges of the vertex with ID `id` were last
+     * relaxed, or UNCLAIMED.  Claiming a vertex with a compare-and-set ensures that only one task
+     * relaxes its edges at any distance, however many times it appears in a bucket.  Valid under
+     * the same condition as `labels[id]`, which always holds for vertices in buckets.
+     */
+    private final int[] claims;
+
+    /**
+     * `epochs[id]` is the value of `epoch` during the last search to reach the vertex with ID
+     * `id`, or RESETTING while its label and claim are being reset for the current one.  Like the
+     * versions of `SearchMarks`, this lets a new search forget the previous one without filling
+     * `labels` and `claims`; each vertex is reset when the new search first reaches it.
+     */
+    private final int[] epochs;
+
+    /**
+     * The number of the current search, which is never RESETTING, and 0 only before the first.
+     */
+    private int epoch;
+
+    /**
+     * `buckets[b % buckets.length]` holds the vertices whose distances lay in bucket `b` when they
+     * were lowered, for every pending bucket `b` (at most `buckets.length` are pending at once).
+     * Entries may be duplicated, or stale if a vertex's distance has since fallen into an earlier
+     * bucket; both are skipped when claiming.
+     */
+    private final IntList[] buckets;
+
+    /**
+     * An empty list to swap in for a bucket whose entries are being relaxed, so that relaxations
+     * landing in the same bucket are collected apart from those entries without copying them.
+     */
+    private IntList spareBucket = new IntList();
+
+    /**
+     * The vertices settled by the bucket being settled, kept to avoid reallocating.
+     */
+    private final IntList settledIds = new IntList();
+
+    /**
+     * The index of the first bucket that has not been settled.
+     */
+    private int currentBucket;
+
+    /**
+     * The tasks that perform a phase of settling a bucket, each on one chunk of `phaseIds`.  Grown
+     * as needed, and reused for every bucket.
+     */
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    /**
+     * Runs the first `chunkCount` of `chunks` in parallel on our pool.  Reused for every phase.
+     */
+    private final Fanout fanout = new Fanout();
+
+    /**
+     * The phase the chunks are performing, the vertices they perform it on, the bucket being
+     * settled, and the version to mark settled vertices with.  Written before the chunks are run.
+     */
+    private int phase;
+    private IntList phaseIds;
+    private int phaseBucket;
+    private int phaseVersion;
+
+    /**
+     * The number of chunks in the current phase.
+     */
+    private int chunkCount;
+
+    /**
+     * The state that our snapshots are views of, updated at bucket boundaries: which vertices are
+     * settled or in a pending bucket, and their distances and predecessors as of that boundary.
+     */
+    private final SearchMarks marks;
+    private final int[] distances;
+    private final PathTree predecessors;
+
+    /**
+     * The ID of the starting vertex for our current search, or -1 if no starting vertex has yet
+     * been selected.
+     */
+    private int startId;
+
+    /**
+     * The number of vertices settled by the current search.
+     */
+    private int settledCount;
+
+    /**
+     * Create a new solver for paths in `graph` whose edge weights are determined by `weigher`,
+     * relaxing edges on the common `ForkJoinPool` with buckets an eighth of `weigher.maxWeight()`
+     * wide (so that the edges of a typical vertex in an 8-connected grid are mostly heavy).
+     */
+    public DeltaSteppingPaths(Graph<VertexType> graph, Weigher<EdgeType> weigher) {
+        this(graph, weigher, ForkJoinPool.commonPool(), Math.max(1, weigher.maxWeight() / 8));
+    }
+
+    /**
+     * Create a new solver for paths in `graph` whose edge weights are determined by `weigher`,
+     * relaxing edges on `pool` with buckets `delta` wide.  Throws IllegalArgumentException if
+     * `delta` is not positive, or is so much smaller than `weigher.maxWeight()` that too many
+     * buckets could be pending at once.
+     */
+    @SuppressWarnings("unchecked")
+    public DeltaSteppingPaths(Graph<VertexType> graph, Weigher<EdgeType> weigher,
+            ForkJoinPool pool, int delta) {
+        if (delta <= 0 || weigher.maxWeight() / delta >= MAX_BUCKETS - 2) {
+            throw new IllegalArgumentException("Unsupported bucket width " + delta
+                    + " for maximum weight " + weigher.maxWeight());
+        }
+        this.graph = graph;
+        // An `IntGraph` of our vertex type necessarily has our edge type.
+        intGraph = (graph instanceof IntGraph<?, ?> g) ? (IntGraph<VertexType, EdgeType>) g : null;
+        this.weigher = weigher;
+        this.pool = pool;
+        this.delta = delta;
+        int n = graph.vertexCount();
+        marks = new SearchMarks(n);
+        labels = new long[n];
+        claims = new int[n];
+        epochs = new int[n];
+        // Pending distances lie within a bucket plus the heaviest edge of the current bucket.
+        buckets = new IntList[weigher.maxWeight() / delta + 2];
+        for (int b = 0; b < buckets.length; ++b) {
+            buckets[b] = new IntList();
+        }
+        distances = new int[n];
+        predecessors = new IdPathTree(new int[n]);
+        startId = -1;
+    }
+
+    @Override
+    public int settledCount() {
+        return settledCount;
+    }
+
+    @Override
+    public int vertexCount() {
+        return graph.vertexCount();
+    }
+
+    /**
+     * Return whether no bucket is pending, so that all reachable vertices are settled.  Since
+     * buckets may hold stale entries, this may report false until a further `extendSearch()` finds
+     * nothing left to settle.
+     */
+    @Override
+    public boolean allPathsFound() {
+        if (startId < 0) {
+            return false;
+        }
+        for (IntList bucket : buckets) {
+            if (!bucket.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Start a new search from the vertex with ID `startId`, forgetting the previous one.  Takes
+     * time proportional to the number of buckets, not to the size of the graph.
+     */
+    @Override
+    public void setStart(int startId) {
+        if (epoch == Integer.MAX_VALUE) {
+            // Every vertex must look unreached by the new epoch's searches
+            Arrays.fill(epochs, 0);
+            epoch = 0;
+        }
+        epoch += 1;
+        for (IntList bucket : buckets) {
+            bucket.clear();
+        }
+        marks.clear();
+        currentBucket = 0;
+        settledCount = 0;
+        this.startId = startId;
+        labels[startId] = label(0, -1);
+        claims[startId] = UNCLAIMED;
+        epochs[startId] = epoch;
+        buckets[0].add(startId);
+    }
+
+    /**
+     * Find the shortest paths from the vertex with ID `startId` to all reachable vertices, as if by
+     * `ShortestPaths.findAllPaths()`.
+     */
+    @Override
+    public PathfindingSnapshot findAllPaths(int startId) {
+        setStart(startId);
+        PathfindingSnapshot paths;
+        do {
+            // Stale entries may remain after every vertex is settled.
+            paths = extendSearch(graph.vertexCount());
+        } while (!allPathsFound());
+        return paths;
+    }
+
+    /**
+     * Settle buckets of the closest vertices whose shortest paths are not yet known until at least
+     * `maxToSettle` more have been settled or every reachable vertex is, and return a snapshot of
+     * the results (a view, see `PathfindingSnapshot`).  Unlike `ShortestPaths.extendSearch()`,
+     * this may settle up to a bucket's worth of vertices more than `maxToSettle`.  Requires
+     * `maxToSettle` is positive and that a starting vertex has been set.
+     */
+    @Override
+    public PathfindingSnapshot extendSearch(int maxToSettle) {
+        assert startId >= 0;
+        assert maxToSettle > 0;
+        long target = (long) settledCount + maxToSettle;
+        while (settledCount < target && findPendingBucket()) {
+            settleBucket();
+        }
+        return snapshot();
+    }
+
+    @Override
+    public boolean settleUntil(int targetId) {
+        return settleUntil(targetId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Settle buckets until the vertex with ID `targetId` is settled, every reachable vertex is, or
+     * at least `maxToSettle` more vertices are (up to a bucket's worth more).  Return whether
+     * `targetId` is settled.  Requires that a starting vertex has been set.
+     */
+    @Override
+    public boolean settleUntil(int targetId, int maxToSettle) {
+        assert startId >= 0;
+        long target = (long) settledCount + maxToSettle;
+        while (!marks.settled(targetId) && settledCount < target && findPendingBucket()) {
+            settleBucket();
+        }
+        return marks.settled(targetId);
+    }
+
+    /**
+     * Return the sequence of vertex IDs along the shortest path from our current starting point to
+     * the vertex with ID `dstId` (inclusive) as of the last bucket boundary.  Throws
+     * IllegalArgumentException if `dstId` has not been settled, or discovered by a snapshot.
+     */
+    @Override
+    public List<Integer> pathTo(int dstId) {
+        if (!marks.discovered(dstId)) {
+            throw new IllegalArgumentException("Vertex " + dstId + " has not been discovered");
+        }
+        return PathfindingSnapshot.tracePath(startId, predecessors, dstId);
+    }
+
+    /**
+     * Return an immutable copy of the shortest paths settled so far from our current starting
+     * point, as by `ShortestPaths.settledTree()`.
+     */
+    @Override
+    public SettledPathTree settledTree() {
+        if (startId < 0) {
+            throw new IllegalStateException("No starting vertex has been set");
+        }
+        int[] settled = new int[settledCount];
+        int n = 0;
+        for (int id = 0; n < settledCount; ++id) {
+            if (marks.settled(id)) {
+                settled[n++] = id;
+            }
+        }
+        return new SettledPathTree(startId, settled, predecessors);
+    }
+
+    /**
+     * Does nothing, since all of our memory is on the heap.
+     */
+    @Override
+    public void release() {
+    }
+
+    /**
+     * Advance `currentBucket` to the next bucket holding any entries, and return whether there was
+     * one.
+     */
+    private boolean findPendingBucket() {
+        for (int i = 0; i < buckets.length; ++i) {
+            if (!bucket(currentBucket).isEmpty()) {
+                return true;
+            }
+            currentBucket += 1;
+        }
+        return false;
+    }
+
+    /**
+     * Settle every vertex in bucket `currentBucket`, then advance to the next bucket.
+     */
+    private void settleBucket() {
+        int b = currentBucket;
+        settledIds.clear();
+        // Relaxing light edges may lower distances within this bucket, whose vertices must then
+        //  be relaxed again.
+        while (!bucket(b).isEmpty()) {
+            IntList ids = bucket(b);
+            buckets[b % buckets.length] = spareBucket;
+            phaseBucket = b;
+            try {
+                runChunks(RELAX_LIGHT, ids);
+                for (int c = 0; c < chunkCount; ++c) {
+                    settledIds.addAll(chunks.get(c).claimed);
+                    addToBuckets(chunks.get(c).improved);
+                }
+            } finally {
+                // Even if a path overflows, so that the solver may still start a new search
+                ids.clear();
+                spareBucket = ids;
+            }
+        }
+
+        // Distances in this bucket are now final, so its vertices' heavy edges can be relaxed,
+        //  which can only reach later buckets.
+        runChunks(RELAX_HEAVY, settledIds);
+        for (int c = 0; c < chunkCount; ++c) {
+            addToBuckets(chunks.get(c).improved);
+        }
+
+        phaseVersion = marks.newVersion();
+        runChunks(RECORD, settledIds);
+        settledCount += settledIds.size();
+        currentBucket += 1;
+    }
+
+    /**
+     * Perform `phase` on consecutive chunks of `ids` of at most `GRAIN` vertices, in parallel on
+     * our pool if there is more than one, leaving their results in the first `chunkCount` of
+     * `chunks`.
+     */
+    private void runChunks(int phase, IntList ids) {
+        this.phase = phase;
+        phaseIds = ids;
+        chunkCount = Math.max(1, (ids.size() + GRAIN - 1) / GRAIN);
+        while (chunks.size() < chunkCount) {
+            chunks.add(new Chunk());
+        }
+        for (int c = 0; c < chunkCount; ++c) {
+            chunks.get(c).prepare(c * GRAIN, Math.min(ids.size(), (c + 1) * GRAIN));
+        }
+        if (chunkCount == 1) {
+            chunks.get(0).perform();
+        } else {
+            fanout.reinitialize();
+            pool.invoke(fanout);
+        }
+    }
+
+    /**
+     * Relax the light edges of each vertex in `phaseIds[lo..hi)` whose distance still lies in
+     * bucket `phaseBucket` and which has not already been relaxed at that distance, collecting the
+     * vertices claimed for the first time and those whose distances were lowered in `chunk`.
+     */
+    private void relaxLight(int lo, int hi, Chunk chunk) {
+        int b = phaseBucket;
+        for (int i = lo; i < hi; ++i) {
+            int id = phaseIds.get(i);
+            int distance = distance((long) LABELS.getVolatile(labels, id));
+            if (distance / delta != b) {
+                continue;
+            }
+            int claim = (int) CLAIMS.getVolatile(claims, id);
+            while (claim > distance) {
+                int witness = (int) CLAIMS.compareAndExchange(claims, id, claim, distance);
+                if (witness == claim) {
+                    break;
+                }
+                claim = witness;
+            }
+            if (claim <= distance) {
+                // Another task has relaxed this vertex at this distance (or a smaller one).
+                continue;
+            }
+            if (claim == UNCLAIMED) {
+                chunk.claimed.add(id);
+            }
+            chunk.lightRelaxer.relaxEdges(id, distance);
+        }
+    }
+
+    /**
+     * Relax the heavy edges of each vertex in `phaseIds[lo..hi)`, whose distances are final,
+     * collecting the vertices whose distances were lowered in `chunk`.
+     */
+    private void relaxHeavy(int lo, int hi, Chunk chunk) {
+        for (int i = lo; i < hi; ++i) {
+            int id = phaseIds.get(i);
+            chunk.heavyRelaxer.relaxEdges(id, distance(labels[id]));
+        }
+    }
+
+    /**
+     * Record each vertex in `phaseIds[lo..hi)`, whose distances are final, as settled at
+     * `phaseVersion`.
+     */
+    private void recordSettled(int lo, int hi) {
+        for (int i = lo; i < hi; ++i) {
+            int id = phaseIds.get(i);
+            record(id);
+            if (!marks.discovered(id)) {
+                marks.discover(id, phaseVersion);
+            }
+            marks.settle(id, phaseVersion);
+        }
+    }
+
+    /**
+     * Return the label of the vertex with ID `id` in the current search, first resetting its label
+     * and claim if the search has not reached it before.  Safe to call concurrently: one task
+     * resets the vertex, while any others reaching it at the same moment wait for it to finish.
+     */
+    private long currentLabel(int id) {
+        int current = epoch;
+        int stamp = (int) EPOCHS.getAcquire(epochs, id);
+        while (stamp != current) {
+            if (stamp != RESETTING) {
+                int witness = (int) EPOCHS.compareAndExchange(epochs, id, stamp, RESETTING);
+                if (witness == stamp) {
+                    labels[id] = UNREACHED;
+                    claims[id] = UNCLAIMED;
+                    EPOCHS.setRelease(epochs, id, current);
+                    return UNREACHED;
+                }
+                stamp = witness;
+            } else {
+                Thread.onSpinWait();
+                stamp = (int) EPOCHS.getAcquire(epochs, id);
+            }
+        }
+        return (long) LABELS.getVolatile(labels, id);
+    }
+
+    /**
+     * Lower the distance of the vertex with ID `endId` to `distance`, via the vertex with ID
+     * `fromId`, if that is shorter than its known distance.  Return whether it was lowered.  Safe
+     * to call concurrently.
+     */
+    private boolean offer(int endId, int distance, int fromId) {
+        long label = currentLabel(endId);
+        long newLabel = label(distance, fromId);
+        while (distance(label) > distance) {
+            long witness = (long) LABELS.compareAndExchange(labels, endId, label, newLabel);
+            if (witness == label) {
+                return true;
+            }
+            label = witness;
+        }
+        return false;
+    }
+
+    /**
+     * Add each vertex in `ids` to the bucket of its current distance.
+     */
+    private void addToBuckets(IntList ids) {
+        for (int i = 0; i < ids.size(); ++i) {
+            int id = ids.get(i);
+            bucket(distance(labels[id]) / delta).add(id);
+        }
+    }
+
+    /**
+     * Copy the label of the vertex with ID `id` into the state that snapshots view.
+     */
+    private void record(int id) {
+        long label = labels[id];
+        distances[id] = distance(label);
+        int predecessorId = predecessor(label);
+        if (predecessorId < 0) {
+            predecessors.setRoot(id);
+        } else {
+            predecessors.setPredecessor(id, predecessorId, -1);
+        }
+    }
+
+    /**
+     * Return a view of the current search, first recording the vertices in pending buckets as
+     * discovered.
+     */
+    private PathfindingSnapshot snapshot() {
+        int version = marks.newVersion();
+        for (IntList bucket : buckets) {
+            for (int i = 0; i < bucket.size(); ++i) {
+                int id = bucket.get(i);
+                if (!marks.settled(id)) {
+                    record(id);
+                    if (!marks.discovered(id)) {
+                        marks.discover(id, version);
+                    }
+                }
+            }
+        }
+        return new PathfindingSnapshot(startId, distances, predecessors, marks);
+    }
+
+    /**
+     * Return the bucket holding distances in `[b*delta..(b+1)*delta)`.
+     */
+    private IntList bucket(int b) {
+        return buckets[b % buckets.length];
+    }
+
+    /**
+     * Return the distance of a path of weight `distance` extended by an edge of weight `weight`.
+     * Throws ArithmeticException if that is `Integer.MAX_VALUE` or more, since labels and claims
+     * hold distances as `int`s and reserve that value for unreached vertices; like
+     * `SolverStorage.HEAP`, such a search is refused rather than answered wrongly.
+     */
+    private static int extend(int distance, int weight) {
+        long extended = (long) distance + weight;
+        if (extended >= Integer.MAX_VALUE) {
+            throw new ArithmeticException("Path weight " + extended
+                    + " is too large for delta-stepping");
+        }
+        return (int) extended;
+    }
+
+    /**
+     * Return `label`'s distance.
+     */
+    private static int distance(long label) {
+        return (int) (label >>> 32);
+    }
+
+    /**
+     * Return `label`'s predecessor ID.
+     */
+    private static int predecessor(long label) {
+        return (int) label;
+    }
+
+    /**
+     * Return the label of a path of weight `distance` whose penultimate vertex has ID
+     * `predecessorId`.
+     */
+    private static long label(int distance, int predecessorId) {
+        return ((long) distance << 32) | (predecessorId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Performs the current phase on one chunk of `phaseIds`, collecting its results.  Kept in
+     * `chunks` and reused, along with its lists and relaxers, for every bucket.  Never serialized.
+     */
+    @SuppressWarnings("serial")
+    private final class Chunk extends RecursiveAction {
+
+        /**
+         * Vertices claimed for the first time, and vertices whose distances were lowered.
+         */
+        final IntList claimed = new IntList();
+        final IntList improved = new IntList();
+
+        /**
+         * Relax light and heavy edges into `improved`.
+         */
+        final Relaxer lightRelaxer = new Relaxer(improved, true);
+        final Relaxer heavyRelaxer = new Relaxer(improved, false);
+
+        /**
+         * The indices of the chunk's vertices in `phaseIds` are `[lo..hi)`.
+         */
+        private int lo;
+        private int hi;
+
+        /**
+         * Prepare to perform the next phase on `phaseIds[lo..hi)`, forgetting our results from
+         * the last.
+         */
+        void prepare(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+            claimed.clear();
+            improved.clear();
+            reinitialize();
+        }
+
+        /**
+         * Perform the current phase on our chunk.
+         */
+        void perform() {
+            switch (phase) {
+                case RELAX_LIGHT -> relaxLight(lo, hi, this);
+                case RELAX_HEAVY -> relaxHeavy(lo, hi, this);
+                default -> recordSettled(lo, hi);
+            }
+        }
+
+        @Override
+        protected void compute() {
+            perform();
+        }
+    }
+
+    /**
+     * Runs the first `chunkCount` of `chunks` in parallel, performing the first on its own thread.
+     * Never serialized.
+     */
+    @SuppressWarnings("serial")
+    private final class Fanout extends RecursiveAction {
+
+        @Override
+        protected void compute() {
+            for (int c = 1; c < chunkCount; ++c) {
+                chunks.get(c).fork();
+            }
+            chunks.get(0).perform();
+            for (int c = chunkCount - 1; c >= 1; --c) {
+                chunks.get(c).join();
+            }
+        }
+    }
+
+    /**
+     * Relaxes either the light or the heavy edges of vertices, collecting the vertices whose
+     * distances were lowered.  Used by one task at a time.
+     */
+    private final class Relaxer implements IntEdgeVisitor {
+
+        /**
+         * Collects the vertices whose distances were lowered.
+         */
+        private final IntList improved;
+
+        /**
+         * Whether light (as opposed to heavy) edges are relaxed.
+         */
+        private final boolean light;
+
+        /**
+         * The vertex whose edges are being relaxed, and its distance.
+         */
+        private int fromId;
+        private int fromDistance;
+
+        Relaxer(IntList improved, boolean light) {
+            this.improved = improved;
+            this.light = light;
+        }
+
+        /**
+         * Relax the edges of the vertex with ID `id`, whose distance is `distance`.
+         */
+        void relaxEdges(int id, int distance) {
+            fromId = id;
+            fromDistance = distance;
+            if (intGraph != null) {
+                intGraph.forEachNeighbor(id, weigher, this);
+            } else {
+                for (EdgeType e : graph.getVertex(id).outgoingEdges()) {
+                    visit(e.endId(), -1, weigher.weight(e));
+                }
+            }
+        }
+
+        @Override
+        public void visit(int endId, int dir, int weight) {
+            if ((weight <= delta) == light
+                    && offer(endId, extend(fromDistance, weight), fromId)) {
+                improved.add(endId);
+            }
+        }
+    }
+}
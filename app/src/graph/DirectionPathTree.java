@@ -0,0 +1,68 @@
+package graph;
+
+/**
+ * A `PathTree` for a `BoundedDegreeGraph`, storing the direction of the edge from each vertex's
+ * predecessor in one byte rather than the predecessor's ID in four.  Predecessors are decoded with
+ * `BoundedDegreeGraph.startIdOf()`.
+ */
+final class DirectionPathTree implements PathTree {
+
+    /**
+     * The direction stored for the root, which no edge may have.
+     */
+    static final int ROOT = 0xFF;
+
+    /**
+     * The graph whose directions are stored.
+     */
+    private final BoundedDegreeGraph<?, ?> graph;
+
+    /**
+     * `dirs[id]` is the unsigned direction of the edge from the predecessor of the vertex with ID
+     * `id`, or `ROOT`.
+     */
+    private final byte[] dirs;
+
+    /**
+     * Create an empty tree for the vertices of `graph`.
+     */
+    DirectionPathTree(BoundedDegreeGraph<?, ?> graph) {
+        if (graph.directionCount() > BoundedDegreeGraph.MAX_DIRECTIONS) {
+            throw new IllegalArgumentException(
+                    "Too many directions to store in a byte: " + graph.directionCount());
+        }
+        this.graph = graph;
+        dirs = new byte[graph.vertexCount()];
+    }
+
+    /**
+     * Return the graph whose directions are stored.
+     */
+    BoundedDegreeGraph<?, ?> graph() {
+        return graph;
+    }
+
+    /**
+     * Return the unsigned direction stored for the vertex with ID `id`, or `ROOT`.
+     */
+    int direction(int id) {
+        return dirs[id] & 0xFF;
+    }
+
+    @Override
+    public int predecessor(int id) {
+        int dir = dirs[id] & 0xFF;
+        return (dir == ROOT) ? -1 : graph.startIdOf(id, dir);
+    }
+
+    @Override
+    public void setPredecessor(int id, int predecessorId, int dir) {
+        assert dir >= 0 && graph.startIdOf(id, dir) == predecessorId;
+        dirs[id] = (byte) dir;
+    }
+
+    @Override
+    public void setRoot(int id) {
+        dirs[id] = (byte) ROOT;
+    }
+}
@@ -0,0 +1,32 @@
+package graph;
+
+/**
+ * The distance of each vertex reached by a shortest-paths search from the search's start, indexed
+ * by `long` so that stores may hold more entries than a Java array.  Entries are only meaningful
+ * for vertices the search has discovered.  Made by a `SolverStorage`.
+ */
+interface DistanceStore extends AutoCloseable {
+
+    /**
+     * Return the number of entries in this store.
+     */
+    long length();
+
+    /**
+     * Return the distance stored for the vertex with index `index`.
+     */
+    long get(long index);
+
+    /**
+     * Store `distance` for the vertex with index `index`.  Throws ArithmeticException if this
+     * store is too narrow to hold `distance`.  Requires `distance` is non-negative.
+     */
+    void set(long index, long distance);
+
+    /**
+     * Release any memory this store holds outside the Java heap, after which getting or setting
+     * its entries throws IllegalStateException.  Releasing a store twice has no further effect.
+     */
+    @Override
+    void close();
+}
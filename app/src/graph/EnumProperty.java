@@ -0,0 +1,38 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Reads enum constants from system properties, for enums whose constants choose between
+ * implementations that callers may override without changing code (e.g. `FrontierStrategy`).
+ */
+public class EnumProperty {
+
+    /**
+     * Return the constant of `type` named by the system property `property`, or `fallback` if that
+     * property is not set.  Throws IllegalArgumentException if the property does not name a
+     * constant of `type` (see `parse()`).
+     */
+    public static <E extends Enum<E>> E configured(Class<E> type, String property, E fallback) {
+        String name = System.getProperty(property);
+        if (name == null || name.isBlank()) {
+            return fallback;
+        }
+        return parse(type, name);
+    }
+
+    /**
+     * Return the constant of `type` named `name`, ignoring case and surrounding whitespace and
+     * accepting '-' in place of '_'.  Throws IllegalArgumentException, listing the constants of
+     * `type`, if `name` does not name one of them.
+     */
+    public static <E extends Enum<E>> E parse(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " \"" + name
+                    + "\"; expected one of " + Arrays.toString(type.getEnumConstants()), e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package graph;
+
+/**
+ * Creates the queue that a `ShortestPaths` solver uses to order its frontier.  Lets clients choose
+ * a queue suited to their graph's size and edge weights.
+ */
+@FunctionalInterface
+public interface FrontierFactory {
+
+    /**
+     * Return a new, empty queue able to hold vertex IDs in `[0..vertexCount)`, ordered by the
+     * distances found when searching with edge weights in `[0..maxWeight]`.  `maxWeight` is
+     * `Integer.MAX_VALUE` if the weights are not bounded.
+     */
+    IntMinQueue make(int vertexCount, int maxWeight);
+}
@@ -0,0 +1,117 @@
+package graph;
+
+
+/**
+ * The frontier queue implementations available to `ShortestPaths`, selectable by name.  The
+ * system property named by `PROPERTY` overrides the strategy chosen in code, so that queues can be
+ * compared under real workloads without rebuilding (e.g. `-Dgraph.frontier=radix`).
+ */
+public enum FrontierStrategy implements FrontierFactory {
+
+    /**
+     * Use the fastest strategy for the given weights: `BUCKET` if edge weights are bounded by
+     * `MAX_BUCKETED_WEIGHT`, or `HEAP_4` otherwise.
+     */
+    AUTO {
+        @Override
+        public IntMinQueue make(int vertexCount, int maxWeight) {
+            return (maxWeight <= MAX_BUCKETED_WEIGHT) ? BUCKET.make(vertexCount, maxWeight)
+                    : HEAP_4.make(vertexCount, maxWeight);
+        }
+    },
+
+    /**
+     * An indexed binary heap (`IntHeapMinQueue`).  Works for any weights.
+     */
+    BINARY_HEAP {
+        @Override
+        public IntMinQueue make(int vertexCount, int maxWeight) {
+            return new IntHeapMinQueue(vertexCount);
+        }
+    },
+
+    /**
+     * An indexed 4-ary heap (`IntHeapMinQueue` with arity 4).  Works for any weights.
+     */
+    HEAP_4 {
+        @Override
+        public IntMinQueue make(int vertexCount, int maxWeight) {
+            return new IntHeapMinQueue(vertexCount, 4);
+        }
+    },
+
+    /**
+     * An indexed 8-ary heap (`IntHeapMinQueue` with arity 8).  Works for any weights.
+     */
+    HEAP_8 {
+        @Override
+        public IntMinQueue make(int vertexCount, int maxWeight) {
+            return new IntHeapMinQueue(vertexCount, 8);
+        }
+    },
+
+    /**
+     * A heap of packed longs without decrease-key (`LazyHeapMinQueue`).  Works for any weights,
+     * but stores an extra entry for every improved distance; see
+     * `ShortestPaths.duplicatePushes()`.
+     */
+    LAZY_HEAP {
+        @Override
+        public IntMinQueue make(int vertexCount, int maxWeight) {
+            return new LazyHeapMinQueue(vertexCount);
+        }
+    },
+
+    /**
+     * A monotone bucket queue (`BucketMinQueue`).  Requires edge weights bounded by
+     * `MAX_BUCKETED_WEIGHT`.
+     */
+    BUCKET {
+        @Override
+        public IntMinQueue make(int vertexCount, int maxWeight) {
+            if (maxWeight > MAX_BUCKETED_WEIGHT) {
+                throw new IllegalArgumentException(
+                        "Bucket frontier requires edge weights of at most " + MAX_BUCKETED_WEIGHT);
+            }
+            return new BucketMinQueue(vertexCount, maxWeight);
+        }
+    },
+
+    /**
+     * A monotone radix heap (`RadixMinQueue`).  Works for any non-negative weights.
+     */
+    RADIX {
+        @Override
+        public IntMinQueue make(int vertexCount, int maxWeight) {
+            return new RadixMinQueue(vertexCount);
+        }
+    };
+
+    /**
+     * The name of the system property that overrides the strategy chosen in code.  Its value is
+     * the name of a constant of this enum, ignoring case, with '-' accepted in place of '_'.
+     */
+    public static final String PROPERTY = "graph.frontier";
+
+    /**
+     * The largest maximum edge weight for which `AUTO` uses a bucket queue.  Above this, the
+     * bucket array would cost more to scan and store than a heap saves.
+     */
+    public static final int MAX_BUCKETED_WEIGHT = 1 << 16;
+
+    /**
+     * Return the strategy named by the system property `PROPERTY`, or `fallback` if that property
+     * is not set.  Throws IllegalArgumentException if the property does not name a strategy.
+     */
+    public static FrontierStrategy configured(FrontierStrategy fallback) {
+        return EnumProperty.configured(FrontierStrategy.class, PROPERTY, fallback);
+    }
+
+    /**
+     * Return the strategy named `name`, ignoring case and accepting '-' in place of '_'.  Throws
+     * IllegalArgumentException if `name` does not name a strategy.
+     */
+    public static FrontierStrategy parse(String name) {
+        return EnumProperty.parse(FrontierStrategy.class, name);
+    }
+}
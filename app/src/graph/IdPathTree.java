@@ -0,0 +1,36 @@
+package graph;
+
+/**
+ * A `PathTree` storing each vertex's predecessor as a vertex ID, which works for any graph at a
+ * cost of 4 bytes per vertex.
+ */
+final class IdPathTree implements PathTree {
+
+    /**
+     * `predecessors[id]` is the ID of the predecessor of the vertex with ID `id`, or -1 if it is
+     * the root.
+     */
+    private final int[] predecessors;
+
+    /**
+     * Create a tree backed by `predecessors`, which is shared, not copied.
+     */
+    IdPathTree(int[] predecessors) {
+        this.predecessors = predecessors;
+    }
+
+    @Override
+    public int predecessor(int id) {
+        return predecessors[id];
+    }
+
+    @Override
+    public void setPredecessor(int id, int predecessorId, int dir) {
+        predecessors[id] = predecessorId;
+    }
+
+    @Override
+    public void setRoot(int id) {
+        predecessors[id] = -1;
+    }
+}
@@ -0,0 +1,40 @@
+package graph;
+
+/**
+ * A `DistanceStore` backed by an `int` array on the heap, which costs 4 bytes per vertex but cannot
+ * hold distances beyond `Integer.MAX_VALUE`.  Releasing it has no effect, since the array is
+ * reclaimed along with its solver.
+ */
+final class IntDistanceStore implements DistanceStore {
+
+    /**
+     * `distances[id]` is the distance stored for the vertex with ID `id`.
+     */
+    private final int[] distances;
+
+    /**
+     * Create a store backed by `distances`, which is shared, not copied.
+     */
+    IntDistanceStore(int[] distances) {
+        this.distances = distances;
+    }
+
+    @Override
+    public long length() {
+        return distances.length;
+    }
+
+    @Override
+    public long get(long index) {
+        return distances[(int) index];
+    }
+
+    @Override
+    public void set(long index, long distance) {
+        distances[(int) index] = Math.toIntExact(distance);
+    }
+
+    @Override
+    public void close() {
+    }
+}
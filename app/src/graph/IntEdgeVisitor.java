@@ -0,0 +1,16 @@
+package graph;
+
+/**
+ * Receives the outgoing edges of a vertex as primitive values, so that enumerating them need not
+ * allocate `Edge` or `Vertex` objects.  See `IntGraph.forEachNeighbor()`.
+ */
+@FunctionalInterface
+public interface IntEdgeVisitor {
+
+    /**
+     * Visit an edge leading to the vertex with ID `endId`.  `dir` identifies the edge among its
+     * start vertex's outgoing edges (its meaning is up to the graph; for example, a compass
+     * direction), and `weight` is the edge's weight.
+     */
+    void visit(int endId, int dir, int weight);
+}
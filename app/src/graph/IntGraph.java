@@ -0,0 +1,17 @@
+package graph;
+
+/**
+ * A graph whose outgoing edges can also be enumerated as primitive values, without allocating the
+ * `Vertex`, `Iterable`, or `Edge` objects that `Vertex.outgoingEdges()` would.  `ShortestPaths`
+ * takes advantage of this when its graph implements this interface.
+ */
+public interface IntGraph<VertexType extends Vertex<EdgeType>, EdgeType extends Edge>
+        extends Graph<VertexType> {
+
+    /**
+     * Call `visitor.visit()` once for each edge leaving the vertex with ID `id`, passing the edge's
+     * destination ID, its graph-specific direction, and its weight according to `weigher`.  The
+     * edges and weights must be the same as those of `getVertex(id).outgoingEdges()`.
+     */
+    void forEachNeighbor(int id, Weigher<EdgeType> weigher, IntEdgeVisitor visitor);
+}
@@ -0,0 +1,225 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A min priority queue of distinct `int` elements in `[0..capacity)` associated with (extrinsic)
+ * integer priorities, implemented using a d-ary heap stored in parallel primitive arrays and a
+ * position array indexed by element.  Unlike `HeapMinQueue`, no operation boxes its arguments,
+ * hashes, or allocates, which makes it suitable as the frontier of a search over dense vertex IDs.
+ * <p>
+ * A larger arity makes the heap shallower, so decrease-key (which bubbles up) visits fewer levels,
+ * and the children compared during removal sit next to each other in memory.  Removal compares
+ * more children per level, though, so the best arity depends on the mix of operations and on how
+ * large the queue grows.
+ */
+public class IntHeapMinQueue implements IntMinQueue {
+
+    /**
+     * The number of children of each node in the heap.  Always a power of 2.
+     */
+    private final int arity;
+
+    /**
+     * `log2(arity)`, so that parent and child indices can be computed with shifts.
+     */
+    private final int shift;
+
+    /**
+     * `keys[0..size)` is a min-heap of elements, ordered by their corresponding entries in
+     * `priorities`.  Satisfies `priorities[i] >= priorities[(i-1)/arity]` for all `i` in
+     * `[1..size)`.
+     */
+    private final int[] keys;
+
+    /**
+     * `priorities[i]` is the priority associated with the element `keys[i]`, for `i` in
+     * `[0..size)`.
+     */
+    private final int[] priorities;
+
+    /**
+     * `positions[key]` is the index of `key` in `keys`, or -1 if `key` is not in the queue.
+     * Satisfies `keys[positions[key]] == key` for every element `key` in the queue.
+     */
+    private final int[] positions;
+
+    /**
+     * The number of elements in the queue.
+     */
+    private int size;
+
+    /**
+     * Assert that our class invariant is satisfied.  Returns true if it is (or if assertions are
+     * disabled).  This is O(N), so unlike `HeapMinQueue` it is not checked after every operation
+     * (this queue is meant for frontiers with millions of elements).
+     */
+    private boolean checkInvariant() {
+        for (int i = 1; i < size; ++i) {
+            int p = (i - 1) / arity;
+            assert priorities[i] >= priorities[p];
+        }
+        for (int i = 0; i < size; ++i) {
+            assert positions[keys[i]] == i;
+        }
+        return true;
+    }
+
+    /**
+     * Create an empty binary heap queue that can hold elements in `[0..capacity)`.
+     */
+    public IntHeapMinQueue(int capacity) {
+        this(capacity, 2);
+    }
+
+    /**
+     * Create an empty queue that can hold elements in `[0..capacity)`, stored in a heap in which
+     * each node has `arity` children.  Throws IllegalArgumentException if `arity` is not a power
+     * of 2 in `[2..64]`.
+     */
+    public IntHeapMinQueue(int capacity, int arity) {
+        assert capacity >= 0;
+        if (arity < 2 || arity > 64 || Integer.bitCount(arity) != 1) {
+            throw new IllegalArgumentException("Heap arity must be a power of 2 in [2..64]: "
+                    + arity);
+        }
+        this.arity = arity;
+        shift = Integer.numberOfTrailingZeros(arity);
+        keys = new int[capacity];
+        priorities = new int[capacity];
+        positions = new int[capacity];
+        Arrays.fill(positions, -1);
+        size = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getInt() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty.");
+        }
+        return keys[0];
+    }
+
+    @Override
+    public int minPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty.");
+        }
+        return priorities[0];
+    }
+
+    @Override
+    public void addOrUpdate(int key, int priority) {
+        int i = positions[key];
+        if (i < 0) {
+            // New element: open a hole at the end of the heap and let it rise.
+            bubbleUp(size, key, priority);
+            size += 1;
+        } else if (priority < priorities[i]) {
+            bubbleUp(i, key, priority);
+        } else if (priority > priorities[i]) {
+            bubbleDown(i, key, priority);
+        }
+    }
+
+    @Override
+    public int removeInt() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty.");
+        }
+        int minKey = keys[0];
+        positions[minKey] = -1;
+        size -= 1;
+        if (size > 0) {
+            // Sink the former last element from the root's hole.
+            bubbleDown(0, keys[size], priorities[size]);
+        }
+        return minKey;
+    }
+
+    @Override
+    public void clear() {
+        // Only the positions of current elements are set, so this is proportional to `size`
+        //  rather than to our capacity.
+        for (int i = 0; i < size; ++i) {
+            positions[keys[i]] = -1;
+        }
+        size = 0;
+        assert checkInvariant();
+    }
+
+    /**
+     * Place `key` with priority `priority` into the heap, starting from the hole at index `i` and
+     * moving it towards the root while its parent has a larger priority.  Requires `i <= size` and
+     * that the heap invariant holds for all slots other than `i`.
+     */
+    private void bubbleUp(int i, int key, int priority) {
+        while (i > 0) {
+            int parent = (i - 1) >>> shift;
+            if (priorities[parent] <= priority) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        place(i, key, priority);
+    }
+
+    /**
+     * Place `key` with priority `priority` into the heap, starting from the hole at index `i` and
+     * moving it away from the root while it has a child with a smaller priority.  Requires
+     * `i < size` and that the subtrees rooted at `i`'s children satisfy the heap invariant.
+     */
+    private void bubbleDown(int i, int key, int priority) {
+        // Node `i` has children iff `i*arity + 1 < size`; this form cannot overflow.
+        int lastParent = (size - 2) >> shift;
+        while (i <= lastParent) {
+            int first = (i << shift) + 1;
+            // Find the child with the smallest priority; siblings are contiguous in the arrays.
+            int end = Math.min(first + arity, size);
+            int child = first;
+            int childPriority = priorities[first];
+            for (int c = first + 1; c < end; ++c) {
+                if (priorities[c] < childPriority) {
+                    child = c;
+                    childPriority = priorities[c];
+                }
+            }
+            if (childPriority >= priority) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        place(i, key, priority);
+    }
+
+    /**
+     * Copy the entry at index `from` into the slot at index `to`, updating its position.
+     */
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        priorities[to] = priorities[from];
+        positions[keys[to]] = to;
+    }
+
+    /**
+     * Store `key` with priority `priority` at index `i`, updating its position.
+     */
+    private void place(int i, int key, int priority) {
+        keys[i] = key;
+        priorities[i] = priority;
+        positions[key] = i;
+    }
+}
@@ -0,0 +1,79 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of `int`s, which avoids boxing for the vertex lists built while searching.
+ */
+final class IntList {
+
+    /**
+     * The list's elements are `elements[0..size)`.
+     */
+    private int[] elements;
+    private int size;
+
+    /**
+     * Create an empty list.
+     */
+    IntList() {
+        elements = new int[16];
+    }
+
+    /**
+     * Return the number of elements in the list.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Return whether the list has no elements.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Return the element at index `i`.  Requires `i` is in [0..size()).
+     */
+    int get(int i) {
+        assert i >= 0 && i < size;
+        return elements[i];
+    }
+
+    /**
+     * Append `value` to the list.
+     */
+    void add(int value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, 2 * size);
+        }
+        elements[size++] = value;
+    }
+
+    /**
+     * Append the elements of `other` to the list.
+     */
+    void addAll(IntList other) {
+        if (size + other.size > elements.length) {
+            elements = Arrays.copyOf(elements, Math.max(2 * elements.length, size + other.size));
+        }
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Return a new array of the list's elements.
+     */
+    int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Remove every element, keeping the list's capacity.
+     */
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,54 @@
+package graph;
+
+/**
+ * A min priority queue of distinct non-negative `int` elements associated with (extrinsic) integer
+ * priorities.  Elements are typically dense vertex IDs, which lets implementations index their
+ * bookkeeping by element instead of hashing it.  The primitive operations avoid boxing; the
+ * inherited `MinQueue<Integer>` operations are provided for compatibility and delegate to them.
+ */
+public interface IntMinQueue extends MinQueue<Integer> {
+
+    /**
+     * Return an element associated with the smallest priority in this queue.  This is the same
+     * element that would be removed by a call to `removeInt()` (assuming no mutations in between).
+     * Throws NoSuchElementException if this queue is empty.
+     */
+    int getInt();
+
+    /**
+     * If `key` is already contained in this queue, change its associated priority to `priority`.
+     * Otherwise, add it to this queue with that priority.  Requires `key` is non-negative and less
+     * than any capacity the implementation was created with.
+     */
+    void addOrUpdate(int key, int priority);
+
+    /**
+     * Remove and return the element associated with the smallest priority in this queue.  If
+     * multiple elements are tied for the smallest priority, an arbitrary one will be removed.
+     * Throws NoSuchElementException if this queue is empty.
+     */
+    int removeInt();
+
+    /**
+     * Return the number of extra entries this queue has stored for elements it already contained,
+     * since it was created or last cleared.  Queues that update their entries in place return 0.
+     */
+    default long duplicatePushes() {
+        return 0;
+    }
+
+    @Override
+    default Integer get() {
+        return getInt();
+    }
+
+    @Override
+    default void addOrUpdate(Integer key, int priority) {
+        addOrUpdate(key.intValue(), priority);
+    }
+
+    @Override
+    default Integer remove() {
+        return removeInt();
+    }
+}
@@ -0,0 +1,201 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A min priority queue of distinct `int` elements in `[0..capacity)` that never performs
+ * decrease-key.  Each `addOrUpdate()` pushes a new entry, packed into a `long` as
+ * `(priority << 32) | key`, onto a binary heap of primitive longs; entries superseded by a later
+ * update are left in place and discarded when they reach the top.  This avoids all position
+ * bookkeeping during sifting, at the cost of memory for the stale entries, which
+ * `duplicatePushes()` reports so that growth can be monitored.
+ */
+public class LazyHeapMinQueue implements IntMinQueue {
+
+    /**
+     * `heap[0..length)` is a min-heap of packed entries (compared as signed longs, which orders
+     * them by priority and then by key).  May contain stale entries.
+     */
+    private long[] heap;
+
+    /**
+     * The number of entries in `heap`, including stale ones.
+     */
+    private int length;
+
+    /**
+     * `priorities[key]` is the current priority of `key` if `contained[key]`; unspecified
+     * otherwise.  An entry `(p, key)` in `heap` is live iff `contained[key] && priorities[key] ==
+     * p`.
+     */
+    private final int[] priorities;
+    private final boolean[] contained;
+
+    /**
+     * The number of elements in the queue (live entries in `heap`).
+     */
+    private int size;
+
+    /**
+     * The number of entries pushed for elements that were already in the queue since this queue
+     * was created or last cleared.
+     */
+    private long duplicatePushes;
+
+    /**
+     * Create an empty queue that can hold elements in `[0..capacity)`.
+     */
+    public LazyHeapMinQueue(int capacity) {
+        assert capacity >= 0;
+        heap = new long[16];
+        priorities = new int[capacity];
+        contained = new boolean[capacity];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getInt() {
+        return key(top());
+    }
+
+    @Override
+    public int minPriority() {
+        return priority(top());
+    }
+
+    @Override
+    public void addOrUpdate(int key, int priority) {
+        if (contained[key]) {
+            if (priorities[key] == priority) {
+                return;
+            }
+            duplicatePushes += 1;
+        } else {
+            contained[key] = true;
+            size += 1;
+        }
+        priorities[key] = priority;
+        push(((long) priority << 32) | key);
+    }
+
+    @Override
+    public int removeInt() {
+        int key = key(top());
+        pop();
+        contained[key] = false;
+        size -= 1;
+        return key;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < length; ++i) {
+            contained[key(heap[i])] = false;
+        }
+        length = 0;
+        size = 0;
+        duplicatePushes = 0;
+    }
+
+    /**
+     * Return the number of entries pushed for elements that were already in the queue (each of
+     * which leaves a stale entry behind) since this queue was created or last cleared.
+     */
+    @Override
+    public long duplicatePushes() {
+        return duplicatePushes;
+    }
+
+    /**
+     * Return the number of entries currently stored, including stale ones.  Never less than
+     * `size()`.
+     */
+    public int entries() {
+        return length;
+    }
+
+    /**
+     * Discard stale entries from the top of the heap and return the top entry, which is then live.
+     * Throws NoSuchElementException if this queue is empty.
+     */
+    private long top() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty.");
+        }
+        while (true) {
+            long entry = heap[0];
+            int key = key(entry);
+            if (contained[key] && priorities[key] == priority(entry)) {
+                return entry;
+            }
+            pop();
+        }
+    }
+
+    /**
+     * Add `entry` to the heap, growing its storage if necessary.
+     */
+    private void push(long entry) {
+        if (length == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * length);
+        }
+        int i = length;
+        length += 1;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= entry) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = entry;
+    }
+
+    /**
+     * Remove the top entry from the heap.  Requires the heap is not empty.
+     */
+    private void pop() {
+        assert length > 0;
+        length -= 1;
+        long entry = heap[length];
+        int i = 0;
+        int half = length >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < length && heap[child + 1] < heap[child]) {
+                child += 1;
+            }
+            if (heap[child] >= entry) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = entry;
+    }
+
+    /**
+     * Return the key packed into `entry`.
+     */
+    private static int key(long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * Return the priority packed into `entry`.
+     */
+    private static int priority(long entry) {
+        return (int) (entry >> 32);
+    }
+}
@@ -4,7 +4,7 @@ package graph;
  * A min priority queue of distinct elements of type `KeyType` associated with (extrinsic) integer
  * priorities.
  */
-interface MinQueue<KeyType> {
+public interface MinQueue<KeyType> {
     /**
      * Return whether this queue contains no elements.
      */
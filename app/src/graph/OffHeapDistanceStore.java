@@ -0,0 +1,134 @@
+package graph;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * A `DistanceStore` of 64-bit distances held outside the Java heap, in direct buffers of
+ * `CHUNK_LENGTH` entries each.  Costs 8 bytes per vertex, but its distances cannot overflow, its
+ * length is not limited to that of an array, and the garbage collector never copies or scans it.
+ * <p>
+ * Releasing the store frees its buffers' native memory at once, by running their cleaners through
+ * `sun.misc.Unsafe.invokeCleaner()` (in the `jdk.unsupported` module, which the class path can
+ * always read), so a pool of solvers over large images does not exhaust direct memory while their
+ * released buffers wait for a collection.  If that method is unavailable, releasing only drops the
+ * buffers, and their memory is reclaimed by the next collection instead (the JDK also collects
+ * unreferenced direct buffers when `-XX:MaxDirectMemorySize` would otherwise be exceeded).  Since
+ * freed memory must never be read, a store must not be used concurrently with being released.
+ */
+final class OffHeapDistanceStore implements DistanceStore {
+
+    /**
+     * log2 of the number of entries per buffer.  Buffers are indexed by `int`, and 2^24 entries
+     * (128 MiB) keep each allocation modest.
+     */
+    private static final int CHUNK_SHIFT = 24;
+
+    /**
+     * The number of entries per buffer (the last buffer may be shorter).
+     */
+    static final int CHUNK_LENGTH = 1 << CHUNK_SHIFT;
+
+    /**
+     * Frees the memory of a direct buffer allocated by `ByteBuffer.allocateDirect()`, or null if
+     * the JDK does not expose `sun.misc.Unsafe.invokeCleaner()`.  Looked up reflectively, since
+     * naming `sun.misc.Unsafe` in code draws a compiler warning that cannot be suppressed.
+     */
+    private static final MethodHandle FREE = cleanerInvoker();
+
+    /**
+     * The number of entries in this store.
+     */
+    private final long length;
+
+    /**
+     * `chunks[c]` holds the entries with indices in `[c*CHUNK_LENGTH..(c+1)*CHUNK_LENGTH)`, and is
+     * a view of `buffers[c]`, which owns its memory.  Both null once released.
+     */
+    private LongBuffer[] chunks;
+    private ByteBuffer[] buffers;
+
+    /**
+     * Create a store of `length` entries, each initially 0.  Requires `length` is non-negative.
+     */
+    OffHeapDistanceStore(long length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative length: " + length);
+        }
+        this.length = length;
+        int count = Math.toIntExact((length + CHUNK_LENGTH - 1) >>> CHUNK_SHIFT);
+        chunks = new LongBuffer[count];
+        buffers = new ByteBuffer[count];
+        for (int c = 0; c < count; ++c) {
+            int n = (int) Math.min(CHUNK_LENGTH, length - ((long) c << CHUNK_SHIFT));
+            buffers[c] = ByteBuffer.allocateDirect(n * Long.BYTES).order(ByteOrder.nativeOrder());
+            chunks[c] = buffers[c].asLongBuffer();
+        }
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public long get(long index) {
+        return chunk(index).get((int) index & (CHUNK_LENGTH - 1));
+    }
+
+    @Override
+    public void set(long index, long distance) {
+        chunk(index).put((int) index & (CHUNK_LENGTH - 1), distance);
+    }
+
+    @Override
+    public void close() {
+        ByteBuffer[] released = buffers;
+        chunks = null;
+        buffers = null;
+        if (released == null || FREE == null) {
+            return;
+        }
+        for (ByteBuffer buffer : released) {
+            try {
+                FREE.invokeExact(buffer);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Could not free distances", e);
+            }
+        }
+    }
+
+    /**
+     * Return a handle that frees a direct buffer's memory, taking the buffer and returning
+     * nothing, or null if the JDK does not allow that.
+     */
+    private static MethodHandle cleanerInvoker() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup().findVirtual(unsafeClass, "invokeCleaner",
+                    MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Return the buffer holding the entry with index `index`.  Throws IllegalStateException if
+     * this store has been released.
+     */
+    private LongBuffer chunk(long index) {
+        LongBuffer[] c = chunks;
+        if (c == null) {
+            throw new IllegalStateException("Distances have been released");
+        }
+        return c[(int) (index >>> CHUNK_SHIFT)];
+    }
+}
@@ -0,0 +1,83 @@
+package graph;
+
+import java.util.List;
+
+/**
+ * An incremental search for shortest paths from a starting vertex to the other vertices of a
+ * graph, which can be resumed on demand and queried as it goes.  Implemented sequentially by
+ * `ShortestPaths` (Dijkstra's algorithm) and in parallel by `DeltaSteppingPaths`; clients that do
+ * not care which should make their solvers with a `SolverEngine`.
+ */
+public interface PathSolver {
+
+    /**
+     * Change our starting point to the vertex with ID `startId`, discarding any pathfinding
+     * results from any previous starting point.
+     */
+    void setStart(int startId);
+
+    /**
+     * Find the shortest paths from the vertex with ID `startId` to every vertex reachable from it,
+     * returning a snapshot from which those paths can be queried.
+     */
+    PathfindingSnapshot findAllPaths(int startId);
+
+    /**
+     * Find the shortest paths from our current starting point to (at least) the next `maxToSettle`
+     * closest vertices for which shortest paths are not yet known, or to every reachable vertex if
+     * there are fewer, and return a snapshot of the results (a view, see `PathfindingSnapshot`).
+     * Requires `maxToSettle` is positive and that a starting vertex has been set.
+     */
+    PathfindingSnapshot extendSearch(int maxToSettle);
+
+    /**
+     * Settle vertices in order of distance from our current starting point until the vertex with
+     * ID `targetId` is settled, or until every reachable vertex is.  Return whether `targetId` is
+     * settled.  Requires that a starting vertex has been set.
+     */
+    boolean settleUntil(int targetId);
+
+    /**
+     * Like `settleUntil(targetId)`, but give up once about `maxToSettle` more vertices have been
+     * settled, so that the search can be resumed later.  Return whether `targetId` is settled.
+     */
+    boolean settleUntil(int targetId, int maxToSettle);
+
+    /**
+     * Return the sequence of vertex IDs along the shortest known path from our current starting
+     * point to the vertex with ID `dstId` (inclusive), which is the shortest possible if `dstId` is
+     * settled.  Throws IllegalArgumentException if `dstId` has not been discovered.
+     */
+    List<Integer> pathTo(int dstId);
+
+    /**
+     * Return an immutable copy of the shortest paths settled so far from our current starting
+     * point, which stays valid whatever this solver does next.  Throws IllegalStateException if no
+     * starting vertex has been set.
+     */
+    SettledPathTree settledTree();
+
+    /**
+     * Return the number of vertices for which the final shortest paths from the current starting
+     * point are known.
+     */
+    int settledCount();
+
+    /**
+     * Return the total number of vertices in the graph we are finding shortest paths in.
+     */
+    int vertexCount();
+
+    /**
+     * Return whether shortest paths have been found for all vertices reachable from the current
+     * starting point.  Returns false if no starting point has been set.
+     */
+    boolean allPathsFound();
+
+    /**
+     * Release any memory this solver holds outside the heap without waiting for it to become
+     * unreachable.  Afterwards, neither this solver nor its snapshots may be used, except to
+     * release it again.
+     */
+    void release();
+}
@@ -0,0 +1,38 @@
+package graph;
+
+/**
+ * The predecessor of each vertex reached by a shortest-paths search, from which paths are traced
+ * back to the search's start.  Entries are only meaningful for vertices the search has discovered.
+ */
+interface PathTree {
+
+    /**
+     * Return the ID of the predecessor of the vertex with ID `id`, or -1 if it is the root of the
+     * tree (the search's start).
+     */
+    int predecessor(int id);
+
+    /**
+     * Record that the predecessor of the vertex with ID `id` is the vertex with ID `predecessorId`,
+     * whose edge to it has direction `dir` (as passed by `IntGraph.forEachNeighbor()`, or -1 if
+     * unknown).
+     */
+    void setPredecessor(int id, int predecessorId, int dir);
+
+    /**
+     * Record that the vertex with ID `id` is the root of the tree.
+     */
+    void setRoot(int id);
+
+    /**
+     * Return an empty tree for the vertices of `graph`, storing directions rather than vertex IDs
+     * if `graph` is a `BoundedDegreeGraph`.  In that case, every predecessor must be recorded with
+     * its direction.
+     */
+    static PathTree forGraph(Graph<?> graph) {
+        if (graph instanceof BoundedDegreeGraph<?, ?> bounded) {
+            return new DirectionPathTree(bounded);
+        }
+        return new IdPathTree(new int[graph.vertexCount()]);
+    }
+}
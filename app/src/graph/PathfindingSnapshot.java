@@ -5,6 +5,17 @@ import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
 
+/**
+ * The progress of a shortest-paths search as of some point in time.  A snapshot either holds its
+ * own copy of the search's results or, when made by a solver such as `ShortestPaths`, is a
+ * read-only _view_ of the solver's state.  A view takes O(1) time to make: it remembers the
+ * version of the solver's `SearchMarks` when it was made and ignores vertices discovered or
+ * settled after that.  Settled vertices' distances and paths never change within a search, so a
+ * view's settled vertices stay exactly as they were; a discovered but unsettled vertex may report
+ * a shorter path found since.  A view is invalidated when its solver starts a new search, after
+ * which querying it throws IllegalStateException.  Like the solver itself, a view must not be
+ * queried concurrently with the solver's search being extended.
+ */
 public class PathfindingSnapshot {
 
     /**
@@ -13,24 +24,34 @@ public class PathfindingSnapshot {
     private final int startId;
 
     /**
-     * `distances[id]` is the weight of the shortest known path from the starting vertex to the
-     * vertex with ID `id`, or -1 if no such path is currently known.
+     * `distances.get(id)` is the weight of the shortest known path from the starting vertex to the
+     * vertex with ID `id`, or -1 if no such path is currently known.  For a view, entries are only
+     * meaningful for discovered vertices.
      */
-    private final int[] distances;
+    private final DistanceStore distances;
 
     /**
-     * `predecessors[id]` is the ID of the penultimate vertex along the shortest known path from the
-     * starting vertex to the vertex with ID `id`, or -1 if `id==startId` or if no such path is
-     * currently known.
+     * `predecessors.predecessor(id)` is the ID of the penultimate vertex along the shortest known
+     * path from the starting vertex to the vertex with ID `id`, or -1 if `id==startId` or if no
+     * such path is currently known.  For a view, entries are only meaningful for discovered
+     * vertices.
      */
-    private final int[] predecessors;
+    private final PathTree predecessors;
 
     /**
      * `settledIds[id]` is true if the shortest path has been determined from the starting vertex to
-     * the vertex with ID `id`.
+     * the vertex with ID `id`.  Null for a view.
      */
     private final BitSet settledIds;
 
+    /**
+     * For a view, the solver's marks, the search they were recording, and their version when the
+     * view was made.  `marks` is null for a snapshot holding its own copy of the results.
+     */
+    private final SearchMarks marks;
+    private final long search;
+    private final int version;
+
     /**
      * Create a new snapshot of the progress of finding shortest paths from a vertex with ID
      * `startId`. `distances[id]` must specify the total weight of the shortest known path so far
@@ -42,9 +63,37 @@ public class PathfindingSnapshot {
     public PathfindingSnapshot(int startId, int[] distances, int[] predecessors,
             BitSet settledIds) {
         this.startId = startId;
-        this.predecessors = Arrays.copyOf(predecessors, predecessors.length);
-        this.distances = Arrays.copyOf(distances, distances.length);
+        this.predecessors = new IdPathTree(Arrays.copyOf(predecessors, predecessors.length));
+        this.distances = new IntDistanceStore(Arrays.copyOf(distances, distances.length));
         this.settledIds = (BitSet) settledIds.clone();
+        marks = null;
+        search = 0;
+        version = 0;
+    }
+
+    /**
+     * Create a view of the current search from `startId` recorded by `marks`, whose distances and
+     * predecessors (for discovered vertices) are in `distances` and `predecessors`.  The arrays
+     * are shared, not copied.
+     */
+    PathfindingSnapshot(int startId, int[] distances, PathTree predecessors, SearchMarks marks) {
+        this(startId, new IntDistanceStore(distances), predecessors, marks);
+    }
+
+    /**
+     * Create a view of the current search from `startId` recorded by `marks`, whose distances and
+     * predecessors (for discovered vertices) are in `distances` and `predecessors`, which are
+     * shared, not copied.
+     */
+    PathfindingSnapshot(int startId, DistanceStore distances, PathTree predecessors,
+            SearchMarks marks) {
+        this.startId = startId;
+        this.distances = distances;
+        this.predecessors = predecessors;
+        settledIds = null;
+        this.marks = marks;
+        search = marks.search();
+        version = marks.version();
     }
 
     /**
@@ -53,7 +102,8 @@ public class PathfindingSnapshot {
      * path's distance will be the shortest possible.  Throws IllegalArgumentException if the
      * destination vertex has not been discovered.  Note that, while the returned path may not be
      * the unique path with that distance, an instance of this class will always return the same
-     * path when queried for the same destination.
+     * path when queried for the same destination (in the case of a view, once the destination is
+     * settled in the solver).
      */
     public List<Integer> pathTo(int dstId) {
         // TODO A6.1b: Implement this method as specified (hint: remember that reconstructing paths
@@ -61,9 +111,18 @@ public class PathfindingSnapshot {
         if (!discovered(dstId)){
             throw new IllegalArgumentException();
         }
+        return tracePath(startId, predecessors, dstId);
+    }
+
+    /**
+     * Return the sequence of vertex IDs from the vertex with ID `startId` to the vertex with ID
+     * `dstId` (inclusive) obtained by following `predecessors` back from `dstId`.  Throws
+     * IllegalArgumentException if that does not lead back to `startId`.
+     */
+    static List<Integer> tracePath(int startId, PathTree predecessors, int dstId) {
         List<Integer> path = new ArrayList<>();
 
-        for (int i = dstId; i != -1; i = predecessors[i]) {
+        for (int i = dstId; i != -1; i = predecessors.predecessor(i)) {
             path.add(i);
             if (i == startId) {
                 break; // We've reached the starting vertex, so stop the loop
@@ -85,11 +144,25 @@ public class PathfindingSnapshot {
 
     /**
      * Return the total weight along the shortest known path from the starting vertex to the vertex
-     * with ID `dstId`.  If no path is known, return -1.  Requires `dstId` is a valid vertex ID in
-     * the graph.
+     * with ID `dstId`.  If no path is known, return -1.  Throws ArithmeticException if the weight
+     * exceeds `Integer.MAX_VALUE` (see `longDistanceTo()`).  Requires `dstId` is a valid vertex ID
+     * in the graph.
      */
     public int distanceTo(int dstId) {
-        return distances[dstId];
+        return Math.toIntExact(longDistanceTo(dstId));
+    }
+
+    /**
+     * Return the total weight along the shortest known path from the starting vertex to the vertex
+     * with ID `dstId`, which may exceed `Integer.MAX_VALUE` if the solver stored its distances
+     * off the heap (see `SolverStorage`).  If no path is known, return -1.  Requires `dstId` is a
+     * valid vertex ID in the graph.
+     */
+    public long longDistanceTo(int dstId) {
+        if (marks != null && !discovered(dstId)) {
+            return -1;
+        }
+        return distances.get(dstId);
     }
 
     /**
@@ -104,7 +177,11 @@ public class PathfindingSnapshot {
      * Return whether a path is known from the starting vertex to the vertex with ID `id`.
      */
     public boolean discovered(int id) {
-        return predecessors[id] >= 0 || id == startId;
+        if (marks != null) {
+            checkCurrent();
+            return marks.discovered(id, version);
+        }
+        return predecessors.predecessor(id) >= 0 || id == startId;
     }
 
     /**
@@ -112,6 +189,20 @@ public class PathfindingSnapshot {
      * to the vertex with ID `id`.
      */
     public boolean settled(int id) {
+        if (marks != null) {
+            checkCurrent();
+            return marks.settled(id, version);
+        }
         return settledIds.get(id);
     }
+
+    /**
+     * Throw IllegalStateException if this is a view whose solver has started a new search since
+     * it was made.
+     */
+    private void checkCurrent() {
+        if (marks.search() != search) {
+            throw new IllegalStateException("Search from " + startId + " has been replaced");
+        }
+    }
 }
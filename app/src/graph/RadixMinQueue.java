@@ -0,0 +1,210 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A monotone min priority queue of distinct `int` elements in `[0..capacity)` with non-negative
+ * priorities, implemented as a radix heap.  No element may be given a priority smaller than the
+ * last minimum observed, which holds for a Dijkstra frontier with non-negative edge weights.
+ * <p>
+ * Elements are grouped into buckets by the highest bit in which their priority differs from the
+ * last minimum, so there are only 32 buckets regardless of how large distances grow (unlike
+ * `BucketMinQueue`, whose bucket count grows with the spread of priorities).  Each element moves
+ * to a lower bucket at most once per bit, giving O(log C) amortized cost per element, where C is
+ * the largest priority.
+ */
+public class RadixMinQueue implements IntMinQueue {
+
+    /**
+     * Marks the absence of an element in `heads`, `next`, `prev`, and `priorities`.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * `heads[b]` is the first element in bucket `b`, or NONE if the bucket is empty.  Bucket 0
+     * holds elements whose priority equals `last`; bucket `b > 0` holds elements whose priority's
+     * highest bit differing from `last` is bit `b - 1`.  Priorities are non-negative, so bit 31
+     * never differs and 32 buckets suffice.
+     */
+    private final int[] heads;
+
+    /**
+     * `next[key]` and `prev[key]` link `key` to its neighbors in its bucket's list (NONE at either
+     * end).  Unspecified for elements not in the queue.
+     */
+    private final int[] next;
+    private final int[] prev;
+
+    /**
+     * `priorities[key]` is the priority associated with `key`, or NONE if `key` is not in the
+     * queue.
+     */
+    private final int[] priorities;
+
+    /**
+     * The last minimum priority observed; no priority in the queue is smaller.
+     */
+    private int last;
+
+    /**
+     * The number of elements in the queue.
+     */
+    private int size;
+
+    /**
+     * Create an empty queue that can hold elements in `[0..capacity)`.
+     */
+    public RadixMinQueue(int capacity) {
+        assert capacity >= 0;
+        heads = new int[32];
+        next = new int[capacity];
+        prev = new int[capacity];
+        priorities = new int[capacity];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(priorities, NONE);
+        last = 0;
+        size = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getInt() {
+        pull();
+        return heads[0];
+    }
+
+    @Override
+    public int minPriority() {
+        pull();
+        return last;
+    }
+
+    /**
+     * If `key` is already contained in this queue, change its associated priority to `priority`.
+     * Otherwise, add it to this queue with that priority.  Throws IllegalArgumentException if
+     * `priority` is negative or less than the last minimum priority observed (an empty queue
+     * accepts any non-negative priority).
+     */
+    @Override
+    public void addOrUpdate(int key, int priority) {
+        if (priority < 0) {
+            throw new IllegalArgumentException("Negative priority: " + priority);
+        }
+        if (size == 0 && priority < last) {
+            // Nothing in an empty queue depends on `last`, so it may start over lower.
+            last = priority;
+        }
+        if (priority < last) {
+            throw new IllegalArgumentException("Priority " + priority
+                    + " is less than the last minimum " + last);
+        }
+        int old = priorities[key];
+        if (old == priority) {
+            return;
+        }
+        if (old == NONE) {
+            size += 1;
+        } else {
+            unlink(key, bucket(old));
+        }
+        priorities[key] = priority;
+        link(key, bucket(priority));
+    }
+
+    @Override
+    public int removeInt() {
+        pull();
+        int key = heads[0];
+        unlink(key, 0);
+        priorities[key] = NONE;
+        size -= 1;
+        return key;
+    }
+
+    @Override
+    public void clear() {
+        for (int b = 0; b < heads.length; ++b) {
+            for (int key = heads[b]; key != NONE; key = next[key]) {
+                priorities[key] = NONE;
+            }
+            heads[b] = NONE;
+        }
+        size = 0;
+        last = 0;
+    }
+
+    /**
+     * Return the bucket that an element with priority `priority` belongs in, relative to `last`.
+     */
+    private int bucket(int priority) {
+        return 32 - Integer.numberOfLeadingZeros(priority ^ last);
+    }
+
+    /**
+     * Ensure bucket 0 is non-empty by advancing `last` to the minimum priority in the first
+     * non-empty bucket and redistributing that bucket's elements, all of which then belong in
+     * lower buckets.  Throws NoSuchElementException if this queue is empty.
+     */
+    private void pull() {
+        if (size == 0) {
+            throw new NoSuchElementException("Queue is empty.");
+        }
+        if (heads[0] != NONE) {
+            return;
+        }
+        int b = 1;
+        while (heads[b] == NONE) {
+            b += 1;
+        }
+        int min = Integer.MAX_VALUE;
+        for (int key = heads[b]; key != NONE; key = next[key]) {
+            min = Math.min(min, priorities[key]);
+        }
+        last = min;
+        int key = heads[b];
+        heads[b] = NONE;
+        while (key != NONE) {
+            int following = next[key];
+            link(key, bucket(priorities[key]));
+            key = following;
+        }
+    }
+
+    /**
+     * Add `key` to the front of bucket `b`'s list.
+     */
+    private void link(int key, int b) {
+        prev[key] = NONE;
+        next[key] = heads[b];
+        if (heads[b] != NONE) {
+            prev[heads[b]] = key;
+        }
+        heads[b] = key;
+    }
+
+    /**
+     * Remove `key` from bucket `b`'s list, which must contain it.
+     */
+    private void unlink(int key, int b) {
+        int n = next[key];
+        int p = prev[key];
+        if (p == NONE) {
+            heads[b] = n;
+        } else {
+            next[p] = n;
+        }
+        if (n != NONE) {
+            prev[n] = p;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Records when each vertex was discovered and settled by a search, as _versions_ drawn from a
+ * counter that only increases across searches.  Versions no greater than the current search's
+ * `base` were assigned by earlier searches, so starting a new search forgets every mark in O(1)
+ * rather than clearing arrays of the graph's size.  And since a vertex's versions never change
+ * once assigned within a search, the marks as of any earlier version in the current search can
+ * still be recovered, which lets `PathfindingSnapshot` present a consistent view of a search that
+ * has since moved on.
+ */
+final class SearchMarks {
+
+    /**
+     * The largest graph whose marks can be recorded.  A search assigns at most two versions per
+     * vertex (one as it is discovered, one as it is settled), which must not overflow an int.
+     */
+    static final int MAX_VERTICES = Integer.MAX_VALUE / 2;
+
+    /**
+     * `discoveredAt[id]` and `settledAt[id]` are the versions at which the vertex with ID `id` was
+     * last discovered and settled, or 0 if it never was (or not since the counter wrapped around).
+     */
+    private final int[] discoveredAt;
+    private final int[] settledAt;
+
+    /**
+     * The last version assigned.
+     */
+    private int version;
+
+    /**
+     * The value of `version` when the current search started.
+     */
+    private int base;
+
+    /**
+     * The number of times `clear()` has been called, identifying the current search.
+     */
+    private long search;
+
+    /**
+     * Create marks for a graph of `vertexCount` vertices, none of which is discovered.  Throws
+     * IllegalArgumentException if `vertexCount` exceeds `MAX_VERTICES`.
+     */
+    SearchMarks(int vertexCount) {
+        if (vertexCount > MAX_VERTICES) {
+            throw new IllegalArgumentException("Cannot search a graph of " + vertexCount
+                    + " vertices; at most " + MAX_VERTICES + " are supported");
+        }
+        discoveredAt = new int[vertexCount];
+        settledAt = new int[vertexCount];
+    }
+
+    /**
+     * Forget all marks, starting a new search.  O(1), except when the versions left to assign may
+     * not suffice for a search of every vertex, when the counter wraps around and the marks must be
+     * cleared (every few dozen searches of a large graph).
+     */
+    void clear() {
+        if (version > Integer.MAX_VALUE - 2 * discoveredAt.length) {
+            Arrays.fill(discoveredAt, 0);
+            Arrays.fill(settledAt, 0);
+            version = 0;
+        }
+        base = version;
+        search += 1;
+    }
+
+    /**
+     * Return a number identifying the current search, which changes on every `clear()`.
+     */
+    long search() {
+        return search;
+    }
+
+    /**
+     * Return the last version assigned, as of which the current marks can later be queried.
+     */
+    int version() {
+        return version;
+    }
+
+    /**
+     * Return whether the vertex with ID `id` has been discovered since the last `clear()`.
+     */
+    boolean discovered(int id) {
+        return discoveredAt[id] > base;
+    }
+
+    /**
+     * Return whether the vertex with ID `id` has been settled since the last `clear()`.
+     */
+    boolean settled(int id) {
+        return settledAt[id] > base;
+    }
+
+    /**
+     * Return whether the vertex with ID `id` had been discovered in the current search as of
+     * `asOf`, a value of `version()` during it.
+     */
+    boolean discovered(int id, int asOf) {
+        return discoveredAt[id] > base && discoveredAt[id] <= asOf;
+    }
+
+    /**
+     * Return whether the vertex with ID `id` had been settled in the current search as of `asOf`,
+     * a value of `version()` during it.
+     */
+    boolean settled(int id, int asOf) {
+        return settledAt[id] > base && settledAt[id] <= asOf;
+    }
+
+    /**
+     * Return a new version with which to mark a batch of vertices using `discover(int, int)` and
+     * `settle(int, int)`, so that the whole batch appears at once to snapshots.
+     */
+    int newVersion() {
+        return ++version;
+    }
+
+    /**
+     * Mark the vertex with ID `id` as discovered at `atVersion`, which must be the latest
+     * `newVersion()`.  Requires it is not already discovered.  Distinct vertices may be marked
+     * concurrently, as long as the marks are published to readers afterwards (for example by
+     * joining the tasks that made them).
+     */
+    void discover(int id, int atVersion) {
+        assert atVersion == version && !discovered(id);
+        discoveredAt[id] = atVersion;
+    }
+
+    /**
+     * Mark the vertex with ID `id` as settled at `atVersion`, under the same conditions as
+     * `discover(int, int)`.  Requires it is discovered and not already settled.
+     */
+    void settle(int id, int atVersion) {
+        assert atVersion == version && discovered(id) && !settled(id);
+        settledAt[id] = atVersion;
+    }
+
+    /**
+     * Mark the vertex with ID `id` as discovered.  Requires it is not already discovered.
+     */
+    void discover(int id) {
+        assert !discovered(id);
+        discoveredAt[id] = ++version;
+    }
+
+    /**
+     * Mark the vertex with ID `id` as settled.  Requires it is discovered and not already settled.
+     */
+    void settle(int id) {
+        assert discovered(id) && !settled(id);
+        settledAt[id] = ++version;
+    }
+}
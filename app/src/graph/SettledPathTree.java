@@ -0,0 +1,193 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable copy of the shortest paths settled by a search, stored compactly enough to be
+ * cached long after the search's solver has moved on (see `ShortestPaths.settledTree()`).  Which
+ * vertices are settled is a bitset spanning the lowest to the highest settled ID, with a count of
+ * the bits set before every `RANK_WORDS` words, so that each settled vertex's _rank_ (the number
+ * of settled vertices with lower IDs) is found in O(1).  Their predecessors are stored by rank:
+ * one byte of direction per vertex for a `BoundedDegreeGraph`, or a vertex ID otherwise.  For an
+ * image searched all over, that is about 1.1 bytes per pixel, about as little as its solver's
+ * `DirectionPathTree`; a search's settled pixels are mostly contiguous runs of rows, so a partial
+ * tree's bitset spans few pixels it does not hold.  Tracing a path of length L takes O(L).
+ */
+public final class SettledPathTree {
+
+    /**
+     * log2 of `RANK_WORDS`.
+     */
+    private static final int RANK_SHIFT = 3;
+
+    /**
+     * The number of words of `settled` between consecutive entries of `ranks`.  Larger blocks make
+     * the index smaller (4 bytes per 64 * `RANK_WORDS` vertices), but ranking a vertex counts the
+     * bits of up to `RANK_WORDS - 1` more words.
+     */
+    private static final int RANK_WORDS = 1 << RANK_SHIFT;
+
+    /**
+     * The ID of the start of every stored path.
+     */
+    private final int startId;
+
+    /**
+     * The number of settled vertices.
+     */
+    private final int count;
+
+    /**
+     * The ID of the vertex whose bit is the lowest of `settled` (the lowest settled ID).
+     */
+    private final int firstId;
+
+    /**
+     * Bit `id - firstId` (bit `i % 64` of word `i / 64`) is set if the vertex with ID `id` is
+     * settled.
+     */
+    private final long[] settled;
+
+    /**
+     * `ranks[b]` is the number of bits set in the words of `settled` before word `b * RANK_WORDS`.
+     */
+    private final int[] ranks;
+
+    /**
+     * The graph decoding `dirs`, or null if predecessors are stored in `predecessorIds`.
+     */
+    private final BoundedDegreeGraph<?, ?> graph;
+
+    /**
+     * `dirs[r]` is the direction of the edge to the settled vertex of rank `r` from its
+     * predecessor, or `DirectionPathTree.ROOT`.  Null unless `graph` is non-null.
+     */
+    private final byte[] dirs;
+
+    /**
+     * `predecessorIds[r]` is the ID of the predecessor of the settled vertex of rank `r`, or -1 for
+     * the start.  Null if `graph` is non-null.
+     */
+    private final int[] predecessorIds;
+
+    /**
+     * Create a tree of the paths from the vertex with ID `startId` to the vertices whose IDs are in
+     * `ids` (in increasing order), reading their predecessors from `predecessors`.
+     */
+    SettledPathTree(int startId, int[] ids, PathTree predecessors) {
+        this.startId = startId;
+        count = ids.length;
+        firstId = (count > 0) ? ids[0] : 0;
+        int span = (count > 0) ? ids[count - 1] - firstId + 1 : 0;
+        settled = new long[(int) (((long) span + Long.SIZE - 1) / Long.SIZE)];
+        for (int id : ids) {
+            int i = id - firstId;
+            settled[i >>> 6] |= 1L << i;
+        }
+        ranks = new int[(settled.length + RANK_WORDS - 1) >>> RANK_SHIFT];
+        int rank = 0;
+        for (int w = 0; w < settled.length; ++w) {
+            if ((w & (RANK_WORDS - 1)) == 0) {
+                ranks[w >>> RANK_SHIFT] = rank;
+            }
+            rank += Long.bitCount(settled[w]);
+        }
+
+        // `ids` are in increasing order, so their indices are their ranks.
+        if (predecessors instanceof DirectionPathTree directions) {
+            graph = directions.graph();
+            dirs = new byte[count];
+            for (int r = 0; r < count; ++r) {
+                dirs[r] = (byte) directions.direction(ids[r]);
+            }
+            predecessorIds = null;
+        } else {
+            graph = null;
+            dirs = null;
+            predecessorIds = new int[count];
+            for (int r = 0; r < count; ++r) {
+                predecessorIds[r] = predecessors.predecessor(ids[r]);
+            }
+        }
+    }
+
+    /**
+     * Return the ID of the vertex that all stored paths start from.
+     */
+    public int start() {
+        return startId;
+    }
+
+    /**
+     * Return the number of vertices whose shortest paths are stored.
+     */
+    public int settledCount() {
+        return count;
+    }
+
+    /**
+     * Return whether the shortest path to the vertex with ID `id` is stored.
+     */
+    public boolean settled(int id) {
+        return rank(id) >= 0;
+    }
+
+    /**
+     * Return the sequence of vertex IDs along the shortest path from our start to the vertex with
+     * ID `dstId` (inclusive).  Throws IllegalArgumentException if `dstId` is not settled.
+     */
+    public List<Integer> pathTo(int dstId) {
+        List<Integer> path = new ArrayList<>();
+        for (int id = dstId; id != -1; id = predecessor(id)) {
+            path.add(id);
+        }
+        return path.reversed();
+    }
+
+    /**
+     * Return the approximate number of bytes of memory used by this tree, for budgeting caches.
+     */
+    public long byteSize() {
+        long perVertex = (dirs != null) ? Byte.BYTES : Integer.BYTES;
+        return 96 + (long) Long.BYTES * settled.length + (long) Integer.BYTES * ranks.length
+                + perVertex * count;
+    }
+
+    /**
+     * Return the number of settled vertices with IDs less than `id`, or -1 if the vertex with ID
+     * `id` is not settled.
+     */
+    private int rank(int id) {
+        long i = (long) id - firstId;
+        if (i < 0 || i >= (long) Long.SIZE * settled.length) {
+            return -1;
+        }
+        int w = (int) (i >>> 6);
+        long bit = 1L << i;
+        if ((settled[w] & bit) == 0) {
+            return -1;
+        }
+        int rank = ranks[w >>> RANK_SHIFT];
+        for (int v = w & -RANK_WORDS; v < w; ++v) {
+            rank += Long.bitCount(settled[v]);
+        }
+        return rank + Long.bitCount(settled[w] & (bit - 1));
+    }
+
+    /**
+     * Return the ID of the predecessor of the vertex with ID `id`, or -1 if it is our start.
+     * Throws IllegalArgumentException if `id` is not settled.
+     */
+    private int predecessor(int id) {
+        int r = rank(id);
+        if (r < 0) {
+            throw new IllegalArgumentException("Vertex " + id + " has not been settled");
+        }
+        if (graph == null) {
+            return predecessorIds[r];
+        }
+        int dir = dirs[r] & 0xFF;
+        return (dir == DirectionPathTree.ROOT) ? -1 : graph.startIdOf(id, dir);
+    }
+}
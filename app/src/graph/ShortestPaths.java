@@ -1,15 +1,15 @@
 package graph;
 
-import java.util.Arrays;
-import java.util.BitSet;
-import java.util.PriorityQueue;
+import java.util.List;
+import java.util.function.IntPredicate;
 
 /**
  * Supports incrementally solving for shortest paths from a starting vertex in a graph with vertices
  * of type `VertexType` and edges of type `EdgeType`.  Can provide preliminary pathfinding results
  * and report progress towards a full solution.
  */
-public class ShortestPaths<VertexType extends Vertex<EdgeType>, EdgeType extends Edge> {
+public class ShortestPaths<VertexType extends Vertex<EdgeType>, EdgeType extends Edge>
+        implements PathSolver {
 
     /**
      * The graph we are searching for paths in.
@@ -21,6 +21,22 @@ public class ShortestPaths<VertexType extends Vertex<EdgeType>, EdgeType extends
      */
     private final Weigher<EdgeType> weigher;
 
+    /**
+     * Our graph, if it can enumerate edges without allocating (see `IntGraph`), or null otherwise.
+     */
+    private final IntGraph<VertexType, EdgeType> intGraph;
+
+    /**
+     * Relaxes each edge visited by `intGraph.forEachNeighbor()` from the vertex `relaxingId`.
+     * Created once so that visiting a vertex's edges allocates nothing.
+     */
+    private final IntEdgeVisitor relaxer;
+
+    /**
+     * The ID of the vertex whose outgoing edges `relaxer` is currently visiting.
+     */
+    private int relaxingId;
+
     /**
      * The ID of the starting vertex for our current search, or -1 if no starting vertex has yet
      * been selected.
@@ -28,71 +44,161 @@ public class ShortestPaths<VertexType extends Vertex<EdgeType>, EdgeType extends
     private int startId;
 
     /**
-     * `distances[id]` is the weight of the shortest known path from our starting vertex to the
-     * vertex with ID `id`, or -1 if no such path is currently known.
+     * Which vertices the current search has discovered and settled.  Lets `reset()` forget the
+     * previous search without clearing `distances` and `predecessors`, so that a solver can be
+     * reused for many searches at little cost.
+     */
+    private final SearchMarks marks;
+
+    /**
+     * `distances.get(id)` is the weight of the shortest known path from our starting vertex to the
+     * vertex with ID `id`.  Unspecified (left over from earlier searches) unless the vertex is
+     * discovered in `marks`.  Held on or off the heap as chosen by a `SolverStorage`.
      */
-    private final int[] distances;
+    private final DistanceStore distances;
 
     /**
-     * `predecessors[id]` is the ID of the penultimate vertex along the shortest known path from our
-     * starting vertex to the vertex with ID `id`, or -1 if `id==startId` or if no such path is
-     * currently known.
+     * `predecessors.predecessor(id)` is the ID of the penultimate vertex along the shortest known
+     * path from our starting vertex to the vertex with ID `id`, or -1 if `id==startId`.
+     * Unspecified unless the vertex is discovered in `marks`.  Stored as one-byte directions if
+     * our graph is a `BoundedDegreeGraph`.
      */
-    private final int[] predecessors;
+    private final PathTree predecessors;
 
     /**
      * Queue of vertex IDs currently known to be reachable from the starting vertex but for whom the
      * shortest possible path has not yet been determined.  Ordered by weight of the shortest known
-     * path from the starting vertex.
+     * path from the starting vertex.  Indexed by vertex ID, so that relaxing an edge neither boxes
+     * nor hashes the ID.
      */
-    private final MinQueue<Integer> frontier;
+    private final IntMinQueue frontier;
 
     /**
-     * `settledIds.get(id)` is true if the shortest path has been determined from our starting
-     * vertex to the vertex with ID `id`.
+     * The priority that `frontier`'s priorities are relative to.  Distances may exceed the range
+     * of the queue's `int` priorities, but the priorities in the frontier at any time lie within a
+     * couple of edge weights of each other, so the base is raised whenever a relative priority
+     * would grow too large (see `frontierPriority()`).
      */
-    private final BitSet settledIds;
+    private long priorityBase;
+
+    /**
+     * The vertices removed from `frontier` while it is being rebased.  Kept to avoid reallocating.
+     */
+    private final IntList rebased = new IntList();
+
+    /**
+     * The number of vertices settled in `marks`.
+     */
+    private int settledCount;
+
+    /**
+     * Tests whether searches may discover the vertex with a given ID, or null if they may discover
+     * every vertex (see `setRegion()`).
+     */
+    private IntPredicate region;
 
     /**
      * Create a new shortest paths solver for the graph `graph` whose edge weights are determined by
-     * `weigher`.
+     * `weigher`.  The frontier is chosen by `FrontierStrategy.AUTO` unless overridden by the
+     * system property `FrontierStrategy.PROPERTY`.
      */
     public ShortestPaths(Graph<VertexType> graph, Weigher<EdgeType> weigher) {
+        this(graph, weigher, FrontierStrategy.configured(FrontierStrategy.AUTO));
+    }
+
+    /**
+     * Create a new shortest paths solver for the graph `graph` whose edge weights are determined by
+     * `weigher`, ordering its frontier with a queue made by `frontierFactory`.  Distances are
+     * stored as chosen by `SolverStorage.AUTO` unless overridden by the system property
+     * `SolverStorage.PROPERTY`.
+     */
+    public ShortestPaths(Graph<VertexType> graph, Weigher<EdgeType> weigher,
+            FrontierFactory frontierFactory) {
+        this(graph, weigher, frontierFactory, SolverStorage.configured(SolverStorage.AUTO));
+    }
+
+    /**
+     * Create a new shortest paths solver for the graph `graph` whose edge weights are determined by
+     * `weigher`, ordering its frontier with a queue made by `frontierFactory` and keeping its
+     * distances in `storage`.  Throws IllegalArgumentException if `graph` has more vertices than a
+     * search can mark (`Integer.MAX_VALUE / 2`).
+     */
+    @SuppressWarnings("unchecked")
+    public ShortestPaths(Graph<VertexType> graph, Weigher<EdgeType> weigher,
+            FrontierFactory frontierFactory, SolverStorage storage) {
         this.graph = graph;
         this.weigher = weigher;
-        distances = new int[graph.vertexCount()];
-        predecessors = new int[graph.vertexCount()];
-        settledIds = new BitSet(graph.vertexCount());
-
-        // TODO A6.3f: Replace this with a `HeapMinQueue` after implementing and testing the latter.
-        frontier = new RefMinQueue<>();
+        // An `IntGraph` of our vertex type necessarily has our edge type.
+        intGraph = (graph instanceof IntGraph<?, ?> g) ? (IntGraph<VertexType, EdgeType>) g : null;
+        relaxer = (endId, dir, weight) -> relax(relaxingId, endId, dir, weight);
+        marks = new SearchMarks(graph.vertexCount());
+        int maxWeight = weigher.maxWeight();
+        distances = storage.distances(graph.vertexCount(), maxWeight);
+        predecessors = PathTree.forGraph(graph);
+        frontier = frontierFactory.make(graph.vertexCount(), maxWeight);
 
         reset();
     }
 
     /**
      * Clear any intermediate pathfinding results in preparation for finding paths from a new
-     * starting point.
+     * starting point.  Takes time proportional to the size of the previous search's frontier, not
+     * to the size of the graph.
      */
     private void reset() {
-        Arrays.fill(distances, -1);
-        Arrays.fill(predecessors, -1);
+        marks.clear();
         frontier.clear();
-        settledIds.clear();
+        settledCount = 0;
+        priorityBase = 0;
         startId = -1;
     }
 
+    /**
+     * Release this solver's distances (see `SolverStorage`), freeing any off-heap memory they
+     * occupy at once rather than at the next collection.  Neither this solver nor its snapshots
+     * may be used while this runs, or afterwards except to release it again.
+     */
+    @Override
+    public void release() {
+        distances.close();
+    }
+
+    /**
+     * Restrict searches from subsequent starting points to the vertices whose IDs satisfy `region`
+     * (e.g. `bits::get` for a BitSet of vertex IDs, or a test of a pixel's coordinates against a
+     * bounding rectangle), or lift any restriction if `region` is null.  Vertices outside the
+     * region are never discovered, so the paths found are the shortest that stay inside it, and a
+     * search that settles the whole region costs time proportional to the region's size.  Should
+     * only be called before setting a new starting point, which must be in the region.
+     */
+    public void setRegion(IntPredicate region) {
+        this.region = region;
+    }
+
     /**
      * Return the number of vertices for which the final shortest paths from the current starting
      * point are known.
      */
+    @Override
     public int settledCount() {
-        return settledIds.cardinality();
+        return settledCount;
+    }
+
+    /**
+     * Return the number of redundant frontier entries stored since the current starting point was
+     * set: one for each improved distance to an already-discovered vertex if the frontier does not
+     * update entries in place (`FrontierStrategy.LAZY_HEAP`), or 0 otherwise.  Counting starts over
+     * when the frontier is rebased, which only searches longer than `Integer.MAX_VALUE / 2` do.
+     * Useful for watching the memory overhead of lazy frontiers.
+     */
+    public long duplicatePushes() {
+        return frontier.duplicatePushes();
     }
 
     /**
      * Return the total number of vertices in the graph we are finding shortest paths in.
      */
+    @Override
     public int vertexCount() {
         return graph.vertexCount();
     }
@@ -101,6 +207,7 @@ public class ShortestPaths<VertexType extends Vertex<EdgeType>, EdgeType extends
      * Return whether shortest paths have been found for all vertices reachable from the current
      * starting point.  Returns false if no starting point has been set.
      */
+    @Override
     public boolean allPathsFound() {
         // The second condition is needed in case we were just constructed and have no starting
         //  point.
@@ -109,19 +216,34 @@ public class ShortestPaths<VertexType extends Vertex<EdgeType>, EdgeType extends
 
     /**
      * Change our starting point to `start`, discarding any pathfinding results from any previous
-     * starting point.
+     * starting point.  Throws IllegalArgumentException if `start` is outside our region (see
+     * `setRegion()`).
      */
+    @Override
     public void setStart(int startId) {
+        checkInRegion(startId);
         reset();
         this.startId = startId;
-        distances[startId] = 0;
+        marks.discover(startId);
+        distances.set(startId, 0);
+        predecessors.setRoot(startId);
         frontier.addOrUpdate(startId, 0);
     }
 
+    /**
+     * Throw an IllegalArgumentException if the vertex with ID `id` is outside our region.
+     */
+    private void checkInRegion(int id) {
+        if (region != null && !region.test(id)) {
+            throw new IllegalArgumentException("Vertex " + id + " is outside the search region");
+        }
+    }
+
     /**
      * Find the shortest paths from `start` to every vertex in our graph reachable from `start`,
      * returning an object from which those paths can be queried.
      */
+    @Override
     public PathfindingSnapshot findAllPaths(int startId) {
         setStart(startId);
         PathfindingSnapshot paths = extendSearch(vertexCount());
@@ -140,7 +262,12 @@ public class ShortestPaths<VertexType extends Vertex<EdgeType>, EdgeType extends
      * the graph.  If multiple vertices tie for being the next closest, it is unspecified which will
      * have its shortest path found first.  Requires `maxToSettle` is non-negative and that a
      * starting vertex has been set.
+     * <p>
+     * The snapshot shares this object's state rather than copying it, so returning it takes O(1)
+     * time.  It continues to report the vertices settled as of this call while the search is
+     * extended, but becomes invalid once a new starting vertex is set.
      */
+    @Override
     public PathfindingSnapshot extendSearch(int maxToSettle) {
         assert startId >= 0;
         assert maxToSettle > 0;
@@ -148,38 +275,161 @@ public class ShortestPaths<VertexType extends Vertex<EdgeType>, EdgeType extends
         // TODO A6.1a: Implement this method as specified using Dijkstra's algorithm (but settling
         //  no more than `maxToSettle` new vertices).  Make effective use of this class's fields,
         //  preserving their invariants.
-        //  Note that the constructor parameters for the return type correlate closely with this
-        //  class's fields (and the constructor guarantees copies are made, so you don't need to
-        //  worry about "rep exposure" when sharing them).
         int settledVertices = 0;
+        while (!frontier.isEmpty() && settledVertices < maxToSettle) {
+            if (settleNext()) {
+                settledVertices++;
+            }
+        }
+
+        return new PathfindingSnapshot(startId, distances, predecessors, marks);
+    }
+
+    /**
+     * Settle vertices in order of distance from our current starting point until the vertex with
+     * ID `targetId` is settled, or until every reachable vertex is.  Return whether `targetId` is
+     * settled.  The search is resumed from where any previous call (or `extendSearch()`) stopped,
+     * so a sequence of targets near the start costs only as much as settling out to the farthest of
+     * them.  Unlike `extendSearch()`, no snapshot is returned; query the paths found with
+     * `pathTo()`.  Requires that a starting vertex has been set.
+     */
+    @Override
+    public boolean settleUntil(int targetId) {
+        return settleUntil(targetId, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like `settleUntil(targetId)`, but settle at most `maxToSettle` vertices before giving up, so
+     * that a caller with a deadline (such as one painting the live wire) can resume the search
+     * later, or elsewhere.  Return whether `targetId` is settled.
+     */
+    @Override
+    public boolean settleUntil(int targetId, int maxToSettle) {
+        assert startId >= 0;
+        int settledVertices = 0;
+        while (!marks.settled(targetId) && !frontier.isEmpty() && settledVertices < maxToSettle) {
+            if (settleNext()) {
+                settledVertices++;
+            }
+        }
+        return marks.settled(targetId);
+    }
 
-        while(!frontier.isEmpty() && settledVertices < maxToSettle ){
-            int currentId = frontier.remove();
-            Vertex<EdgeType> v = graph.getVertex(currentId);
+    /**
+     * Return the sequence of vertex IDs along the shortest known path from our current starting
+     * point to the vertex with ID `dstId` (inclusive).  The path is the shortest possible if
+     * `dstId` is settled (see `settleUntil()`).  Throws IllegalArgumentException if `dstId` has not
+     * been discovered.
+     */
+    @Override
+    public List<Integer> pathTo(int dstId) {
+        if (!marks.discovered(dstId)) {
+            throw new IllegalArgumentException("Vertex " + dstId + " has not been discovered");
+        }
+        return PathfindingSnapshot.tracePath(startId, predecessors, dstId);
+    }
 
-            if (settledIds != null) {
-                if (settledIds.get(currentId)) {
-                    continue;
-                }
+    /**
+     * Return an immutable copy of the shortest paths settled so far from our current starting
+     * point, which stays valid whatever this solver does next.  Takes time proportional to the
+     * size of the graph, and stores only the settled vertices (see `SettledPathTree`).  Throws
+     * IllegalStateException if no starting vertex has been set.
+     */
+    @Override
+    public SettledPathTree settledTree() {
+        if (startId < 0) {
+            throw new IllegalStateException("No starting vertex has been set");
+        }
+        int[] settledIds = new int[settledCount];
+        int n = 0;
+        for (int id = 0; n < settledCount; ++id) {
+            if (marks.settled(id)) {
+                settledIds[n++] = id;
             }
+        }
+        return new SettledPathTree(startId, settledIds, predecessors);
+    }
 
-            settledIds.set(currentId, true);
-            settledVertices++;
+    /**
+     * Remove the vertex with the smallest priority from the frontier and, unless it was already
+     * settled (which lazy frontiers can report more than once), settle it and relax its outgoing
+     * edges.  Return whether a new vertex was settled.  Requires the frontier is not empty.
+     */
+    private boolean settleNext() {
+        int currentId = frontier.removeInt();
+        if (marks.settled(currentId)) {
+            return false;
+        }
 
-            for (EdgeType e: v.outgoingEdges()){
-                Vertex<EdgeType> neighbor = graph.getVertex(e.endId());
-                int weight = weigher.weight(e);
-                int newDistance = distances[currentId] + weight;
+        marks.settle(currentId);
+        settledCount += 1;
 
-                if (newDistance < distances[neighbor.id()] || !(predecessors[neighbor.id()] >= 0 || neighbor.id() == startId)) {
-                    distances[neighbor.id()] = newDistance;
-                    predecessors[neighbor.id()] = currentId;
-                    frontier.addOrUpdate(neighbor.id(), newDistance);
-                }
+        if (intGraph != null) {
+            relaxingId = currentId;
+            intGraph.forEachNeighbor(currentId, weigher, relaxer);
+        } else {
+            for (EdgeType e : graph.getVertex(currentId).outgoingEdges()) {
+                relax(currentId, e.endId(), -1, weigher.weight(e));
+            }
+        }
+        return true;
+    }
 
+    /**
+     * Offer the path to the vertex with ID `endId` through the settled vertex with ID `fromId`,
+     * whose final edge has direction `dir` (-1 if unknown) and weight `weight`.  If it is shorter
+     * than any known path to `endId`, record it and add `endId` to the frontier (or update its
+     * priority there).  Edges leaving our region are ignored.
+     */
+    private void relax(int fromId, int endId, int dir, int weight) {
+        if (region != null && !region.test(endId)) {
+            return;
+        }
+        long newDistance = distances.get(fromId) + weight;
+        if (!marks.discovered(endId) || newDistance < distances.get(endId)) {
+            if (!marks.discovered(endId)) {
+                marks.discover(endId);
             }
+            distances.set(endId, newDistance);
+            predecessors.setPredecessor(endId, fromId, dir);
+            frontier.addOrUpdate(endId, frontierPriority(fromId, newDistance));
         }
+    }
+
+    /**
+     * Return `priority` relative to `priorityBase`, first rebasing the frontier at the priority of
+     * the vertex with ID `settlingId`, which is being settled, if the result would exceed half the
+     * range of an `int`.  Throws ArithmeticException if `priority` lies farther above that than an
+     * `int` can express, which requires edge weights beyond `Integer.MAX_VALUE / 2`.
+     */
+    private int frontierPriority(int settlingId, long priority) {
+        if (priority - priorityBase > Integer.MAX_VALUE / 2) {
+            rebaseFrontier(distances.get(settlingId));
+        }
+        return Math.toIntExact(priority - priorityBase);
+    }
 
-        return new PathfindingSnapshot(startId, distances, predecessors, settledIds);
+    /**
+     * Lower `frontier`'s priorities by raising `priorityBase` to `newBase`, re-adding every vertex
+     * in the frontier with its priority relative to the new base.  Settled vertices are settled in
+     * order of priority, so `newBase` may be the priority of the vertex being settled, which no
+     * priority added later can be below.  Takes time proportional to the size of the frontier, but
+     * only happens once per `Integer.MAX_VALUE / 2` of distance searched.
+     */
+    private void rebaseFrontier(long newBase) {
+        rebased.clear();
+        while (!frontier.isEmpty()) {
+            rebased.add(frontier.removeInt());
+        }
+        // Monotone queues refuse priorities below the last minimum they observed until cleared.
+        frontier.clear();
+        priorityBase = newBase;
+        for (int i = 0; i < rebased.size(); ++i) {
+            int id = rebased.get(i);
+            // Lazy frontiers may hold entries for vertices that have since been settled.
+            if (!marks.settled(id)) {
+                frontier.addOrUpdate(id, Math.toIntExact(distances.get(id) - priorityBase));
+            }
+        }
     }
 }
@@ -0,0 +1,67 @@
+package graph;
+
+
+/**
+ * The algorithms available to find shortest paths behind the `PathSolver` contract, selectable by
+ * name.  The system property named by `PROPERTY` overrides the engine chosen in code (e.g.
+ * `-Dgraph.engine=delta-stepping`), so that engines can be compared under real workloads without
+ * rebuilding.
+ */
+public enum SolverEngine {
+
+    /**
+     * Dijkstra's algorithm on the calling thread (`ShortestPaths`), with the frontier chosen by
+     * `FrontierStrategy.AUTO` unless overridden by its system property.  The fastest engine on one
+     * or a few processors.
+     */
+    DIJKSTRA {
+        @Override
+        public <VertexType extends Vertex<EdgeType>, EdgeType extends Edge> PathSolver make(
+                Graph<VertexType> graph, Weigher<EdgeType> weigher) {
+            return new ShortestPaths<>(graph, weigher,
+                    FrontierStrategy.configured(FrontierStrategy.AUTO));
+        }
+    },
+
+    /**
+     * Delta-stepping on the common `ForkJoinPool` (`DeltaSteppingPaths`).  Settles a bucket of
+     * vertices at a time, so it only overtakes `DIJKSTRA` on large searches with many processors
+     * to share them (see `DeltaSteppingBenchmark`).  Requires the graph and weigher to be safe to
+     * query from several threads at once.
+     */
+    DELTA_STEPPING {
+        @Override
+        public <VertexType extends Vertex<EdgeType>, EdgeType extends Edge> PathSolver make(
+                Graph<VertexType> graph, Weigher<EdgeType> weigher) {
+            return new DeltaSteppingPaths<>(graph, weigher);
+        }
+    };
+
+    /**
+     * The name of the system property that overrides the engine chosen in code.  Its value is the
+     * name of a constant of this enum, ignoring case, with '-' accepted in place of '_'.
+     */
+    public static final String PROPERTY = "graph.engine";
+
+    /**
+     * Return a new solver for paths in `graph` whose edge weights are determined by `weigher`.
+     */
+    public abstract <VertexType extends Vertex<EdgeType>, EdgeType extends Edge> PathSolver make(
+            Graph<VertexType> graph, Weigher<EdgeType> weigher);
+
+    /**
+     * Return the engine named by the system property `PROPERTY`, or `fallback` if that property is
+     * not set.  Throws IllegalArgumentException if the property does not name an engine.
+     */
+    public static SolverEngine configured(SolverEngine fallback) {
+        return EnumProperty.configured(SolverEngine.class, PROPERTY, fallback);
+    }
+
+    /**
+     * Return the engine named `name`, ignoring case and accepting '-' in place of '_'.  Throws
+     * IllegalArgumentException if `name` does not name an engine.
+     */
+    public static SolverEngine parse(String name) {
+        return EnumProperty.parse(SolverEngine.class, name);
+    }
+}
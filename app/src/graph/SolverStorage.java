@@ -0,0 +1,76 @@
+package graph;
+
+
+/**
+ * Where a `ShortestPaths` solver keeps its distances, selectable by name.  The system property
+ * named by `PROPERTY` overrides the storage chosen in code (e.g. `-Dgraph.storage=off-heap`).
+ */
+public enum SolverStorage {
+
+    /**
+     * 32-bit distances on the heap, like `HEAP`, which move off the heap as 64-bit distances (see
+     * `OFF_HEAP`) the first time a search finds a distance beyond `Integer.MAX_VALUE`.  The number
+     * of vertices times the largest edge weight only bounds how long a path could be; most paths
+     * in large images are far shorter, so searches only pay for 64-bit distances once one actually
+     * overflows.  Searches that cannot overflow by that bound use `HEAP` directly.
+     */
+    AUTO {
+        @Override
+        DistanceStore distances(int vertexCount, int maxWeight) {
+            if ((long) vertexCount * maxWeight <= Integer.MAX_VALUE) {
+                return HEAP.distances(vertexCount, maxWeight);
+            }
+            return new WideningDistanceStore(vertexCount);
+        }
+    },
+
+    /**
+     * 32-bit distances in an array on the heap.  Compact, but a search throws ArithmeticException
+     * if it finds a distance beyond `Integer.MAX_VALUE`.
+     */
+    HEAP {
+        @Override
+        DistanceStore distances(int vertexCount, int maxWeight) {
+            return new IntDistanceStore(new int[vertexCount]);
+        }
+    },
+
+    /**
+     * 64-bit distances in direct buffers outside the heap (`OffHeapDistanceStore`), freed by
+     * `ShortestPaths.release()`.  Twice the size of `HEAP`, but distances never overflow.
+     */
+    OFF_HEAP {
+        @Override
+        DistanceStore distances(int vertexCount, int maxWeight) {
+            return new OffHeapDistanceStore(vertexCount);
+        }
+    };
+
+    /**
+     * The name of the system property that overrides the storage chosen in code.  Its value is the
+     * name of a constant of this enum, ignoring case, with '-' accepted in place of '_'.
+     */
+    public static final String PROPERTY = "graph.storage";
+
+    /**
+     * Return a new store for the distances of a search of `vertexCount` vertices whose edge
+     * weights are at most `maxWeight` (`Integer.MAX_VALUE` if unbounded).
+     */
+    abstract DistanceStore distances(int vertexCount, int maxWeight);
+
+    /**
+     * Return the storage named by the system property `PROPERTY`, or `fallback` if that property
+     * is not set.  Throws IllegalArgumentException if the property does not name a storage.
+     */
+    public static SolverStorage configured(SolverStorage fallback) {
+        return EnumProperty.configured(SolverStorage.class, PROPERTY, fallback);
+    }
+
+    /**
+     * Return the storage named `name`, ignoring case and accepting '-' in place of '_'.  Throws
+     * IllegalArgumentException if `name` does not name a storage.
+     */
+    public static SolverStorage parse(String name) {
+        return EnumProperty.parse(SolverStorage.class, name);
+    }
+}
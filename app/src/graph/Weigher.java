@@ -9,4 +9,13 @@ public interface Weigher<EdgeType extends Edge> {
      * Return the weight of the edge `edge`.
      */
     int weight(EdgeType edge);
+
+    /**
+     * Return an upper bound on the weight of any edge this weigher will be asked to weigh, or
+     * `Integer.MAX_VALUE` if no useful bound is known.  A small bound lets `ShortestPaths` order
+     * its frontier with buckets instead of a heap.
+     */
+    default int maxWeight() {
+        return Integer.MAX_VALUE;
+    }
 }
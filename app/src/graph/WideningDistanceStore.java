@@ -0,0 +1,75 @@
+package graph;
+
+/**
+ * A `DistanceStore` that holds 32-bit distances in an `int` array on the heap until a search stores
+ * a distance beyond `Integer.MAX_VALUE`, then moves them to an `OffHeapDistanceStore` for good.
+ * Costs 4 bytes per vertex (and a branch per access) unless paths are that long, so solvers for
+ * large graphs only pay for 64-bit distances if their searches actually need them.
+ */
+final class WideningDistanceStore implements DistanceStore {
+
+    /**
+     * The distances while they fit in an `int`, or null once they have been widened.
+     */
+    private int[] narrow;
+
+    /**
+     * The distances once they have been widened, or null before.
+     */
+    private OffHeapDistanceStore wide;
+
+    /**
+     * Create a store of `length` entries, each initially 0.
+     */
+    WideningDistanceStore(int length) {
+        narrow = new int[length];
+    }
+
+    /**
+     * Return whether this store has moved its distances off the heap.
+     */
+    boolean widened() {
+        return wide != null;
+    }
+
+    @Override
+    public long length() {
+        return (wide != null) ? wide.length() : narrow.length;
+    }
+
+    @Override
+    public long get(long index) {
+        return (wide != null) ? wide.get(index) : narrow[(int) index];
+    }
+
+    @Override
+    public void set(long index, long distance) {
+        if (wide == null) {
+            if (distance <= Integer.MAX_VALUE) {
+                narrow[(int) index] = (int) distance;
+                return;
+            }
+            widen();
+        }
+        wide.set(index, distance);
+    }
+
+    @Override
+    public void close() {
+        if (wide != null) {
+            wide.close();
+        }
+    }
+
+    /**
+     * Copy our distances to a new `OffHeapDistanceStore` and drop the array.
+     */
+    private void widen() {
+        OffHeapDistanceStore store = new OffHeapDistanceStore(narrow.length);
+        for (int i = 0; i < narrow.length; ++i) {
+            store.set(i, narrow[i]);
+        }
+        wide = store;
+        narrow = null;
+    }
+}
@@ -0,0 +1,240 @@
+package scissors;
+
+import graph.BoundedDegreeGraph;
+import graph.IntEdgeVisitor;
+import graph.Weigher;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A view of the pixels of an `ImageGraph` inside a union of rectangles (a corridor), re-indexed so
+ * that their IDs run from 0 to the number of pixels in the corridor, row by row.  Unlike an
+ * `ImageSubgraph` of the corridor's bounding box, a solver for the view sizes its arrays to the
+ * corridor itself, so a diagonal corridor across a huge image costs no more than a straight one
+ * of the same length.
+ * <p>
+ * The corridor is stored as runs of consecutive pixels in each row, so that the view takes memory
+ * proportional to its pixels plus the height of its bounding box.  Edges are those of the image's
+ * graph between pixels inside the corridor, with the same directions, weighed by a weigher for
+ * the image's graph.  As with `ImageSubgraph`, only `forEachNeighbor()` speaks in local IDs, and
+ * visiting edges reuses a single visitor, so a view must not be searched by more than one thread
+ * at a time.
+ */
+final class CorridorGraph implements BoundedDegreeGraph<ImageVertex, ImageEdge> {
+
+    /**
+     * The graph we are a view of.
+     */
+    private final ImageGraph graph;
+
+    /**
+     * The first row of the image holding any of our pixels.
+     */
+    private final int y0;
+
+    /**
+     * The runs of row `y0 + r` are those with indices `[rowRuns[r]..rowRuns[r+1])`, left to right.
+     */
+    private final int[] rowRuns;
+
+    /**
+     * Run `i` covers the pixels `[runStarts[i]..runEnds[i])` of its row, whose local IDs start at
+     * `runIds[i]`.
+     */
+    private final int[] runStarts;
+    private final int[] runEnds;
+    private final int[] runIds;
+
+    /**
+     * `globalIds[id]` is `graph`'s ID for our pixel with ID `id`.
+     */
+    private final int[] globalIds;
+
+    /**
+     * The image coordinates of the pixel whose edges are being visited, and the visitor being
+     * forwarded the edges that stay inside our corridor.
+     */
+    private int visitingX;
+    private int visitingY;
+    private IntEdgeVisitor inside;
+
+    /**
+     * Forwards the edges visited by `graph` that stay inside our corridor to `inside`, with local
+     * IDs.  Created once so that visiting a pixel's edges allocates nothing.
+     */
+    private final IntEdgeVisitor localizer;
+
+    /**
+     * Create a view of the pixels of `graph` inside any of `blocks`, clipped to the image.  Throws
+     * IllegalArgumentException if no block overlaps the image.
+     */
+    CorridorGraph(ImageGraph graph, List<Rectangle> blocks) {
+        Rectangle image = new Rectangle(graph.width(), graph.height());
+        List<Rectangle> clipped = new ArrayList<>(blocks.size());
+        Rectangle bounds = null;
+        for (Rectangle block : blocks) {
+            Rectangle b = block.intersection(image);
+            if (!b.isEmpty()) {
+                clipped.add(b);
+                bounds = (bounds == null) ? b : bounds.union(b);
+            }
+        }
+        if (bounds == null) {
+            throw new IllegalArgumentException("No pixels in " + blocks);
+        }
+        this.graph = graph;
+        y0 = bounds.y;
+
+        // Gather each row's spans from the blocks, as (start, end) packed so they sort by start.
+        int[] spanCounts = new int[bounds.height + 1];
+        for (Rectangle b : clipped) {
+            for (int y = b.y; y < b.y + b.height; ++y) {
+                spanCounts[y - y0 + 1] += 1;
+            }
+        }
+        for (int r = 0; r < bounds.height; ++r) {
+            spanCounts[r + 1] += spanCounts[r];
+        }
+        long[] spans = new long[spanCounts[bounds.height]];
+        int[] filled = Arrays.copyOf(spanCounts, bounds.height);
+        for (Rectangle b : clipped) {
+            for (int y = b.y; y < b.y + b.height; ++y) {
+                spans[filled[y - y0]++] = ((long) b.x << 32) | (b.x + b.width);
+            }
+        }
+
+        // Merge each row's overlapping or touching spans into runs.
+        rowRuns = new int[bounds.height + 1];
+        int[] starts = new int[spans.length];
+        int[] ends = new int[spans.length];
+        int[] ids = new int[spans.length];
+        int runCount = 0;
+        int pixelCount = 0;
+        for (int r = 0; r < bounds.height; ++r) {
+            Arrays.sort(spans, spanCounts[r], spanCounts[r + 1]);
+            rowRuns[r] = runCount;
+            for (int i = spanCounts[r]; i < spanCounts[r + 1]; ++i) {
+                int start = (int) (spans[i] >>> 32);
+                int end = (int) spans[i];
+                if (runCount > rowRuns[r] && start <= ends[runCount - 1]) {
+                    int extended = Math.max(ends[runCount - 1], end);
+                    pixelCount += extended - ends[runCount - 1];
+                    ends[runCount - 1] = extended;
+                } else {
+                    starts[runCount] = start;
+                    ends[runCount] = end;
+                    ids[runCount] = pixelCount;
+                    pixelCount += end - start;
+                    runCount += 1;
+                }
+            }
+        }
+        rowRuns[bounds.height] = runCount;
+        runStarts = Arrays.copyOf(starts, runCount);
+        runEnds = Arrays.copyOf(ends, runCount);
+        runIds = Arrays.copyOf(ids, runCount);
+
+        globalIds = new int[pixelCount];
+        for (int r = 0; r < bounds.height; ++r) {
+            for (int i = rowRuns[r]; i < rowRuns[r + 1]; ++i) {
+                int rowStart = (y0 + r) * graph.width();
+                for (int x = runStarts[i]; x < runEnds[i]; ++x) {
+                    globalIds[runIds[i] + x - runStarts[i]] = rowStart + x;
+                }
+            }
+        }
+
+        localizer = (endId, dir, weight) -> {
+            int id = localIdAt(visitingX + ImageGraph.DX[dir], visitingY + ImageGraph.DY[dir]);
+            if (id >= 0) {
+                inside.visit(id, dir, weight);
+            }
+        };
+    }
+
+    /**
+     * Return whether the pixel of `graph` with ID `globalId` is inside our corridor.
+     */
+    boolean contains(int globalId) {
+        return localId(globalId) >= 0;
+    }
+
+    /**
+     * Return our ID for the pixel of `graph` with ID `globalId`, or -1 if it is outside our
+     * corridor.
+     */
+    int localId(int globalId) {
+        int y = globalId / graph.width();
+        return localIdAt(globalId - y * graph.width(), y);
+    }
+
+    /**
+     * Return `graph`'s ID for our pixel with ID `localId`.
+     */
+    int globalId(int localId) {
+        return globalIds[localId];
+    }
+
+    /**
+     * Return the sequence of `graph`'s IDs for our pixels whose IDs are in `localPath`.
+     */
+    List<Integer> toGlobal(List<Integer> localPath) {
+        List<Integer> path = new ArrayList<>(localPath.size());
+        for (int id : localPath) {
+            path.add(globalId(id));
+        }
+        return path;
+    }
+
+    /**
+     * Return our ID for the pixel at (`x`, `y`) in `graph`'s image, or -1 if it is outside our
+     * corridor.  Rows of a corridor hold few runs, so they are scanned rather than searched.
+     */
+    private int localIdAt(int x, int y) {
+        int r = y - y0;
+        if (r < 0 || r >= rowRuns.length - 1) {
+            return -1;
+        }
+        for (int i = rowRuns[r]; i < rowRuns[r + 1] && x >= runStarts[i]; ++i) {
+            if (x < runEnds[i]) {
+                return runIds[i] + (x - runStarts[i]);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int vertexCount() {
+        return globalIds.length;
+    }
+
+    @Override
+    public ImageVertex getVertex(int id) {
+        return graph.getVertex(globalId(id));
+    }
+
+    /**
+     * Visit the edges leaving our pixel with ID `id` that end inside our corridor, passing their
+     * ends' local IDs.  `weigher` must weigh the edges of `graph`.
+     */
+    @Override
+    public void forEachNeighbor(int id, Weigher<ImageEdge> weigher, IntEdgeVisitor visitor) {
+        int globalId = globalId(id);
+        visitingY = globalId / graph.width();
+        visitingX = globalId - visitingY * graph.width();
+        inside = visitor;
+        graph.forEachNeighbor(globalId, weigher, localizer);
+    }
+
+    @Override
+    public int directionCount() {
+        return graph.directionCount();
+    }
+
+    @Override
+    public int startIdOf(int endId, int dir) {
+        return localId(graph.startIdOf(globalId(endId), dir));
+    }
+}
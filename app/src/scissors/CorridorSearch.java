@@ -0,0 +1,76 @@
+package scissors;
+
+import graph.ShortestPaths;
+import graph.Weigher;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds shortest paths in an `ImageGraph` that stay inside a corridor around an approximate path
+ * found at half the resolution, as each level of an `ImagePyramid` refines the level above it.
+ * Each search runs in a `CorridorGraph` of the corridor's pixels alone, so it costs time and memory
+ * proportional to the corridor rather than to the image, or even to the corridor's bounding box
+ * (which, for a diagonal segment, is quadratic in its length).  Safe for use from any thread.
+ */
+final class CorridorSearch {
+
+    /**
+     * How far the corridor extends, in pixels of our graph, beyond the 2x2 block of pixels under
+     * each pixel of the coarse path.
+     */
+    static final int RADIUS = 2;
+
+    /**
+     * The graph being searched.
+     */
+    private final ImageGraph graph;
+
+    /**
+     * Weighs the edges of `graph`.
+     */
+    private final Weigher<ImageEdge> weigher;
+
+    /**
+     * Create a search for paths in `graph` weighed by `weigher`.
+     */
+    CorridorSearch(ImageGraph graph, Weigher<ImageEdge> weigher) {
+        this.graph = graph;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Return the sequence of pixel IDs along the shortest path from the pixel with ID `startId` to
+     * the pixel with ID `endId` in our graph that stays within `RADIUS` pixels of the 2x2 blocks
+     * under the pixels of `coarsePath`, a sequence of adjacent pixel IDs in `coarse`.  `coarse`
+     * must be our graph's image halved (see `ImagePyramid.halve()`), and `coarsePath` must start
+     * and end at the pixels covering `startId` and `endId`.
+     */
+    List<Integer> refine(ImageGraph coarse, List<Integer> coarsePath, int startId, int endId) {
+        List<Rectangle> blocks = new ArrayList<>(coarsePath.size());
+        for (int coarseId : coarsePath) {
+            blocks.add(coarseBlock(coarse, coarseId));
+        }
+        CorridorGraph corridor = new CorridorGraph(graph, blocks);
+        int localStart = corridor.localId(startId);
+        int localEnd = corridor.localId(endId);
+        assert localStart >= 0 && localEnd >= 0;
+
+        ShortestPaths<ImageVertex, ImageEdge> solver = new ShortestPaths<>(corridor, weigher);
+        solver.setStart(localStart);
+        // The blocks under adjacent coarse pixels are adjacent, so the corridor connects the ends.
+        boolean found = solver.settleUntil(localEnd);
+        assert found;
+        return corridor.toGlobal(solver.pathTo(localEnd));
+    }
+
+    /**
+     * Return the pixels of our graph within `RADIUS` of the 2x2 block under the pixel of `coarse`
+     * with ID `coarseId` (not clipped to our image).
+     */
+    private static Rectangle coarseBlock(ImageGraph coarse, int coarseId) {
+        int y = coarseId / coarse.width();
+        int x = coarseId - y * coarse.width();
+        return new Rectangle(2 * x - RADIUS, 2 * y - RADIUS, 2 + 2 * RADIUS, 2 + 2 * RADIUS);
+    }
+}
@@ -0,0 +1,127 @@
+package scissors;
+
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed weights of every edge in an ImageGraph, for weighers whose costs depend only on the
+ * image.  Weights must lie in [0..255] and be symmetric: the edge leaving a pixel in direction
+ * `dir` must weigh the same as the edge returning from its neighbor in direction `(dir + 4) % 8`.
+ * Only directions 0 through 3 are therefore stored, one byte each, so the table takes 4 bytes per
+ * pixel.
+ */
+final class CostTable {
+
+    /**
+     * Computes the weight of an edge given its starting pixel's location (`x`, `y`) and direction
+     * `dir`.
+     */
+    @FunctionalInterface
+    interface PixelCost {
+
+        int cost(int x, int y, int dir);
+    }
+
+    /**
+     * The number of image rows filled by each parallel task while building a table.
+     */
+    private static final int BAND_HEIGHT = 32;
+
+    /**
+     * The width and height of the image whose edges are weighed.
+     */
+    private final int width;
+    private final int height;
+
+    /**
+     * `costs[4*id + dir]` is the unsigned weight of the edge leaving the pixel with ID `id` in
+     * direction `dir`, for `dir` in [0..3].  Entries for edges leaving the image are 0.
+     */
+    private final byte[] costs;
+
+    /**
+     * `neighborOffsets[dir]` is the difference between the ID of a pixel's neighbor in direction
+     * `dir` and the pixel's own ID.
+     */
+    private final int[] neighborOffsets;
+
+    /**
+     * Create a table of the weights given by `cost` to every edge of a `width`x`height` ImageGraph,
+     * computing them in parallel over bands of rows.  `cost` must be safe to call concurrently and
+     * satisfy the class's requirements; it is only asked for directions 0 through 3.  Throws
+     * IllegalArgumentException if the image has too many pixels for their 4 bytes each to fit in
+     * an array.
+     */
+    CostTable(int width, int height, PixelCost cost) {
+        this.width = width;
+        this.height = height;
+        try {
+            costs = new byte[Math.toIntExact(Math.multiplyExact(4L, (long) width * height))];
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("A " + width + "x" + height
+                    + " image is too large for a cost table", e);
+        }
+        neighborOffsets = new int[]{1, 1 - width, -width, -1 - width, -1, -1 + width, width,
+                1 + width};
+
+        int bands = (height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+        IntStream.range(0, bands).parallel().forEach(band -> {
+            int yEnd = Math.min(height, (band + 1) * BAND_HEIGHT);
+            for (int y = band * BAND_HEIGHT; y < yEnd; ++y) {
+                fillRow(y, cost);
+            }
+        });
+    }
+
+    /**
+     * Store the weights of the edges leaving row `y` in directions 0 through 3.
+     */
+    private void fillRow(int y, PixelCost cost) {
+        boolean up = y > 0;
+        for (int x = 0; x < width; ++x) {
+            int i = 4 * (x + y * width);
+            boolean right = x + 1 < width;
+            boolean left = x > 0;
+            if (right) {
+                costs[i] = toByte(cost.cost(x, y, 0));
+            }
+            if (right && up) {
+                costs[i + 1] = toByte(cost.cost(x, y, 1));
+            }
+            if (up) {
+                costs[i + 2] = toByte(cost.cost(x, y, 2));
+            }
+            if (left && up) {
+                costs[i + 3] = toByte(cost.cost(x, y, 3));
+            }
+        }
+    }
+
+    /**
+     * Return `weight` as an unsigned byte.  Requires `weight` is in [0..255].
+     */
+    private static byte toByte(int weight) {
+        assert weight >= 0 && weight <= 255 : "Weight out of range: " + weight;
+        return (byte) weight;
+    }
+
+    /**
+     * Return the weight of the edge leaving the pixel with ID `id` in direction `dir`.  Requires
+     * that the neighbor in that direction is within the image.
+     */
+    int weight(int id, int dir) {
+        if (dir < 4) {
+            return costs[4 * id + dir] & 0xFF;
+        } else {
+            return costs[4 * (id + neighborOffsets[dir]) + dir - 4] & 0xFF;
+        }
+    }
+
+    /**
+     * Return the weight of the edge leaving the pixel at (`x`, `y`) in direction `dir`.  Requires
+     * that the neighbor in that direction is within the image.
+     */
+    int weight(int x, int y, int dir) {
+        assert x >= 0 && x < width && y >= 0 && y < height;
+        return weight(x + y * width, dir);
+    }
+}
@@ -0,0 +1,260 @@
+package scissors;
+
+import graph.BidirectionalShortestPaths;
+import graph.PathSolver;
+import graph.SettledPathTree;
+import graph.SolverEngine;
+import graph.Weigher;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The per-image state needed by the "intelligent scissors" algorithm: the image's `ImageGraph` and
+ * its weighers (which hold the grayscale raster and the precomputed `CostTable` for the image).
+ * Analyses are cached by image identity, so that every point added, undone, or moved, and every
+ * `ScissorsSelectionModel` created for the same image, shares one graph and one weigher per weight
+ * name.  Weighers are built on a background thread, never on the thread requesting them.
+ * <p>
+ * An analysis also keeps an idle solver of each kind per weight name, so that each click reuses
+ * the last click's solver (whose arrays span the whole image) instead of allocating a new one.
+ * Before a solver is reused, the paths it settled are kept in `PathTreeCache.shared`, so that
+ * returning to its starting point (e.g. by undoing a point) need not search again.
+ */
+final class ImageAnalysis {
+
+    /**
+     * The number of most-recently-used images whose analyses are kept.  Only one image is edited at
+     * a time, so this just needs to survive switching back and forth.
+     */
+    private static final int CAPACITY = 2;
+
+    /**
+     * Analyses of recently used images, in order of least to most recent use.  `BufferedImage` does
+     * not override `equals()`, so images are compared by identity.  Guarded by the class's lock.
+     */
+    private static final Map<BufferedImage, ImageAnalysis> cache =
+            new LinkedHashMap<>(CAPACITY + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<BufferedImage, ImageAnalysis> e) {
+                    if (size() > CAPACITY) {
+                        e.getValue().evictCachedPaths();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+
+    /**
+     * Builds weighers away from the EDT.  A single daemon thread suffices, since building a
+     * weigher's `CostTable` is itself parallel.
+     */
+    private static final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "scissors-image-analysis");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * The graph representation of the analyzed image.
+     */
+    private final ImageGraph graph;
+
+    /**
+     * `weighers.get(name)` completes with the weigher named `name` (as recognized by
+     * `ScissorsWeights`) for `graph`, once it has been built.  Guarded by this object's lock.
+     */
+    private final Map<String, CompletableFuture<Weigher<ImageEdge>>> weighers = new HashMap<>();
+
+    /**
+     * `idlePaths.get(name)` is a released solver using the weigher named `name`, if any.  One per
+     * name suffices: the live wire holds one solver while the next click's search prepares another,
+     * and the live wire's is released once the new one takes over.  Guarded by this object's lock.
+     */
+    private final Map<String, PathSolver> idlePaths = new HashMap<>();
+
+    /**
+     * `idleBidirectional.get(name)` is a released bidirectional solver using the weigher named
+     * `name`, if any.  Guarded by this object's lock.
+     */
+    private final Map<String, BidirectionalShortestPaths<ImageVertex, ImageEdge>>
+            idleBidirectional = new HashMap<>();
+
+    /**
+     * The coarse-to-fine view of the analyzed image, created on first use.  Guarded by this
+     * object's lock.
+     */
+    private ImagePyramid pyramid;
+
+    /**
+     * Create an analysis of `img` that is not cached, such as a level of an `ImagePyramid`.  Use
+     * `of()` to share analyses.
+     */
+    ImageAnalysis(BufferedImage img) {
+        graph = new ImageGraph(img);
+    }
+
+    /**
+     * Return the analysis of `img`, creating it if it is not cached.
+     */
+    static synchronized ImageAnalysis of(BufferedImage img) {
+        return cache.computeIfAbsent(img, ImageAnalysis::new);
+    }
+
+    /**
+     * Return the coarse-to-fine view of the analyzed image, whose levels are built once it is
+     * prepared (see `ImagePyramid.prepare()`).
+     */
+    synchronized ImagePyramid pyramid() {
+        if (pyramid == null) {
+            pyramid = new ImagePyramid(this, ImagePyramid.COARSE_PIXELS);
+        }
+        return pyramid;
+    }
+
+    /**
+     * Discard the paths cached from searches of our graph, or of our pyramid's levels, and release
+     * our idle solvers, once this analysis is no longer used.
+     */
+    private void evictCachedPaths() {
+        PathTreeCache.shared.evict(this);
+        ImagePyramid pyramid;
+        synchronized (this) {
+            pyramid = this.pyramid;
+            for (PathSolver idle : idlePaths.values()) {
+                idle.release();
+            }
+            idlePaths.clear();
+        }
+        if (pyramid != null) {
+            for (ImageAnalysis level : pyramid.levels()) {
+                PathTreeCache.shared.evict(level);
+            }
+        }
+    }
+
+    /**
+     * Return the graph representation of the analyzed image.
+     */
+    ImageGraph graph() {
+        return graph;
+    }
+
+    /**
+     * Return a future for the weigher named `weightName` for our graph, starting to build it in the
+     * background if that has not been started already.  The future fails with an
+     * IllegalArgumentException if `weightName` is not recognized by `ScissorsWeights`.
+     */
+    synchronized Future<Weigher<ImageEdge>> weigher(String weightName) {
+        return weighers.computeIfAbsent(weightName, name -> CompletableFuture.supplyAsync(
+                () -> ScissorsWeights.makeWeigher(name, graph), builder));
+    }
+
+    /**
+     * Start building everything a search with the weigher named `weightName` needs, without waiting
+     * for it: the weigher, and if `coarseToFine`, our pyramid's levels and their weighers.  Lets an
+     * image's preprocessing overlap with the rest of its loading, so may be called from any
+     * thread.
+     */
+    void prefetch(String weightName, boolean coarseToFine) {
+        weigher(weightName);
+        if (coarseToFine) {
+            ImagePyramid pyramid = pyramid();
+            // Halving the levels queues their weighers behind it, so it must not wait for them.
+            builder.execute(() -> pyramid.prefetch(weightName));
+        }
+    }
+
+    /**
+     * Return a solver for paths in our graph weighed by the weigher named `weightName`, reusing an
+     * idle one if possible.  Blocks until the weigher is built, so should not be called from the
+     * EDT.  The caller has exclusive use of the solver until passing it to `releasePaths()`.
+     */
+    PathSolver acquirePaths(String weightName) throws InterruptedException, ExecutionException {
+        Weigher<ImageEdge> weigher = weigher(weightName).get();
+        synchronized (this) {
+            PathSolver idle = idlePaths.remove(weightName);
+            if (idle != null) {
+                return idle;
+            }
+        }
+        // Dijkstra's algorithm beats delta-stepping on one thread and on searches the size of a
+        //  typical segment (see `DeltaSteppingBenchmark`).  Our weighers declare small maximum
+        //  weights, so its AUTO frontier picks the bucket queue (the fastest in
+        //  `FrontierBenchmark`), and keeps distances on the heap unless a path's distance actually
+        //  overflows an int; operators may still override the engine or either choice by system
+        //  property.
+        return SolverEngine.configured(SolverEngine.DIJKSTRA).make(graph, weigher);
+    }
+
+    /**
+     * Return `solver`, which was acquired from `acquirePaths(weightName)`, to be reused, or release
+     * its memory if an idle solver is already kept for that weight name.  The caller must not use
+     * it again.
+     */
+    synchronized void releasePaths(String weightName, PathSolver solver) {
+        if (idlePaths.putIfAbsent(weightName, solver) != null) {
+            solver.release();
+        }
+    }
+
+    /**
+     * Return `solver`, which was acquired from `acquirePaths(weightName)`, to be reused once the
+     * paths it has settled are cached (see `cachedPaths()`).  That copy is made in the background
+     * while holding `solver`'s lock, so this may be called from the EDT while another thread
+     * finishes extending `solver` under that lock, as long as that thread checks under the lock
+     * that `solver` is still wanted before extending it again.  The caller must not use `solver`
+     * again.
+     */
+    void retirePaths(String weightName, PathSolver solver) {
+        builder.execute(() -> {
+            SettledPathTree settled;
+            synchronized (solver) {
+                settled = solver.settledTree();
+            }
+            PathTreeCache.shared.put(this, weightName, settled);
+            releasePaths(weightName, solver);
+        });
+    }
+
+    /**
+     * Return the cached paths from the pixel with ID `startId` settled by a retired solver using
+     * the weigher named `weightName`, or null if there are none.
+     */
+    SettledPathTree cachedPaths(String weightName, int startId) {
+        return PathTreeCache.shared.get(this, weightName, startId);
+    }
+
+    /**
+     * Return a bidirectional solver for paths in our graph weighed by the weigher named
+     * `weightName`, reusing an idle one if possible.  Blocks until the weigher is built.  The
+     * caller has exclusive use of the solver until passing it to `releaseBidirectional()`.
+     */
+    BidirectionalShortestPaths<ImageVertex, ImageEdge> acquireBidirectional(String weightName)
+            throws InterruptedException, ExecutionException {
+        Weigher<ImageEdge> weigher = weigher(weightName).get();
+        synchronized (this) {
+            BidirectionalShortestPaths<ImageVertex, ImageEdge> idle =
+                    idleBidirectional.remove(weightName);
+            if (idle != null) {
+                return idle;
+            }
+        }
+        return new BidirectionalShortestPaths<>(graph, weigher);
+    }
+
+    /**
+     * Return `solver`, which was acquired from `acquireBidirectional(weightName)`, to be reused.
+     * The caller must not use it again.
+     */
+    synchronized void releaseBidirectional(String weightName,
+            BidirectionalShortestPaths<ImageVertex, ImageEdge> solver) {
+        idleBidirectional.putIfAbsent(weightName, solver);
+    }
+}
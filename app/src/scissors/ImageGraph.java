@@ -1,8 +1,11 @@
 package scissors;
 
+import graph.BidirectionalGraph;
+import graph.BoundedDegreeGraph;
 import graph.Edge;
-import graph.Graph;
+import graph.IntEdgeVisitor;
 import graph.Vertex;
+import graph.Weigher;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.awt.image.Raster;
@@ -16,7 +19,36 @@ import selector.PolyLine;
  * their neighboring pixels (including diagonals).  Edges are interpreted as connecting pixel
  * centers and are aware of their length and direction within the image.
  */
-class ImageGraph implements Graph<ImageVertex> {
+class ImageGraph implements BidirectionalGraph<ImageVertex, ImageEdge>,
+        BoundedDegreeGraph<ImageVertex, ImageEdge> {
+
+    /**
+     * Column and row offsets of the neighbor in each direction (0 is right, 2 is up).
+     */
+    static final int[] DX = {1, 1, 0, -1, -1, -1, 0, 1};
+    static final int[] DY = {0, -1, -1, -1, 0, 1, 1, 1};
+
+    /**
+     * `BORDER_MASKS[b]` has bit `dir` set if the neighbor in direction `dir` is within the image
+     * for a pixel touching the borders flagged in `b` (see `borderFlags()`).
+     */
+    private static final int[] BORDER_MASKS = new int[16];
+
+    static {
+        for (int b = 0; b < 16; ++b) {
+            boolean right = (b & 1) == 0;
+            boolean up = (b & 2) == 0;
+            boolean left = (b & 4) == 0;
+            boolean down = (b & 8) == 0;
+            boolean[] valid = {right, right && up, up, left && up, left, left && down, down,
+                    right && down};
+            for (int dir = 0; dir < 8; ++dir) {
+                if (valid[dir]) {
+                    BORDER_MASKS[b] |= 1 << dir;
+                }
+            }
+        }
+    }
 
     /**
      * The image we are providing a graph structure for.
@@ -24,24 +56,45 @@ class ImageGraph implements Graph<ImageVertex> {
     private final BufferedImage img;
 
     /**
-     * Create a new ImageGraph to provide a graph structure over the image `img`.
+     * The dimensions of `img`, cached since `forEachNeighbor()` needs them for every vertex.
+     */
+    private final int width;
+    private final int height;
+
+    /**
+     * `neighborOffsets[dir]` is the difference between the ID of a pixel's neighbor in direction
+     * `dir` and the pixel's own ID.
+     */
+    private final int[] neighborOffsets;
+
+    /**
+     * Create a new ImageGraph to provide a graph structure over the image `img`.  Throws
+     * IllegalArgumentException if `img` has too many pixels for `int` IDs.
      */
     public ImageGraph(BufferedImage img) {
+        if ((long) img.getWidth() * img.getHeight() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many pixels for int IDs: " + img.getWidth()
+                    + "x" + img.getHeight());
+        }
         this.img = img;
+        width = img.getWidth();
+        height = img.getHeight();
+        neighborOffsets = new int[]{1, 1 - width, -width, -1 - width, -1, -1 + width, width,
+                1 + width};
     }
 
     /**
      * Return the width of our image (the number of pixels in one row).
      */
     public int width() {
-        return img.getWidth();
+        return width;
     }
 
     /**
      * Return the height of our image (the number of pixels in one column).
      */
     public int height() {
-        return img.getHeight();
+        return height;
     }
 
     @Override
@@ -57,6 +110,96 @@ class ImageGraph implements Graph<ImageVertex> {
         return new ImageVertex(this, x, y);
     }
 
+    /**
+     * Visit the edges leaving the pixel with ID `id` in increasing order of direction (0 is right,
+     * 2 is up; see `ImageVertex`).  If `weigher` is a `PixelWeigher`, no objects are allocated.
+     */
+    @Override
+    public void forEachNeighbor(int id, Weigher<ImageEdge> weigher, IntEdgeVisitor visitor) {
+        assert id >= 0 && id < vertexCount();
+        int y = id / width;
+        int x = id - y * width;
+        int mask = BORDER_MASKS[borderFlags(x, y)];
+        if (weigher instanceof ScissorsWeights.PixelWeigher pixelWeigher) {
+            for (int dir = 0; dir < 8; ++dir) {
+                if ((mask & (1 << dir)) != 0) {
+                    visitor.visit(id + neighborOffsets[dir], dir, pixelWeigher.weight(x, y, dir));
+                }
+            }
+        } else {
+            for (int dir = 0; dir < 8; ++dir) {
+                if ((mask & (1 << dir)) != 0) {
+                    int endId = id + neighborOffsets[dir];
+                    visitor.visit(endId, dir, weigher.weight(new ImageEdge(id, endId, dir)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Return 8, the number of directions from a pixel to its neighbors.
+     */
+    @Override
+    public int directionCount() {
+        return 8;
+    }
+
+    /**
+     * Return the ID of the pixel whose neighbor in direction `dir` is the pixel with ID `endId`.
+     */
+    @Override
+    public int startIdOf(int endId, int dir) {
+        return endId - neighborOffsets[dir];
+    }
+
+    /**
+     * Visit the edges entering the pixel with ID `id`, one from each neighbor within the image, in
+     * increasing order of the direction from `id` to that neighbor.  The edge from a neighbor in
+     * direction `dir` leaves that neighbor in the opposite direction, `(dir + 4) % 8`.  If `weigher`
+     * is a `PixelWeigher`, no objects are allocated.
+     */
+    @Override
+    public void forEachIncoming(int id, Weigher<ImageEdge> weigher, IntEdgeVisitor visitor) {
+        assert id >= 0 && id < vertexCount();
+        int y = id / width;
+        int x = id - y * width;
+        int mask = BORDER_MASKS[borderFlags(x, y)];
+        ScissorsWeights.PixelWeigher pixelWeigher =
+                (weigher instanceof ScissorsWeights.PixelWeigher pw) ? pw : null;
+        for (int dir = 0; dir < 8; ++dir) {
+            if ((mask & (1 << dir)) != 0) {
+                int startId = id + neighborOffsets[dir];
+                int reverseDir = (dir + 4) & 7;
+                int weight = (pixelWeigher != null)
+                        ? pixelWeigher.weight(x + DX[dir], y + DY[dir], reverseDir)
+                        : weigher.weight(new ImageEdge(startId, id, reverseDir));
+                visitor.visit(startId, reverseDir, weight);
+            }
+        }
+    }
+
+    /**
+     * Return which borders of the image the pixel at (`x`, `y`) lies on, as an index into
+     * `BORDER_MASKS`: bit 0 for the right border, 1 for the top, 2 for the left, and 3 for the
+     * bottom.
+     */
+    private int borderFlags(int x, int y) {
+        int flags = 0;
+        if (x == width - 1) {
+            flags |= 1;
+        }
+        if (y == 0) {
+            flags |= 2;
+        }
+        if (x == 0) {
+            flags |= 4;
+        }
+        if (y == height - 1) {
+            flags |= 8;
+        }
+        return flags;
+    }
+
     /**
      * Return the ID of the vertex at pixel location `p`.  Requires `p` is within the bounds of the
      * image.
@@ -76,6 +219,13 @@ class ImageGraph implements Graph<ImageVertex> {
         return new ImageVertex(this, p.x, p.y);
     }
 
+    /**
+     * Return the image we provide a graph structure for.
+     */
+    public BufferedImage image() {
+        return img;
+    }
+
     /**
      * Return the Raster backing our image.  This is convenient for querying the brightness of
      * pixels in different color bands.
@@ -0,0 +1,243 @@
+package scissors;
+
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import selector.PolyLine;
+
+/**
+ * A multi-resolution view of an image for coarse-to-fine "intelligent scissors": the image's
+ * analysis, followed by analyses of the image halved repeatedly until it has no more than a given
+ * number of pixels.  Searching the coarsest level gives an approximate live wire almost at once,
+ * even for huge images; a committed segment is then refined one level at a time, each level only
+ * searching a narrow corridor around the path found at the level above (see `CorridorSearch`).
+ * The refined path is the shortest within those corridors, which is usually, but not always, the
+ * shortest in the whole image (see `PyramidBenchmark`).
+ * <p>
+ * Levels are built by `prepare()`, which should be called off the EDT; the other methods require
+ * that it has been called, and are meant for the EDT.
+ */
+final class ImagePyramid {
+
+    /**
+     * The prefix that selects coarse-to-fine mode when prepended to a weight name given to
+     * `ScissorsSelectionModel`, e.g. "Pyramid:CrossGradMono".
+     */
+    static final String PREFIX = "Pyramid:";
+
+    /**
+     * The default size of the coarsest level, which is searched in full by the live wire.  A
+     * search this size settles in a few tens of milliseconds (see `FrontierBenchmark`).
+     */
+    static final int COARSE_PIXELS = 1 << 18;
+
+    /**
+     * The analysis of the full-resolution image.
+     */
+    private final ImageAnalysis full;
+
+    /**
+     * The largest number of pixels the coarsest level may have.
+     */
+    private final int maxCoarsePixels;
+
+    /**
+     * `levels.get(l)` is the analysis of the image halved `l` times, starting with `full`.  An
+     * unmodifiable list, or null until built (under this object's lock) by `prepare()`.
+     */
+    private volatile List<ImageAnalysis> levels;
+
+    /**
+     * `searches.get(name)[l]` refines paths into level `l` with the weigher named `name`, for `l`
+     * below the coarsest level.
+     */
+    private final Map<String, CorridorSearch[]> searches = new ConcurrentHashMap<>();
+
+    /**
+     * Create a pyramid over the image analyzed by `full`, whose coarsest level has at most
+     * `maxCoarsePixels` pixels.  Requires `maxCoarsePixels` is positive.
+     */
+    ImagePyramid(ImageAnalysis full, int maxCoarsePixels) {
+        if (maxCoarsePixels <= 0) {
+            throw new IllegalArgumentException("Invalid coarse size: " + maxCoarsePixels);
+        }
+        this.full = full;
+        this.maxCoarsePixels = maxCoarsePixels;
+    }
+
+    /**
+     * Build our levels, if not yet built, along with their weighers named `weightName` and the
+     * searches that refine paths between them.  Blocks until they are built, so should not be
+     * called from the EDT.
+     */
+    void prepare(String weightName) throws InterruptedException, ExecutionException {
+        List<ImageAnalysis> levels = buildLevels();
+        if (!searches.containsKey(weightName)) {
+            CorridorSearch[] refiners = new CorridorSearch[levels.size() - 1];
+            for (int l = 0; l < refiners.length; ++l) {
+                ImageAnalysis level = levels.get(l);
+                refiners[l] = new CorridorSearch(level.graph(), level.weigher(weightName).get());
+            }
+            levels.getLast().weigher(weightName).get();
+            searches.putIfAbsent(weightName, refiners);
+        }
+    }
+
+    /**
+     * Build our levels, if not yet built, and start building their weighers named `weightName`
+     * without waiting for them, so that a later `prepare()` finds them ready or nearly so.
+     */
+    void prefetch(String weightName) {
+        for (ImageAnalysis level : buildLevels()) {
+            level.weigher(weightName);
+        }
+    }
+
+    /**
+     * Return our levels, building them if this is the first call.
+     */
+    private synchronized List<ImageAnalysis> buildLevels() {
+        if (levels == null) {
+            List<ImageAnalysis> built = new ArrayList<>();
+            built.add(full);
+            ImageGraph graph = full.graph();
+            while (graph.vertexCount() > maxCoarsePixels && graph.vertexCount() > 1) {
+                ImageAnalysis halved = new ImageAnalysis(halve(graph.image()));
+                built.add(halved);
+                graph = halved.graph();
+            }
+            levels = List.copyOf(built);
+        }
+        return levels;
+    }
+
+    /**
+     * Return the analyses of our levels, from the full-resolution image to the coarsest, or an
+     * empty list if we have not been prepared.
+     */
+    List<ImageAnalysis> levels() {
+        List<ImageAnalysis> levels = this.levels;
+        return (levels != null) ? levels : List.of();
+    }
+
+    /**
+     * Return the analysis of our coarsest level.
+     */
+    ImageAnalysis coarsest() {
+        return levels.getLast();
+    }
+
+    /**
+     * Return the ID of the pixel in our coarsest level that covers the full-resolution pixel with
+     * ID `id`.
+     */
+    int coarseId(int id) {
+        return idAtLevel(id, levelCount() - 1);
+    }
+
+    /**
+     * Return a polyline approximating the path along the coarsest level's pixels whose IDs are in
+     * `coarsePath` at full resolution, from `start` to `end` (the full-resolution points the
+     * path's ends cover).
+     */
+    PolyLine toFullResolution(List<Integer> coarsePath, Point start, Point end) {
+        int shift = levelCount() - 1;
+        ImageGraph coarse = coarsest().graph();
+        ImageGraph graph = full.graph();
+        PolyLineBuffer buffer = new PolyLineBuffer(coarsePath.size() + 2);
+        buffer.append(start);
+        for (int i = 1; i < coarsePath.size() - 1; ++i) {
+            int id = coarsePath.get(i);
+            int y = id / coarse.width();
+            int x = id - y * coarse.width();
+            // The center of the block of pixels covered by the coarse pixel
+            buffer.append(Math.min((x << shift) + (1 << shift) / 2, graph.width() - 1),
+                    Math.min((y << shift) + (1 << shift) / 2, graph.height() - 1));
+        }
+        buffer.append(end);
+        return buffer.toPolyLine();
+    }
+
+    /**
+     * Return the sequence of full-resolution pixel IDs along a path from the pixel with ID
+     * `startId` to the pixel with ID `endId`, refined level by level from `coarsePath`, the
+     * sequence of pixel IDs along a path in our coarsest level from the pixel covering `startId`
+     * to the pixel covering `endId`.  Requires that we have been prepared for `weightName`.  Safe
+     * to call from any thread, though refinements with the same weigher run one at a time.
+     */
+    List<Integer> refine(String weightName, List<Integer> coarsePath, int startId, int endId) {
+        CorridorSearch[] refiners = searches.get(weightName);
+        if (refiners == null) {
+            throw new IllegalStateException("Not prepared for weigher " + weightName);
+        }
+        // A cancelled worker may still be refining while its successor starts
+        synchronized (refiners) {
+            List<Integer> path = coarsePath;
+            for (int l = refiners.length - 1; l >= 0; --l) {
+                path = refiners[l].refine(levels.get(l + 1).graph(), path, idAtLevel(startId, l),
+                        idAtLevel(endId, l));
+            }
+            return path;
+        }
+    }
+
+    /**
+     * Return the number of levels we have been prepared with.
+     */
+    private int levelCount() {
+        return levels.size();
+    }
+
+    /**
+     * Return the ID of the pixel in level `level` that covers the full-resolution pixel with ID
+     * `id`.
+     */
+    private int idAtLevel(int id, int level) {
+        int width = full.graph().width();
+        int y = id / width;
+        int x = id - y * width;
+        return (y >> level) * levelWidth(level) + (x >> level);
+    }
+
+    /**
+     * Return the width of level `level`.
+     */
+    private int levelWidth(int level) {
+        return levels.get(level).graph().width();
+    }
+
+    /**
+     * Return a copy of `img` with half its width and height (rounded up), each of whose pixels is
+     * the average color of the (up to) 2x2 block of `img`'s pixels it covers.
+     */
+    static BufferedImage halve(BufferedImage img) {
+        int width = img.getWidth();
+        int height = img.getHeight();
+        int halfWidth = (width + 1) / 2;
+        int halfHeight = (height + 1) / 2;
+        BufferedImage halved = new BufferedImage(halfWidth, halfHeight, BufferedImage.TYPE_INT_RGB);
+        int[] upper = new int[width];
+        int[] lower = new int[width];
+        int[] row = new int[halfWidth];
+        for (int y = 0; y < halfHeight; ++y) {
+            img.getRGB(0, 2 * y, width, 1, upper, 0, width);
+            img.getRGB(0, Math.min(2 * y + 1, height - 1), width, 1, lower, 0, width);
+            for (int x = 0; x < halfWidth; ++x) {
+                int right = Math.min(2 * x + 1, width - 1);
+                int rgb = 0;
+                for (int shift = 0; shift < 24; shift += 8) {
+                    int sum = ((upper[2 * x] >> shift) & 0xFF) + ((upper[right] >> shift) & 0xFF)
+                            + ((lower[2 * x] >> shift) & 0xFF) + ((lower[right] >> shift) & 0xFF);
+                    rgb |= ((sum + 2) / 4) << shift;
+                }
+                row[x] = rgb;
+            }
+            halved.setRGB(0, y, halfWidth, 1, row, 0, halfWidth);
+        }
+        return halved;
+    }
+}
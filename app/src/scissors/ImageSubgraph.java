@@ -0,0 +1,167 @@
+package scissors;
+
+import graph.BoundedDegreeGraph;
+import graph.IntEdgeVisitor;
+import graph.Weigher;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A view of the pixels of an `ImageGraph` inside a rectangle, re-indexed so that their IDs run
+ * from 0 to the rectangle's area (row by row, like `ImageGraph`'s).  A solver for the view sizes
+ * its arrays to the rectangle rather than to the whole image, so searches confined to a small
+ * region of a large image stay cheap to set up.  See `CorridorGraph` for regions that are not
+ * rectangles.
+ * <p>
+ * Edges are those of the image's graph between pixels inside the rectangle, with the same
+ * directions, weighed by a weigher for the image's graph: weights near the rectangle's border are
+ * exactly those of the whole image.  Only `forEachNeighbor()` speaks in local IDs; vertices from
+ * `getVertex()` are the image graph's own (whose IDs are global), which `ShortestPaths` never asks
+ * for, since we are an `IntGraph`.  Visiting edges reuses a single visitor, so a view must not be
+ * searched by more than one thread at a time.
+ */
+final class ImageSubgraph implements BoundedDegreeGraph<ImageVertex, ImageEdge> {
+
+    /**
+     * The graph we are a view of.
+     */
+    private final ImageGraph graph;
+
+    /**
+     * The location and dimensions of our rectangle in `graph`'s image.
+     */
+    private final int x0;
+    private final int y0;
+    private final int width;
+    private final int height;
+
+    /**
+     * `localOffsets[dir]` is the difference between the local ID of a pixel's neighbor in
+     * direction `dir` and the pixel's own local ID.
+     */
+    private final int[] localOffsets;
+
+    /**
+     * The local coordinates of the pixel whose edges are being visited, and the visitor being
+     * forwarded the edges that stay inside our rectangle.
+     */
+    private int visitingX;
+    private int visitingY;
+    private int visitingId;
+    private IntEdgeVisitor inside;
+
+    /**
+     * Forwards the edges visited by `graph` that stay inside our rectangle to `inside`, with local
+     * IDs.  Created once so that visiting a pixel's edges allocates nothing.
+     */
+    private final IntEdgeVisitor localizer;
+
+    /**
+     * Create a view of the pixels of `graph` inside `bounds`, clipped to the image.  Throws
+     * IllegalArgumentException if the clipped rectangle is empty.
+     */
+    ImageSubgraph(ImageGraph graph, Rectangle bounds) {
+        Rectangle clipped = bounds.intersection(new Rectangle(graph.width(), graph.height()));
+        if (clipped.isEmpty()) {
+            throw new IllegalArgumentException("No pixels in " + bounds);
+        }
+        this.graph = graph;
+        x0 = clipped.x;
+        y0 = clipped.y;
+        width = clipped.width;
+        height = clipped.height;
+        localOffsets = new int[8];
+        for (int dir = 0; dir < 8; ++dir) {
+            localOffsets[dir] = ImageGraph.DX[dir] + ImageGraph.DY[dir] * width;
+        }
+        localizer = (endId, dir, weight) -> {
+            int x = visitingX + ImageGraph.DX[dir];
+            int y = visitingY + ImageGraph.DY[dir];
+            if (x >= 0 && x < width && y >= 0 && y < height) {
+                inside.visit(visitingId + localOffsets[dir], dir, weight);
+            }
+        };
+    }
+
+    /**
+     * Return our rectangle, in the coordinates of `graph`'s image.
+     */
+    Rectangle bounds() {
+        return new Rectangle(x0, y0, width, height);
+    }
+
+    /**
+     * Return whether the pixel of `graph` with ID `globalId` is inside our rectangle.
+     */
+    boolean contains(int globalId) {
+        int y = globalId / graph.width();
+        int x = globalId - y * graph.width();
+        return x >= x0 && x < x0 + width && y >= y0 && y < y0 + height;
+    }
+
+    /**
+     * Return our ID for the pixel of `graph` with ID `globalId`, which must be inside our
+     * rectangle.
+     */
+    int localId(int globalId) {
+        assert contains(globalId);
+        int y = globalId / graph.width();
+        int x = globalId - y * graph.width();
+        return (y - y0) * width + (x - x0);
+    }
+
+    /**
+     * Return `graph`'s ID for our pixel with ID `localId`.
+     */
+    int globalId(int localId) {
+        int y = localId / width;
+        int x = localId - y * width;
+        return (y + y0) * graph.width() + (x + x0);
+    }
+
+    /**
+     * Return the sequence of `graph`'s IDs for our pixels whose IDs are in `localPath`.
+     */
+    List<Integer> toGlobal(List<Integer> localPath) {
+        List<Integer> path = new ArrayList<>(localPath.size());
+        for (int id : localPath) {
+            path.add(globalId(id));
+        }
+        return path;
+    }
+
+    @Override
+    public int vertexCount() {
+        return width * height;
+    }
+
+    @Override
+    public ImageVertex getVertex(int id) {
+        return graph.getVertex(globalId(id));
+    }
+
+    /**
+     * Visit the edges leaving our pixel with ID `id` that end inside our rectangle, passing their
+     * ends' local IDs.  `weigher` must weigh the edges of `graph`.
+     */
+    @Override
+    public void forEachNeighbor(int id, Weigher<ImageEdge> weigher, IntEdgeVisitor visitor) {
+        assert id >= 0 && id < vertexCount();
+        visitingY = id / width;
+        visitingX = id - visitingY * width;
+        visitingId = id;
+        inside = visitor;
+        graph.forEachNeighbor(globalId(id), weigher, localizer);
+    }
+
+    @Override
+    public int directionCount() {
+        return graph.directionCount();
+    }
+
+    @Override
+    public int startIdOf(int endId, int dir) {
+        return endId - localOffsets[dir];
+    }
+}
@@ -0,0 +1,126 @@
+package scissors;
+
+import graph.SettledPathTree;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache of the paths settled from points that were once committed, keyed by
+ * the image analysis, weight name, and starting pixel they were found for.  Undoing a point, or
+ * copying a model, returns to a point whose search was already done; its cached paths let the live
+ * wire answer at once wherever that search had reached.  Trees are stored as `SettledPathTree`s,
+ * and the least recently used are evicted whenever their total size would exceed a byte budget.
+ * Safe for use from any thread.
+ */
+final class PathTreeCache {
+
+    /**
+     * The system property overriding the shared cache's budget in bytes, e.g.
+     * `-Dscissors.pathCacheBytes=0` to disable caching.
+     */
+    static final String BUDGET_PROPERTY = "scissors.pathCacheBytes";
+
+    /**
+     * The shared cache's budget in bytes unless overridden by `BUDGET_PROPERTY`.  At about 1.1
+     * bytes per settled pixel, this holds a few full-image trees of a 12-megapixel image, or many
+     * of the neighborhoods typically settled by the live wire.
+     */
+    static final long DEFAULT_BUDGET = 64L << 20;
+
+    /**
+     * The cache shared by every `ScissorsSelectionModel`.
+     */
+    static final PathTreeCache shared = new PathTreeCache(Long.getLong(BUDGET_PROPERTY,
+            DEFAULT_BUDGET));
+
+    /**
+     * The key of a cached tree.  `ImageAnalysis` does not override `equals()`, so analyses are
+     * compared by identity.
+     */
+    private record Key(ImageAnalysis analysis, String weightName, int startId) {
+    }
+
+    /**
+     * The maximum total `byteSize()` of our trees.
+     */
+    private final long budget;
+
+    /**
+     * The cached trees, in order of least to most recent use.  Guarded by this object's lock.
+     */
+    private final Map<Key, SettledPathTree> trees = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The total `byteSize()` of `trees`' values.  Guarded by this object's lock.
+     */
+    private long size;
+
+    /**
+     * Create an empty cache holding trees totaling at most `budget` bytes.  Requires `budget` is
+     * non-negative.
+     */
+    PathTreeCache(long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Negative budget: " + budget);
+        }
+        this.budget = budget;
+    }
+
+    /**
+     * Return the cached tree of paths from the pixel with ID `startId` found in `analysis`'s graph
+     * with the weigher named `weightName`, or null if there is none.
+     */
+    synchronized SettledPathTree get(ImageAnalysis analysis, String weightName, int startId) {
+        return trees.get(new Key(analysis, weightName, startId));
+    }
+
+    /**
+     * Cache `tree`, which was found in `analysis`'s graph with the weigher named `weightName`,
+     * evicting the least recently used trees as needed to stay within our budget.  A tree already
+     * cached from the same start is kept instead if it has settled at least as many pixels.  Trees
+     * larger than our whole budget are not cached.
+     */
+    synchronized void put(ImageAnalysis analysis, String weightName, SettledPathTree tree) {
+        Key key = new Key(analysis, weightName, tree.start());
+        SettledPathTree old = trees.get(key);
+        if (old != null && old.settledCount() >= tree.settledCount()) {
+            return;
+        }
+        if (tree.byteSize() > budget) {
+            return;
+        }
+        if (old != null) {
+            trees.remove(key);
+            size -= old.byteSize();
+        }
+        Iterator<SettledPathTree> eldest = trees.values().iterator();
+        while (size + tree.byteSize() > budget) {
+            size -= eldest.next().byteSize();
+            eldest.remove();
+        }
+        trees.put(key, tree);
+        size += tree.byteSize();
+    }
+
+    /**
+     * Discard every tree found in `analysis`'s graph, which will no longer be used.
+     */
+    synchronized void evict(ImageAnalysis analysis) {
+        Iterator<Map.Entry<Key, SettledPathTree>> it = trees.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, SettledPathTree> e = it.next();
+            if (e.getKey().analysis() == analysis) {
+                size -= e.getValue().byteSize();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Return the total size in bytes of the cached trees.
+     */
+    synchronized long byteSize() {
+        return size;
+    }
+}
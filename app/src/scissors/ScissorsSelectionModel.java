@@ -2,17 +2,23 @@ package scissors;
 
 import static selector.SelectionModel.SelectionState.*;
 
+import graph.BidirectionalShortestPaths;
+import graph.PathSolver;
 import graph.PathfindingSnapshot;
-import graph.ShortestPaths;
+import graph.SettledPathTree;
 import java.awt.Point;
 import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
 import javax.swing.SwingWorker.StateValue;
 import selector.PolyLine;
@@ -21,12 +27,48 @@ import selector.SelectionModel;
 /**
  * Models a selection tool that connects each added point with a path determined by the "intelligent
  * scissors" algorithm using a configurable weight function.
+ * <p>
+ * In coarse-to-fine mode (selected by prefixing the weight name with `ImagePyramid.PREFIX`), the
+ * live wire follows paths found in a downsampled copy of the image, and each committed segment is
+ * refined to full resolution within a narrow corridor around that path (see `ImagePyramid`).  This
+ * keeps clicks responsive on very large images, at the cost of occasionally missing a shorter path
+ * outside the corridor.
  */
 public class ScissorsSelectionModel extends SelectionModel {
 
+    /**
+     * The number of pixels nearest to a newly committed point to settle in the background before
+     * handing the search over to the live wire.
+     */
+    private static final int INITIAL_SETTLE_COUNT = 10000;
+
+    /**
+     * The number of pixels `liveWire()` may settle per call before drawing the last live wire
+     * instead, leaving the rest of the search to `liveWireSettler`, so that a cursor jumping far
+     * from the last committed point does not stall painting.  Also the number of pixels settled
+     * in the background between checks for a newer target, cancellation, or progress.
+     */
+    private static final int SETTLE_BUDGET = 50000;
+
+    /**
+     * Extends `livePaths` towards the live wire's target once a call to `liveWire()` has exhausted
+     * its budget.  A single daemon thread suffices, since only the latest target matters.
+     */
+    private static final ExecutorService liveWireSettler = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "scissors-live-wire");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * The cached analysis of the current image being rendered and traced (null if inherited `img`
+     * is null).
+     */
+    private ImageAnalysis analysis;
+
     /**
      * The graph representation of the current image being rendered and traced (null if inherited
-     * `img` is null).
+     * `img` is null).  Always `analysis.graph()`.
      */
     private ImageGraph graph;
 
@@ -37,10 +79,52 @@ public class ScissorsSelectionModel extends SelectionModel {
     private String weightName;
 
     /**
-     * The shortest paths computed from the last committed point for the current image.  May be null
-     * if we are not in the SELECTING state.
+     * Whether paths are found coarse-to-fine in `pyramid` rather than in `graph` directly.
+     */
+    private boolean coarseToFine;
+
+    /**
+     * The coarse-to-fine view of the current image, which the live wire searches at its coarsest
+     * level.  Null unless `coarseToFine` (or if inherited `img` is null).
      */
-    private PathfindingSnapshot paths;
+    private ImagePyramid pyramid;
+
+    /**
+     * The resumable search for shortest paths from the last committed point, which is extended just
+     * far enough to answer each query (see `PathSolver.settleUntil()`): on the EDT within
+     * `SETTLE_BUDGET`, and beyond that by `liveWireSettler`, or by the worker committing the next
+     * segment.  Searches the coarsest level of `pyramid` if non-null, and `graph` otherwise.
+     * Non-null in the SELECTING state.  Written only on the EDT; the search itself is guarded by
+     * its own lock.
+     */
+    private volatile PathSolver livePaths;
+
+    /**
+     * The analysis that `livePaths` was acquired from, and must be retired to once it is replaced.
+     * May differ from `analysis` if the image has changed since.
+     */
+    private ImageAnalysis livePathsAnalysis;
+
+    /**
+     * Paths from the last committed point cached by an earlier search from it (e.g. before that
+     * point's successor was undone), which answer queries without extending `livePaths` wherever
+     * that search had reached.  Null if there were none.
+     */
+    private SettledPathTree cachedLivePaths;
+
+    /**
+     * The live wire last returned by `liveWire()`, which is drawn again while the search for a
+     * farther pixel continues in the background.  Null if none has been found from the last
+     * committed point.
+     */
+    private PolyLine lastLiveWire;
+
+    /**
+     * The ID of the vertex (in the graph searched by `livePaths`) that `liveWireSettler` is
+     * extending `livePaths` towards, or -1 if it is idle.  Written on the EDT, and reset there once
+     * the settler is done.
+     */
+    private volatile int liveWireTargetId = -1;
 
     /**
      * The most recent intermediate paths from the current shortest paths solve.  Null if no ongoing
@@ -65,25 +149,29 @@ public class ScissorsSelectionModel extends SelectionModel {
 
     /**
      * Create a `ScissorsSelectionModel` in which the "intelligent scissors" algorithm will use the
-     * weight function named `weightName` (as recognized by the `ScissorsWeights` factory). See
-     * `SelectionModel` for interpretation of `notifyOnEdt`.
+     * weight function named `weightName` (as recognized by the `ScissorsWeights` factory), in
+     * coarse-to-fine mode if it is prefixed by `ImagePyramid.PREFIX`.  See `SelectionModel` for
+     * interpretation of `notifyOnEdt`.
      */
     public ScissorsSelectionModel(String weightName, boolean notifyOnEdt) {
         super(notifyOnEdt);
-        this.weightName = weightName;
+        coarseToFine = weightName.startsWith(ImagePyramid.PREFIX);
+        this.weightName = weightName.substring(coarseToFine ? ImagePyramid.PREFIX.length() : 0);
     }
 
     /**
      * Create a `ScissorsSelectionModel` in which the "intelligent scissors" algorithm will use the
-     * weight function named `weightName` (as recognized by the `ScissorsWeights` factory).
-     * Initialize this model to represent the same selection of the same image as `copy` (but does
-     * not copy any listeners from `copy`).  See `SelectionModel` for thread restrictions.
+     * weight function named `weightName` (as recognized by the `ScissorsWeights` factory), in
+     * coarse-to-fine mode if it is prefixed by `ImagePyramid.PREFIX`.  Initialize this model to
+     * represent the same selection of the same image as `copy` (but does not copy any listeners
+     * from `copy`).  See `SelectionModel` for thread restrictions.
      */
     public ScissorsSelectionModel(String weightName, SelectionModel copy) {
         super(copy);
-        this.weightName = weightName;
+        coarseToFine = weightName.startsWith(ImagePyramid.PREFIX);
+        this.weightName = weightName.substring(coarseToFine ? ImagePyramid.PREFIX.length() : 0);
         if (image() != null) {
-            graph = new ImageGraph(image());
+            analyze(image());
         }
         if (state() == SELECTING) {
             findPaths(graph.idAt(lastPoint()));
@@ -116,12 +204,34 @@ public class ScissorsSelectionModel extends SelectionModel {
         // In addition to whatever our superclass does to set the image, we also need to replace our
         //  graph with one that represents the new image.
         if (img != null) {
-            graph = new ImageGraph(img);
+            analyze(img);
         } else {
+            analysis = null;
             graph = null;
+            pyramid = null;
         }
     }
 
+    /**
+     * Start analyzing `img` in the background: its weigher, and its pyramid in coarse-to-fine
+     * mode.  Safe to call from any thread, such as one still loading `img`.
+     */
+    @Override
+    public void prepareImage(BufferedImage img) {
+        ImageAnalysis.of(img).prefetch(weightName, coarseToFine);
+    }
+
+    /**
+     * Look up (or start) the analysis of `img` and use its graph, so that its weigher starts being
+     * built in the background before the first point is added.
+     */
+    private void analyze(BufferedImage img) {
+        analysis = ImageAnalysis.of(img);
+        graph = analysis.graph();
+        analysis.weigher(weightName);
+        pyramid = coarseToFine ? analysis.pyramid() : null;
+    }
+
     @Override
     protected void startSelection(Point start) {
         // Overridden to do processing when selection has been started
@@ -149,10 +259,9 @@ public class ScissorsSelectionModel extends SelectionModel {
         if (selection.isEmpty()) {
             reset();
         } else {
-            int committedId = graph.idAt(start);
-            PolyLine newSegment = graph.pathToPolyLine(paths.pathTo(committedId));
-            selection.addLast(newSegment);
-            setState(SELECTED);
+            // The closing segment is found in the background, and our worker will transition us
+            //  to SELECTED once it is added.
+            commitSegment(graph.idAt(start), false);
         }
     }
 
@@ -167,21 +276,32 @@ public class ScissorsSelectionModel extends SelectionModel {
     }
 
     /**
-     * Append to the current selection the "intelligent scissors" shortest path segment connecting
-     * our current selection's endpoint to `p`.
+     * Start appending to the current selection the "intelligent scissors" shortest path segment
+     * connecting our current selection's endpoint to `p`.  The segment is found in the background
+     * (see `commitSegment()`), so it is only appended once our worker is done.
      */
     @Override
     protected void appendToSelection(Point p) {
         assert state() == SelectionState.SELECTING;
 
-        int targetVertexId = graph.idAt(p);
-
-        List<Integer> vertexPath = paths.pathTo(targetVertexId);
+        commitSegment(graph.idAt(p), true);
+    }
 
-        PolyLine polyline = graph.pathToPolyLine(vertexPath);
-        selection.add(polyline);
+    /**
+     * Transition to the PROCESSING state and start finding, in the background, the shortest path
+     * from our current selection's endpoint to the pixel with ID `vertexId`, which will be appended
+     * to the selection once found.  If `continuing`, then start solving for shortest paths from
+     * that pixel too, returning to SELECTING once done; otherwise, the segment closes the selection
+     * and we will transition to SELECTED.  Preserves invariants associated with `worker`,
+     * `pendingPaths`, and `previousState`.
+     */
+    private void commitSegment(int vertexId, boolean continuing) {
+        previousState = state();
+        setState(PROCESSING);
 
-        findPaths(targetVertexId);
+        pendingPaths = null;
+        worker = new ShortestPathsWorker(vertexId, continuing ? vertexId : -1, null);
+        worker.execute();
     }
 
     /**
@@ -190,11 +310,21 @@ public class ScissorsSelectionModel extends SelectionModel {
      * `previousState`.
      */
     private void findPaths(int startId) {
+        findPaths(startId, null);
+    }
+
+    /**
+     * Transition to the PROCESSING state and start solving for shortest paths from the vertex with
+     * ID `startId` to the vertices whose IDs are in `targetIds`, or to every vertex if `targetIds`
+     * is null.  Preserves invariants associated with `worker`, `pendingPaths`, and
+     * `previousState`.
+     */
+    private void findPaths(int startId, int[] targetIds) {
         previousState = state();
         setState(PROCESSING);
 
         pendingPaths = null;
-        worker = new ShortestPathsWorker(startId);
+        worker = new ShortestPathsWorker(-1, startId, targetIds);
         worker.execute();
     }
 
@@ -204,9 +334,13 @@ public class ScissorsSelectionModel extends SelectionModel {
         assert selection.size() >= 2;
 
         // Start solving for shortest paths from the moved point, which will give us the segments to
-        //  both the preceding and succeeding points.  This will transition us to the PROCESSING
+        //  both the preceding and succeeding points.  Only those two points' paths are needed, so
+        //  they are found by point-to-point searches.  This will transition us to the PROCESSING
         //  state.
-        findPaths(graph.idAt(newPos));
+        int successorId = graph.idAt(selection.get(index).end());
+        int predecessorId = graph.idAt(
+                selection.get((index > 0) ? index - 1 : selection.size() - 1).start());
+        findPaths(graph.idAt(newPos), new int[]{successorId, predecessorId});
 
         // Our worker's `done()` method is sufficient for adding points, but we need to do more
         //  in order to move one.  This is one way to tack additional work onto a task (it will run
@@ -221,7 +355,7 @@ public class ScissorsSelectionModel extends SelectionModel {
                     PolyLine oldAfter = it.previous();
                     var oaEnd = graph.vertexAt(oldAfter.end());
                     // New segment is path from moved point to successor point
-                    it.set(graph.pathToPolyLine(paths.pathTo(oaEnd.id())));
+                    it.set(graph.pathToPolyLine(src.segmentTo(oaEnd.id())));
 
                     if (!it.hasPrevious()) {
                         it = selection.listIterator(selection.size());
@@ -231,7 +365,7 @@ public class ScissorsSelectionModel extends SelectionModel {
                     var obStart = graph.vertexAt(oldBefore.start());
                     // New segment is the reverse of the path from the moved point to its
                     //  predecessor point.
-                    it.set(graph.pathToPolyLine(paths.pathTo(obStart.id()).reversed()));
+                    it.set(graph.pathToPolyLine(src.segmentTo(obStart.id()).reversed()));
 
                     propSupport.firePropertyChange("selection", null, selection());
                 }
@@ -241,14 +375,89 @@ public class ScissorsSelectionModel extends SelectionModel {
 
     /**
      * Returns the "intelligent scissors" shortest path segment connecting our current selection's
-     * endpoint to `p`.
+     * endpoint to `p`.  Only settles pixels out to `p`'s distance from the endpoint, resuming the
+     * search from previous calls, so moving the cursor nearby costs little.  If `p` is farther
+     * than `SETTLE_BUDGET` more pixels would reach, returns the last live wire (or a straight line
+     * if there is none yet) while the search continues in the background; our listeners are
+     * notified of a "live-wire" property change once it is done, so that they may ask again.
      */
     @Override
     public PolyLine liveWire(Point p) {
 
         int vertexId = graph.idAt(p);
-        List<Integer> path = paths.pathTo(vertexId);
-        return graph.pathToPolyLine(path);
+        int searchId = (pyramid != null) ? pyramid.coarseId(vertexId) : vertexId;
+        List<Integer> path = pathFrom(livePaths, cachedLivePaths, searchId, SETTLE_BUDGET);
+        if (path == null) {
+            settleInBackground(searchId);
+            return (lastLiveWire != null) ? lastLiveWire : new PolyLine(lastPoint(), p);
+        }
+        lastLiveWire = (pyramid != null) ? pyramid.toFullResolution(path, lastPoint(), p)
+                : graph.pathToPolyLine(path);
+        return lastLiveWire;
+    }
+
+    /**
+     * Have `liveWireSettler` extend `livePaths` until the vertex with ID `targetId` is settled,
+     * then notify our listeners on the EDT.  If the settler is already busy, it is redirected to
+     * `targetId` instead.  This must be called from the EDT.
+     */
+    private void settleInBackground(int targetId) {
+        boolean idle = liveWireTargetId < 0;
+        liveWireTargetId = targetId;
+        if (!idle) {
+            return;
+        }
+        PathSolver search = livePaths;
+        liveWireSettler.execute(() -> {
+            // Settle in slices, so the EDT waits for at most one slice to query the search, and so
+            //  the settler notices promptly when its target changes or its search is replaced.
+            boolean settled = false;
+            while (!settled) {
+                int id = liveWireTargetId;
+                synchronized (search) {
+                    if (search != livePaths) {
+                        break;
+                    }
+                    settled = search.settleUntil(id, SETTLE_BUDGET) || search.allPathsFound();
+                }
+                settled &= (id == liveWireTargetId);
+            }
+            SwingUtilities.invokeLater(() -> {
+                liveWireTargetId = -1;
+                propSupport.firePropertyChange("live-wire", null, null);
+            });
+        });
+    }
+
+    /**
+     * Return the sequence of vertex IDs along the shortest path from the start of `search` to the
+     * vertex with ID `vertexId`, looking it up in `cached` (paths from the same start, which may be
+     * null) if possible, and extending `search` by at most `maxToSettle` vertices otherwise.
+     * Returns null if that did not settle `vertexId`.  `search` is locked while it is used.
+     */
+    private static List<Integer> pathFrom(PathSolver search, SettledPathTree cached, int vertexId,
+            int maxToSettle) {
+        if (cached != null && cached.settled(vertexId)) {
+            return cached.pathTo(vertexId);
+        }
+        synchronized (search) {
+            if (search.settleUntil(vertexId, maxToSettle) || search.allPathsFound()) {
+                return search.pathTo(vertexId);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Retire `search`, which was acquired from `analysis`.  This must be called from the EDT after
+     * `search` has been replaced as `livePaths`, and after any worker committing from it has been
+     * cancelled.
+     */
+    private void retireLivePaths(ImageAnalysis analysis, PathSolver search) {
+        // `liveWireSettler` and workers check, while holding the search's lock, that it is still
+        //  `livePaths` or that they are not cancelled before each slice, and the retired search is
+        //  only copied while holding that lock, so nothing extends it once it has been copied.
+        analysis.retirePaths(weightName, search);
     }
 
     /**
@@ -273,29 +482,102 @@ public class ScissorsSelectionModel extends SelectionModel {
 
 
     /**
-     * SwingWorker for computing shortest paths and periodically updating progress.  This is an
-     * inner class, meaning it has access to all fields of its containing TraceComponent. It
-     * publishes preliminary pathfinding results (containing settled and frontier nodes) and returns
-     * the final best paths (or null if cancelled).
+     * SwingWorker for computing shortest paths and updating progress.  This is an inner class,
+     * meaning it has access to all fields of its containing TraceComponent. It publishes
+     * preliminary pathfinding results (containing settled and frontier nodes) and returns the paths
+     * it found (or null if cancelled).
      */
     private class ShortestPathsWorker
             extends SwingWorker<PathfindingSnapshot, PathfindingSnapshot> {
 
         /**
-         * The shortest-paths solver this worker will use.  After construction, must only be
-         * accessed from the background thread.
+         * The analysis of the image to search, which lends us our solvers, and its coarse-to-fine
+         * view (if in that mode).  Captured on the EDT in case our outer model's image changes.
+         */
+        private final ImageAnalysis analysis;
+        private final ImagePyramid pyramid;
+
+        /**
+         * The analysis that lends the search handed over as `pathfinder`: the coarsest level of
+         * `pyramid` if non-null, or else `analysis`.  Written only by the background thread before
+         * `doInBackground()` returns.
+         */
+        private ImageAnalysis searched;
+
+        /**
+         * The ID of the pixel to commit a segment to from our outer model's last committed point,
+         * or -1 if there is none.  That segment's path is found by extending `commitSearch`.
+         */
+        private final int commitId;
+
+        /**
+         * Our outer model's last committed point, and its `livePaths` and `cachedLivePaths` from
+         * it, captured on the EDT if `commitId` is not -1.  Unlike the searches started here, the
+         * search is shared with our outer model, so it is only used while holding its lock.
+         */
+        private final int committedId;
+        private final PathSolver commitSearch;
+        private final SettledPathTree commitCachedPaths;
+
+        /**
+         * The sequence of pixel IDs along the segment to `commitId`, to be appended to our outer
+         * model's selection if this worker succeeds.  Null if `commitId` is -1.  Written only by
+         * the background thread before `doInBackground()` returns.
+         */
+        private List<Integer> committed;
+
+        /**
+         * The ID of the vertex to find shortest paths from, or -1 if we only commit a segment.
+         */
+        private final int startId;
+
+        /**
+         * The IDs of the only vertices that shortest paths are needed to, or null if paths to every
+         * vertex are needed.
+         */
+        private final int[] targetIds;
+
+        /**
+         * The search started by this worker if `targetIds` is null, to be handed over to our outer
+         * model as `livePaths` if this worker succeeds.  Written only by the background thread
+         * before `doInBackground()` returns.
+         */
+        private PathSolver pathfinder;
+
+        /**
+         * Paths from `startId` cached by an earlier search, or null if there were none.  Handed
+         * over with `pathfinder`, or used instead of a search if they reach all of `targetIds`.
+         * Written only by the background thread before `doInBackground()` returns.
          */
-        private final ShortestPaths<ImageVertex, ImageEdge> pathfinder;
+        private SettledPathTree cachedPaths;
 
         /**
-         * Construct a worker that, when executed, will find the shortest paths from the vertex with
-         * ID `startId` to every pixel in our outer model's `image`.  "progress" events will be
-         * forwarded to our outer model's listeners.  This must be called from the EDT.
+         * The paths from `startId` to each of `targetIds` found by this worker's bidirectional
+         * searches, in the same order, copied out of the solver before it was released.  Null if
+         * `targetIds` is null or if our targets' paths were all cached.  Written only by the
+         * background thread before `doInBackground()` returns.
          */
-        public ShortestPathsWorker(int startId) {
-            pathfinder = new ShortestPaths<>(
-                    graph, ScissorsWeights.makeWeigher(weightName, graph));
-            pathfinder.setStart(startId);
+        private List<List<Integer>> segments;
+
+        /**
+         * Construct a worker that, when executed, will first find the path of the segment from our
+         * outer model's last committed point to the pixel with ID `commitId`, unless it is -1.  It
+         * will then start finding the shortest paths from the vertex with ID `startId` to every
+         * pixel in our outer model's `image` (settling only the nearest pixels, and leaving the
+         * search to be resumed on demand), or will find the paths only to the pixels whose IDs are
+         * in `targetIds` if it is not null (in which case each target is found by a bidirectional
+         * search and other paths are left undiscovered), unless `startId` is -1.  "progress" events
+         * will be forwarded to our outer model's listeners.  This must be called from the EDT.
+         */
+        public ShortestPathsWorker(int commitId, int startId, int[] targetIds) {
+            analysis = ScissorsSelectionModel.this.analysis;
+            pyramid = ScissorsSelectionModel.this.pyramid;
+            this.commitId = commitId;
+            committedId = (commitId >= 0) ? graph.idAt(lastPoint()) : -1;
+            commitSearch = (commitId >= 0) ? livePaths : null;
+            commitCachedPaths = (commitId >= 0) ? cachedLivePaths : null;
+            this.startId = startId;
+            this.targetIds = targetIds;
 
             // Forward progress property changes to outer model's listeners (as long as we are
             // still the active solver).
@@ -307,31 +589,128 @@ public class ScissorsSelectionModel extends SelectionModel {
         }
 
         /**
-         * Solve for shortest paths and return the results.  Periodically publish progress
-         * percentage and preliminary shortest paths.  It is assumed that this is generally not
-         * called from the EDT.  Returns null if cancelled.
+         * Find the segment to commit if we have one, then start solving for shortest paths and
+         * return the first results, publishing them as progress, or solve for the paths to our
+         * targets if we have any.  Any search started here belongs to this worker alone, so a
+         * cancelled worker cannot disturb the model's `livePaths`.  Solvers are borrowed from
+         * `analysis` and returned unless handed over.  It is assumed that this is generally not
+         * called from the EDT.  Returns null if cancelled, if we only commit a segment, or if we
+         * had targets (whose paths are kept for `segmentTo()`).
          */
         @Override
-        public PathfindingSnapshot doInBackground() {
-            int totalVertices = graph.vertexCount();
-            PathfindingSnapshot lastSnapshot = null;
-            int settledVertices;
-            while (!isCancelled() && !pathfinder.allPathsFound()) {
-                lastSnapshot = pathfinder.extendSearch(10000);
-                settledVertices = pathfinder.settledCount();
-                if (lastSnapshot == null) {
-                    break;
+        public PathfindingSnapshot doInBackground() throws Exception {
+            if (commitId >= 0) {
+                committed = findCommitted();
+                if (committed == null || startId < 0) {
+                    return null;
                 }
-                int progress = (int) (((double) settledVertices / totalVertices) * 100);
-                setProgress(progress);
-                publish(lastSnapshot);
+            }
+            if (targetIds != null) {
+                cachedPaths = analysis.cachedPaths(weightName, startId);
+                if (cachedPaths != null
+                        && Arrays.stream(targetIds).allMatch(cachedPaths::settled)) {
+                    setProgress(100);
+                    return null;
+                }
+                // Searching from both ends of each segment settles fewer pixels than searching
+                //  outwards from the start towards both targets (see `PointToPointBenchmark`).
+                BidirectionalShortestPaths<ImageVertex, ImageEdge> segmentSearch =
+                        analysis.acquireBidirectional(weightName);
+                try {
+                    // The paths are copies, so the solver may be reused as soon as it is released.
+                    segments = segmentSearch.pathsBetween(startId, targetIds);
+                } finally {
+                    analysis.releaseBidirectional(weightName, segmentSearch);
+                }
+                setProgress(100);
+                return null;
+            }
+            searched = analysis;
+            int searchStartId = startId;
+            if (pyramid != null) {
+                pyramid.prepare(weightName);
+                searched = pyramid.coarsest();
+                searchStartId = pyramid.coarseId(startId);
+            }
+            cachedPaths = searched.cachedPaths(weightName, searchStartId);
+            PathSolver search = searched.acquirePaths(weightName);
+            try {
+                search.setStart(searchStartId);
                 if (isCancelled()) {
                     return null;
                 }
+                // Settle the start's neighborhood up front; the live wire settles the rest on
+                //  demand.
+                PathfindingSnapshot firstPaths = search.extendSearch(INITIAL_SETTLE_COUNT);
+                setProgress((int) (100.0 * search.settledCount() / search.vertexCount()));
+                // Coarse paths cannot be drawn over the full-resolution image
+                if (pyramid == null) {
+                    publish(firstPaths);
+                }
+                pathfinder = search;
+                return firstPaths;
+            } finally {
+                // A cancelled worker's search will never be handed over.  (If we are cancelled
+                //  after this check, the search is simply left to the garbage collector.)
+                if (pathfinder == null || isCancelled()) {
+                    pathfinder = null;
+                    searched.releasePaths(weightName, search);
+                }
             }
-            return lastSnapshot;
         }
 
+        /**
+         * Return the sequence of pixel IDs along the shortest path from `committedId` to
+         * `commitId`, extending `commitSearch` in slices so that progress is reported and
+         * cancellation noticed between them.  In coarse-to-fine mode, the path found in the
+         * coarsest level is refined to full resolution.  Returns null if cancelled.
+         */
+        private List<Integer> findCommitted() {
+            int searchId = (pyramid != null) ? pyramid.coarseId(commitId) : commitId;
+            List<Integer> path = null;
+            if (commitCachedPaths != null && commitCachedPaths.settled(searchId)) {
+                path = commitCachedPaths.pathTo(searchId);
+            }
+            while (path == null) {
+                int settled;
+                synchronized (commitSearch) {
+                    // Checked while holding the lock, since a cancelled worker's search may be
+                    //  retired (see `retireLivePaths()`) as soon as the lock is released.
+                    if (isCancelled()) {
+                        return null;
+                    }
+                    if (commitSearch.settleUntil(searchId, SETTLE_BUDGET)
+                            || commitSearch.allPathsFound()) {
+                        path = commitSearch.pathTo(searchId);
+                        break;
+                    }
+                    settled = commitSearch.settledCount();
+                }
+                setProgress((int) (100.0 * settled / commitSearch.vertexCount()));
+            }
+            if (pyramid != null) {
+                path = pyramid.refine(weightName, path, committedId, commitId);
+            }
+            return path;
+        }
+
+        /**
+         * Return the sequence of vertex IDs along the shortest path from `startId` to the target
+         * with ID `targetId`, which must be one of our targets, from our cached paths if they reach
+         * it, or else from our searches' `segments`.  Requires that we succeeded with targets.  This
+         * must be called from the EDT.
+         */
+        List<Integer> segmentTo(int targetId) {
+            if (cachedPaths != null && cachedPaths.settled(targetId)) {
+                return cachedPaths.pathTo(targetId);
+            }
+            for (int i = 0; i < targetIds.length; ++i) {
+                if (targetIds[i] == targetId) {
+                    return segments.get(i);
+                }
+            }
+            throw new IllegalArgumentException("Vertex " + targetId + " is not a target");
+        }
 
         /**
          * Save the most recent preliminary paths published by the worker's background task to our
@@ -360,14 +739,33 @@ public class ScissorsSelectionModel extends SelectionModel {
                 return;
             }
             try {
-                paths = get();
+                // Rethrows the worker's failure or cancellation
+                get();
+                if (committed != null) {
+                    selection.add(graph.pathToPolyLine(committed));
+                    propSupport.firePropertyChange("selection", null, selection());
+                }
+                if (pathfinder != null) {
+                    PathSolver replaced = livePaths;
+                    livePaths = pathfinder;
+                    if (replaced != null) {
+                        retireLivePaths(livePathsAnalysis, replaced);
+                    }
+                    livePathsAnalysis = searched;
+                    cachedLivePaths = cachedPaths;
+                    lastLiveWire = null;
+                }
                 successful = true;
                 if (previousState == NO_SELECTION){
                     ScissorsSelectionModel.this.setState(SELECTING);
                     }
             }catch(CancellationException e){
                     if (isCancelled() && previousState == SELECTING){
-                        undoPoint();
+                        // A cancelled commit has not appended its segment, but any other search
+                        //  follows the point it would remove.
+                        if (commitId < 0) {
+                            undoPoint();
+                        }
                         ScissorsSelectionModel.this.setState(SELECTING);
                         successful = false;
                         return;
@@ -379,7 +777,9 @@ public class ScissorsSelectionModel extends SelectionModel {
             }
             worker = null;
             if (ScissorsSelectionModel.this.state() == SelectionState.PROCESSING) {
-                if (previousState == NO_SELECTION && successful){
+                if (commitId >= 0 && startId < 0 && successful) {
+                    ScissorsSelectionModel.this.setState(SELECTED);
+                } else if (previousState == NO_SELECTION && successful){
                     ScissorsSelectionModel.this.setState(SELECTING);
                 }else {
                     ScissorsSelectionModel.this.setState(ScissorsSelectionModel.this.previousState);
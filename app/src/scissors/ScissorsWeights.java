@@ -70,11 +70,24 @@ public class ScissorsWeights {
         };
     }
 
+    /**
+     * A weigher that can also weigh an edge of an ImageGraph given only its starting pixel's
+     * location (`x`, `y`) and direction `dir`, which lets `ImageGraph.forEachNeighbor()` skip
+     * creating `ImageEdge` objects.  Must agree with `weight(ImageEdge)`.
+     */
+    interface PixelWeigher extends Weigher<ImageEdge> {
+
+        /**
+         * Return the weight of the edge leaving the pixel at (`x`, `y`) in direction `dir`.
+         */
+        int weight(int x, int y, int dir);
+    }
+
     /**
      * Weight edges less if they run perpendicular to a large brightness gradient in an ImageGraph's
      * image.  Only considers the brightness of a grayscale (band-averaged) version of the image.
      */
-    static class CrossGradMonoWeight implements Weigher<ImageEdge> {
+    static class CrossGradMonoWeight implements PixelWeigher {
 
         /**
          * The graph that the edges to be weighed will come from.
@@ -86,6 +99,11 @@ public class ScissorsWeights {
          */
         private Raster grayImage;
 
+        /**
+         * The weights of all edges in `graph`, as computed by `computeWeight()`.
+         */
+        private final CostTable costs;
+
         /**
          * Create a new weigher capable of weighing edges in `graph`.
          */
@@ -105,24 +123,42 @@ public class ScissorsWeights {
             Arrays.fill(avgMatrix, avgMatrix[0]);
             RasterOp op = new BandCombineOp(avgMatrix, null);
             grayImage = op.filter(src, null);
+
+            costs = new CostTable(graph.width(), graph.height(), this::computeWeight);
         }
 
         @Override
         public int weight(ImageEdge edge) {
             // Get location of pixel at edge's start
             ImageVertex src = graph.getVertex(edge.startId());
-            int x = src.x();
-            int y = src.y();
+            return weight(src.x(), src.y(), edge.dir());
+        }
+
+        @Override
+        public int weight(int x, int y, int dir) {
+            return costs.weight(x, y, dir);
+        }
 
+        /**
+         * Compute the weight of the edge leaving the pixel at (`x`, `y`) in direction `dir` from
+         * the grayscale image, without consulting `costs`.
+         */
+        int computeWeight(int x, int y, int dir) {
             // Compute the largest possible slope, multiplied by the edge's length, that could be
             //  observed perpendicular to this edge's direction (even directions are horizontal or
             //  vertical; odd edges are diagonal).  By subtracting a "reward" quantity from this,
             //  we convert the reward into a "cost".
-            int eGradMax = ((edge.dir() % 2) == 0) ? 180 : 255;
+            int eGradMax = ((dir % 2) == 0) ? 180 : 255;
 
             // Compute the magnitude of the slope perpendicular to this edge, multiplied by this
             //  edge's length, then subtract it from the best possible value.
-            return eGradMax - crossGrad(grayImage, x, y, 0, edge.dir());
+            return eGradMax - crossGrad(grayImage, x, y, 0, dir);
+        }
+
+        @Override
+        public int maxWeight() {
+            // `crossGrad()` is non-negative, so no edge costs more than the largest `eGradMax`.
+            return 255;
         }
     }
 
@@ -130,7 +166,7 @@ public class ScissorsWeights {
      * Weight edges less if they run perpendicular to a large brightness gradient in an ImageGraph's
      * image.  Only considers the brightness of a grayscale (band-averaged) version of the image.
      */
-    static class RGBWeight implements Weigher<ImageEdge> {
+    static class RGBWeight implements PixelWeigher {
 
         /**
          * The graph that the edges to be weighed will come from.
@@ -142,6 +178,11 @@ public class ScissorsWeights {
          */
         private Raster image;
 
+        /**
+         * The weights of all edges in `graph`, as computed by `computeWeight()`.
+         */
+        private final CostTable costs;
+
         /**
          * Create a new weigher capable of weighing edges in `graph`.
          */
@@ -152,14 +193,26 @@ public class ScissorsWeights {
             //  brightnesses.
 
             image = graph.raster();
+
+            costs = new CostTable(graph.width(), graph.height(), this::computeWeight);
         }
 
         @Override
         public int weight(ImageEdge edge) {
             ImageVertex src = graph.getVertex(edge.startId());
-            int x = src.x();
-            int y = src.y();
+            return weight(src.x(), src.y(), edge.dir());
+        }
 
+        @Override
+        public int weight(int x, int y, int dir) {
+            return costs.weight(x, y, dir);
+        }
+
+        /**
+         * Compute the weight of the edge leaving the pixel at (`x`, `y`) in direction `dir` from
+         * the image's color bands, without consulting `costs`.
+         */
+        int computeWeight(int x, int y, int dir) {
             // Ensure we do not exceed image boundaries
             int maxX = image.getWidth() - 1;
             int maxY = image.getHeight() - 1;
@@ -169,13 +222,19 @@ public class ScissorsWeights {
             // Calculate color gradients in RGB
             int weightSum = 0;
             for (int i = 0; i < image.getNumBands(); i++) {
-                int grad = Math.abs(crossGrad(image, x, y, i, edge.dir()));
+                int grad = Math.abs(crossGrad(image, x, y, i, dir));
                 weightSum += grad;
             }
 
             return Math.max(0, 255 - (weightSum / graph.raster().getNumBands()));
 
         }
+
+        @Override
+        public int maxWeight() {
+            // The band-averaged gradient is non-negative, so no edge costs more than 255.
+            return 255;
+        }
     }
 
 
@@ -0,0 +1,220 @@
+package selector;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.Vector;
+
+/**
+ * The pixels of an image inside a polygon, cropped to the polygon's bounding box, with pixels
+ * outside the polygon transparent.  Rather than being copied up front, rows are rendered a band at
+ * a time as an `ImageWriter` reads them, so that writing a large selection needs memory for one
+ * band rather than for the whole crop.  Each band is rendered by clipping a `Graphics2D` to the
+ * polygon, so pixels are covered exactly as `SelectionModel` has always covered them.
+ * <p>
+ * Reading rows in order is cheapest, since each band is rendered once.  Not safe for use by
+ * multiple threads at once, but may be read from a thread other than the one that created it, as
+ * long as `img` is not modified.
+ */
+final class ClippedImage implements RenderedImage {
+
+    /**
+     * The number of rows rendered at a time.
+     */
+    static final int BAND_HEIGHT = 64;
+
+    /**
+     * The image our pixels come from.
+     */
+    private final BufferedImage img;
+
+    /**
+     * The polygon whose pixels we contain, in our own coordinates (translated so that its bounding
+     * box starts at the origin), and the position of its bounding box in `img`.
+     */
+    private final Polygon clip;
+    private final Rectangle bounds;
+
+    /**
+     * The most recently rendered band, holding our rows starting at `bandY`, or -1 if no band has
+     * been rendered.
+     */
+    private final BufferedImage band;
+    private int bandY = -1;
+
+    /**
+     * A row of pixels being copied out of `band`.
+     */
+    private final int[] row;
+
+    /**
+     * Create a view of the pixels of `img` inside `polygon`, which must have a non-empty bounding
+     * box.  `polygon` is copied, but `img` is not, so it must not be modified while this is read.
+     */
+    ClippedImage(BufferedImage img, Polygon polygon) {
+        bounds = polygon.getBounds();
+        if (bounds.isEmpty()) {
+            throw new IllegalArgumentException("Empty selection");
+        }
+        this.img = img;
+        clip = new Polygon(polygon.xpoints, polygon.ypoints, polygon.npoints);
+        clip.translate(-bounds.x, -bounds.y);
+        band = new BufferedImage(bounds.width, Math.min(BAND_HEIGHT, bounds.height),
+                BufferedImage.TYPE_INT_ARGB);
+        row = new int[bounds.width];
+    }
+
+    /**
+     * Return the bounding box of our polygon in the source image.
+     */
+    Rectangle bounds() {
+        return new Rectangle(bounds);
+    }
+
+    /**
+     * Make `band` hold our rows starting at `y` (a multiple of `BAND_HEIGHT`).
+     */
+    private void renderBand(int y) {
+        if (bandY == y) {
+            return;
+        }
+        int[] data = ((DataBufferInt) band.getRaster().getDataBuffer()).getData();
+        Arrays.fill(data, 0);
+        Graphics2D g = band.createGraphics();
+        try {
+            g.translate(0, -y);
+            g.setClip(clip);
+            g.drawImage(img, -bounds.x, -bounds.y, null);
+        } finally {
+            g.dispose();
+        }
+        bandY = y;
+    }
+
+    @Override
+    public WritableRaster copyData(WritableRaster raster) {
+        if (raster == null) {
+            raster = getColorModel().createCompatibleWritableRaster(bounds.width, bounds.height);
+        }
+        Rectangle area = raster.getBounds().intersection(new Rectangle(bounds.width,
+                bounds.height));
+        for (int y = area.y; y < area.y + area.height; ++y) {
+            int y0 = y - y % BAND_HEIGHT;
+            renderBand(y0);
+            band.getRaster().getDataElements(area.x, y - y0, area.width, 1, row);
+            raster.setDataElements(area.x, y, area.width, 1, row);
+        }
+        return raster;
+    }
+
+    @Override
+    public Raster getData(Rectangle rect) {
+        WritableRaster raster = getColorModel().createCompatibleWritableRaster(rect.width,
+                rect.height).createWritableTranslatedChild(rect.x, rect.y);
+        return copyData(raster);
+    }
+
+    @Override
+    public Raster getData() {
+        return copyData(null);
+    }
+
+    @Override
+    public Raster getTile(int tileX, int tileY) {
+        return getData();
+    }
+
+    @Override
+    public ColorModel getColorModel() {
+        return band.getColorModel();
+    }
+
+    @Override
+    public SampleModel getSampleModel() {
+        return getColorModel().createCompatibleSampleModel(bounds.width, bounds.height);
+    }
+
+    @Override
+    public int getWidth() {
+        return bounds.width;
+    }
+
+    @Override
+    public int getHeight() {
+        return bounds.height;
+    }
+
+    @Override
+    public int getMinX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinY() {
+        return 0;
+    }
+
+    @Override
+    public int getNumXTiles() {
+        return 1;
+    }
+
+    @Override
+    public int getNumYTiles() {
+        return 1;
+    }
+
+    @Override
+    public int getMinTileX() {
+        return 0;
+    }
+
+    @Override
+    public int getMinTileY() {
+        return 0;
+    }
+
+    @Override
+    public int getTileWidth() {
+        return bounds.width;
+    }
+
+    @Override
+    public int getTileHeight() {
+        return bounds.height;
+    }
+
+    @Override
+    public int getTileGridXOffset() {
+        return 0;
+    }
+
+    @Override
+    public int getTileGridYOffset() {
+        return 0;
+    }
+
+    @Override
+    public Vector<RenderedImage> getSources() {
+        return null;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return Image.UndefinedProperty;
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return null;
+    }
+}
@@ -0,0 +1,203 @@
+package selector;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.event.IIOReadUpdateListener;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.SwingWorker;
+
+/**
+ * Decodes an image file on a worker thread, so that opening a large image does not freeze the UI.
+ * The decode's percentage complete is reported as this worker's "progress" property.  As soon as
+ * the reader allocates the image it is decoding into, that image is published as a preview, and
+ * published again as more of it is decoded, so that it can be displayed filling in rather than
+ * after the whole file has been read.  Once decoded, the image is handed to a preparation step on
+ * the worker thread (e.g. `SelectionModel.prepareImage()`), so that preprocessing is under way
+ * before the image reaches the EDT.
+ * <p>
+ * The result is null if no installed reader recognizes the file, as for `ImageIO.read()`.
+ * Cancelling the worker aborts the decode.  Images with more than `MAX_PIXELS` pixels cannot be
+ * held in a `BufferedImage`, so they fail with an IOException before any of them is decoded.
+ */
+class ImageLoader extends SwingWorker<BufferedImage, BufferedImage> {
+
+    /**
+     * The most pixels an image may have to be loaded: the most that a `BufferedImage` (whose
+     * pixels are stored in a single array) and an `ImageGraph` can address.
+     */
+    static final long MAX_PIXELS = Integer.MAX_VALUE;
+
+    /**
+     * The file to decode.
+     */
+    private final File file;
+
+    /**
+     * Called with the decoded image on the worker thread before it is returned.
+     */
+    private final Consumer<BufferedImage> prepare;
+
+    /**
+     * The image being decoded, once the reader has allocated it, or null before then.  Written
+     * and read only on the worker thread.
+     */
+    private BufferedImage destination;
+
+    /**
+     * The last whole percentage of the decode reported.  Previews are published at most once per
+     * percent, so that the EDT repaints the preview about 100 times however many rows the reader
+     * reports.
+     */
+    private int lastPercent;
+
+    /**
+     * Create a loader that will decode the image in `file` and pass it to `prepare` once decoded.
+     * Call `execute()` to start it.
+     */
+    ImageLoader(File file, Consumer<BufferedImage> prepare) {
+        this.file = file;
+        this.prepare = prepare;
+    }
+
+    /**
+     * Return the file being decoded.
+     */
+    File file() {
+        return file;
+    }
+
+    @Override
+    protected BufferedImage doInBackground() throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) {
+                throw new IOException("Cannot open " + file.getPath());
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IOException(file.getName() + " is too large to open (" + width + "x"
+                            + height + " pixels)");
+                }
+                reader.addIIOReadProgressListener(new ProgressListener());
+                reader.addIIOReadUpdateListener(new PreviewListener());
+                BufferedImage img = reader.read(0);
+                if (isCancelled()) {
+                    return null;
+                }
+                prepare.accept(img);
+                return img;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reports the reader's progress, and aborts the decode if we are cancelled.
+     */
+    private class ProgressListener implements IIOReadProgressListener {
+
+        @Override
+        public void imageProgress(ImageReader source, float percentageDone) {
+            if (isCancelled()) {
+                source.abort();
+                return;
+            }
+            int percent = Math.clamp((int) percentageDone, 0, 100);
+            if (percent > lastPercent) {
+                lastPercent = percent;
+                setProgress(percent);
+                if (destination != null) {
+                    publish(destination);
+                }
+            }
+        }
+
+        @Override
+        public void imageStarted(ImageReader source, int imageIndex) {
+        }
+
+        @Override
+        public void imageComplete(ImageReader source) {
+            // Some readers stop reporting short of 100%.
+            lastPercent = 100;
+            setProgress(100);
+        }
+
+        @Override
+        public void sequenceStarted(ImageReader source, int minIndex) {
+        }
+
+        @Override
+        public void sequenceComplete(ImageReader source) {
+        }
+
+        @Override
+        public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {
+        }
+
+        @Override
+        public void thumbnailProgress(ImageReader source, float percentageDone) {
+        }
+
+        @Override
+        public void thumbnailComplete(ImageReader source) {
+        }
+
+        @Override
+        public void readAborted(ImageReader source) {
+        }
+    }
+
+    /**
+     * Publishes the image being decoded as soon as the reader allocates it.
+     */
+    private class PreviewListener implements IIOReadUpdateListener {
+
+        @Override
+        public void passStarted(ImageReader source, BufferedImage theImage, int pass, int minPass,
+                int maxPass, int minX, int minY, int periodX, int periodY, int[] bands) {
+            if (destination == null) {
+                destination = theImage;
+                publish(theImage);
+            }
+        }
+
+        @Override
+        public void imageUpdate(ImageReader source, BufferedImage theImage, int minX, int minY,
+                int width, int height, int periodX, int periodY, int[] bands) {
+        }
+
+        @Override
+        public void passComplete(ImageReader source, BufferedImage theImage) {
+        }
+
+        @Override
+        public void thumbnailPassStarted(ImageReader source, BufferedImage theThumbnail, int pass,
+                int minPass, int maxPass, int minX, int minY, int periodX, int periodY,
+                int[] bands) {
+        }
+
+        @Override
+        public void thumbnailUpdate(ImageReader source, BufferedImage theThumbnail, int minX,
+                int minY, int width, int height, int periodX, int periodY, int[] bands) {
+        }
+
+        @Override
+        public void thumbnailPassComplete(ImageReader source, BufferedImage theThumbnail) {
+        }
+    }
+}
@@ -100,6 +100,7 @@ public class ImagePanel extends JPanel {
         if (img != null) {
             // Update and show image label
             pic.setIcon(new ImageIcon(img));
+            selector.setVisible(true);
             cards.last(this);
         } else {
             // Free image and display placeholder
@@ -107,4 +108,34 @@ public class ImagePanel extends JPanel {
             cards.first(this);
         }
     }
+
+    /**
+     * Display `preview`, an image still being loaded, in place of our current image, and repaint it
+     * as it fills in.  Selection is suspended (and our model keeps its current image and selection)
+     * until the loaded image is set with `setImage()`, or the preview is abandoned with
+     * `endPreview()`.
+     */
+    public void showPreview(BufferedImage preview) {
+        selector.setVisible(false);
+        pic.setIcon(new ImageIcon(preview));
+        ((CardLayout) getLayout()).last(this);
+        repaint();
+    }
+
+    /**
+     * Stop displaying a preview shown by `showPreview()`, and go back to displaying and selecting
+     * from our current image, if any.
+     */
+    public void endPreview() {
+        BufferedImage img = image();
+        CardLayout cards = (CardLayout) getLayout();
+        if (img != null) {
+            pic.setIcon(new ImageIcon(img));
+            selector.setVisible(true);
+            cards.last(this);
+        } else {
+            pic.setIcon(null);
+            cards.first(this);
+        }
+    }
 }
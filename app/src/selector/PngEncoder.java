@@ -0,0 +1,218 @@
+package selector;
+
+import graph.EnumProperty;
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOWriteProgressListener;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * The ways selections can be encoded as PNG files, selectable by name.  The system property named
+ * by `PROPERTY` overrides the encoder chosen in code (e.g. `-Dselector.pngEncoder=parallel`), so
+ * that encoders can be compared on real selections and machines without rebuilding.
+ */
+enum PngEncoder {
+
+    /**
+     * The JDK's sequential writer, which leaves truecolor rows unfiltered.  The default on a single
+     * processor (see `preferred()`).
+     */
+    IMAGE_IO {
+        @Override
+        boolean write(RenderedImage img, OutputStream out, int compressionLevel,
+                IntConsumer progress, BooleanSupplier cancelled) throws IOException {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+            if (!writers.hasNext()) {
+                throw new IOException("No PNG writer is installed");
+            }
+            ImageWriter writer = writers.next();
+            ProgressListener listener = new ProgressListener(progress, cancelled);
+            // Closing the image stream flushes it without closing `out`.
+            try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(compressionQuality(compressionLevel));
+                writer.setOutput(stream);
+                writer.addIIOWriteProgressListener(listener);
+                writer.write(null, new IIOImage(img, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            out.flush();
+            return !listener.aborted;
+        }
+    },
+
+    /**
+     * `ParallelPngWriter` on the common `ForkJoinPool`, with rows unfiltered like `IMAGE_IO`'s, so
+     * that it makes files of about the same size while sharing the compression among processors.
+     * The default given `MIN_PARALLEL_PROCESSORS` (see `preferred()`).
+     */
+    PARALLEL {
+        @Override
+        boolean write(RenderedImage img, OutputStream out, int compressionLevel,
+                IntConsumer progress, BooleanSupplier cancelled) throws IOException {
+            return writeParallel(new ParallelPngWriter(compressionLevel, false), img, out,
+                    progress, cancelled);
+        }
+    },
+
+    /**
+     * `ParallelPngWriter` on the common `ForkJoinPool`, with rows filtered adaptively.  Makes files
+     * of photographs 20-40% smaller than `PARALLEL`'s, at up to 2.5 times the cost.
+     */
+    PARALLEL_FILTERED {
+        @Override
+        boolean write(RenderedImage img, OutputStream out, int compressionLevel,
+                IntConsumer progress, BooleanSupplier cancelled) throws IOException {
+            return writeParallel(new ParallelPngWriter(compressionLevel, true), img, out,
+                    progress, cancelled);
+        }
+    };
+
+    /**
+     * The name of the system property that overrides the encoder chosen in code.  Its value is the
+     * name of a constant of this enum, ignoring case, with '-' accepted in place of '_'.
+     */
+    static final String PROPERTY = "selector.pngEncoder";
+
+    /**
+     * The fewest processors on which `preferred()` picks `PARALLEL`.  On one thread, `PARALLEL`
+     * already keeps pace with `IMAGE_IO` at levels 1 to 6 (see `PngExportBenchmark`), so it is
+     * preferred as soon as a second processor can share the compression.
+     */
+    static final int MIN_PARALLEL_PROCESSORS = 2;
+
+    /**
+     * Write `img` to `out` as a PNG file compressed at zlib level `compressionLevel` (in [0..9]),
+     * calling `progress` on this thread with the whole percentage written so far, and stopping
+     * early once `cancelled` returns true.  `out` is flushed but not closed.  Return false if the
+     * write stopped early, in which case `out` holds an incomplete file.
+     */
+    abstract boolean write(RenderedImage img, OutputStream out, int compressionLevel,
+            IntConsumer progress, BooleanSupplier cancelled) throws IOException;
+
+    /**
+     * Return the encoder to use by default on this machine: the one named by the system property
+     * `PROPERTY` if it is set, or else `preferred(Runtime.getRuntime().availableProcessors())`.
+     * Throws IllegalArgumentException if the property does not name an encoder.
+     */
+    static PngEncoder preferred() {
+        return configured(preferred(Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Return the faster encoder on `processors` processors: `PARALLEL` given at least
+     * `MIN_PARALLEL_PROCESSORS`, and `IMAGE_IO` otherwise.
+     */
+    static PngEncoder preferred(int processors) {
+        return (processors >= MIN_PARALLEL_PROCESSORS) ? PARALLEL : IMAGE_IO;
+    }
+
+    /**
+     * Return the encoder named by the system property `PROPERTY`, or `fallback` if that property
+     * is not set.  Throws IllegalArgumentException if the property does not name an encoder.
+     */
+    static PngEncoder configured(PngEncoder fallback) {
+        return EnumProperty.configured(PngEncoder.class, PROPERTY, fallback);
+    }
+
+    /**
+     * Return the encoder named `name`, ignoring case and accepting '-' in place of '_'.  Throws
+     * IllegalArgumentException if `name` does not name an encoder.
+     */
+    static PngEncoder parse(String name) {
+        return EnumProperty.parse(PngEncoder.class, name);
+    }
+
+    /**
+     * Return the JDK PNG writer's compression quality for the zlib compression level `level`.  The
+     * writer compresses at level `(int) (9 * (1 - quality))`, so this picks the middle of the range
+     * of qualities that map to `level`.
+     */
+    static float compressionQuality(int level) {
+        return Math.max(0, 1 - (level + 0.5f) / 9);
+    }
+
+    /**
+     * Write `img` to `out` with `writer`, as `write()` does.
+     */
+    private static boolean writeParallel(ParallelPngWriter writer, RenderedImage img,
+            OutputStream out, IntConsumer progress, BooleanSupplier cancelled) throws IOException {
+        return writer.write(img, out, percent -> {
+            if (cancelled.getAsBoolean()) {
+                writer.abort();
+            } else {
+                progress.accept(percent);
+            }
+        });
+    }
+
+    /**
+     * Reports a JDK writer's progress, and aborts its write once cancelled.
+     */
+    private static final class ProgressListener implements IIOWriteProgressListener {
+
+        /**
+         * Receives the whole percentage written, and says whether to stop.
+         */
+        private final IntConsumer progress;
+        private final BooleanSupplier cancelled;
+
+        /**
+         * Whether the write has been aborted.
+         */
+        private boolean aborted;
+
+        ProgressListener(IntConsumer progress, BooleanSupplier cancelled) {
+            this.progress = progress;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public void imageProgress(ImageWriter source, float percentageDone) {
+            if (cancelled.getAsBoolean()) {
+                aborted = true;
+                source.abort();
+                return;
+            }
+            progress.accept(Math.clamp((int) percentageDone, 0, 100));
+        }
+
+        @Override
+        public void imageStarted(ImageWriter source, int imageIndex) {
+        }
+
+        @Override
+        public void imageComplete(ImageWriter source) {
+            // Some writers stop reporting short of 100%.
+            progress.accept(100);
+        }
+
+        @Override
+        public void thumbnailStarted(ImageWriter source, int imageIndex, int thumbnailIndex) {
+        }
+
+        @Override
+        public void thumbnailProgress(ImageWriter source, float percentageDone) {
+        }
+
+        @Override
+        public void thumbnailComplete(ImageWriter source) {
+        }
+
+        @Override
+        public void writeAborted(ImageWriter source) {
+            aborted = true;
+        }
+    }
+}
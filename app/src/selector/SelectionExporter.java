@@ -0,0 +1,157 @@
+package selector;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.awt.image.RenderedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.SwingWorker;
+
+/**
+ * Encodes a selected region (see `SelectionModel.selectedRegion()`) as a PNG file on a background
+ * thread, so that saving a large selection does not freeze the UI.  The encode's percentage
+ * complete is reported as this worker's "progress" property, and cancelling the worker aborts it.
+ * <p>
+ * Rows are pulled from the region as a `PngEncoder` compresses them (by default
+ * `PngEncoder.preferred()`, which compresses in parallel given several processors), and written
+ * through a buffered `FileChannel`, so neither the cropped image nor the encoded file is held in
+ * memory.
+ * The file is written under a temporary name alongside the destination and only renamed into
+ * place once complete, so a failed or cancelled export never leaves a truncated image behind (or
+ * destroys the file it would have replaced).  The result is the file written.
+ */
+class SelectionExporter extends SwingWorker<File, Void> {
+
+    /**
+     * The zlib compression level PNG writers use by default.  Higher levels (up to 9) make smaller
+     * files but take longer to write; level 0 stores pixels uncompressed.  For a photograph the
+     * default is typically 3-5x slower than level 0 for a file about half the size, while level 9
+     * is slower still for a file barely smaller than the default's.
+     */
+    static final int DEFAULT_COMPRESSION_LEVEL = 4;
+
+    /**
+     * The size of the buffer between the PNG writer and the file channel.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Runs exports.  A single daemon thread suffices, since the user saves one selection at a
+     * time, and an export in progress must not keep the application from exiting.
+     */
+    private static final ExecutorService exporter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "selector-export");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * The pixels to encode.
+     */
+    private final RenderedImage region;
+
+    /**
+     * The file to write.
+     */
+    private final File file;
+
+    /**
+     * The zlib compression level to encode with, in [0..9].
+     */
+    private final int compressionLevel;
+
+    /**
+     * Encodes `region`.
+     */
+    private final PngEncoder encoder;
+
+    /**
+     * The last whole percentage of the encode reported.
+     */
+    private int lastPercent;
+
+    /**
+     * Create an exporter that will write `region` to `file` as a PNG image compressed at
+     * `compressionLevel`, which must be in [0..9], by `PngEncoder.preferred()`.  `region` will be
+     * read from a background thread, so it must not be modified once the exporter starts.  Call
+     * `start()` to start it.
+     */
+    SelectionExporter(RenderedImage region, File file, int compressionLevel) {
+        this(region, file, compressionLevel, PngEncoder.preferred());
+    }
+
+    /**
+     * Create an exporter that will write `region` to `file` as a PNG image compressed at
+     * `compressionLevel`, which must be in [0..9], by `encoder`.
+     */
+    SelectionExporter(RenderedImage region, File file, int compressionLevel,
+            PngEncoder encoder) {
+        if (compressionLevel < 0 || compressionLevel > 9) {
+            throw new IllegalArgumentException("Compression level must be in [0..9], not "
+                    + compressionLevel);
+        }
+        this.region = region;
+        this.file = file;
+        this.compressionLevel = compressionLevel;
+        this.encoder = encoder;
+    }
+
+    /**
+     * Return the file being written.
+     */
+    File file() {
+        return file;
+    }
+
+    /**
+     * Start exporting on our background thread.  Unlike `execute()`, this does not share the
+     * thread pool used by other `SwingWorker`s (e.g. an `ImageLoader`), so an export does not wait
+     * behind, or hold up, other background work.
+     */
+    void start() {
+        exporter.execute(this);
+    }
+
+    @Override
+    protected File doInBackground() throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".part");
+        boolean written = false;
+        try (FileChannel channel = FileChannel.open(temp, WRITE, CREATE, TRUNCATE_EXISTING);
+                OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel),
+                        BUFFER_SIZE)) {
+            written = encoder.write(region, out, compressionLevel, percent -> {
+                if (percent > lastPercent) {
+                    lastPercent = percent;
+                    setProgress(percent);
+                }
+            }, this::isCancelled);
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        if (!written) {
+            return null;
+        }
+        // Cancelling during the last rows or while the file is flushed must still leave the
+        //  destination untouched.
+        if (isCancelled()) {
+            Files.deleteIfExists(temp);
+            return null;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+}
@@ -2,9 +2,8 @@ package selector;
 
 import static selector.SelectionModel.SelectionState.*;
 
-import java.awt.Polygon;
-import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
 import java.awt.Point;
 import java.beans.PropertyChangeListener;
 import java.io.IOException;
@@ -12,7 +11,6 @@ import java.io.OutputStream;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import javax.imageio.ImageIO;
 import javax.swing.event.SwingPropertyChangeSupport;
 
 /**
@@ -151,6 +149,14 @@ public abstract class SelectionModel {
         propSupport.firePropertyChange("image", oldImg, img);
     }
 
+    /**
+     * Start any preprocessing this model will need in order to select from `img`, without waiting
+     * for it, so that it is ready (or under way) by the time `img` is set.  May be called from any
+     * thread, including before `img` has been displayed.  Does nothing by default.
+     */
+    public void prepareImage(BufferedImage img) {
+    }
+
     /**
      * If no selection has been started, start selecting from `p`.  Otherwise, if a selection is in
      * progress, append a segment from its last point to point `p`.  Subclasses determine the path
@@ -288,25 +294,30 @@ public abstract class SelectionModel {
     public abstract void movePoint(int index, Point newPos);
 
     /**
-     * Write a PNG image to `out` containing the pixels from the current selection.  The size of the
-     * image matches the bounding box of the selection, and pixels outside of the selection are
-     * transparent.  Throws an IOException if the image could not be written.  Throws an
+     * Return the pixels from the current selection as an image whose size matches the bounding box
+     * of the selection, with pixels outside of the selection transparent.  Pixels are rendered as
+     * they are read rather than copied up front, so the result is cheap to create even for a large
+     * selection, and is unaffected by later changes to the selection.  It may be read from another
+     * thread (e.g. by a `SelectionExporter`), but only by one thread at a time.  Throws an
      * IllegalStateException if our selection is not finished.
      */
-    public void saveSelection(OutputStream out) throws IOException {
+    public RenderedImage selectedRegion() {
         assert img != null;
         if (state != SELECTED) {
             throw new IllegalStateException("Must complete selection before saving");
         }
-        Polygon clip = PolyLine.makePolygon(selection);
-        Rectangle bounds = clip.getBounds();
-        clip.translate(-bounds.x, -bounds.y);
-        BufferedImage dst = new BufferedImage(bounds.width, bounds.height,
-                BufferedImage.TYPE_INT_ARGB);
-        var g = dst.createGraphics();
-        g.setClip(clip);
-        g.drawImage(img, -bounds.x, -bounds.y, null);
-        ImageIO.write(dst, "png", out);
+        return new ClippedImage(img, PolyLine.makePolygon(selection));
+    }
+
+    /**
+     * Write a PNG image to `out` containing the pixels from the current selection (see
+     * `selectedRegion()`), compressed at the default compression level by
+     * `PngEncoder.preferred()`.  Throws an IOException if the image could not be written.  Throws
+     * an IllegalStateException if our selection is not finished.
+     */
+    public void saveSelection(OutputStream out) throws IOException {
+        PngEncoder.preferred().write(selectedRegion(), out,
+                SelectionExporter.DEFAULT_COMPRESSION_LEVEL, percent -> {}, () -> false);
     }
 
     /* Specialization interface */
@@ -11,6 +11,7 @@ import java.beans.PropertyChangeListener;
 import java.io.*;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.filechooser.FileNameExtensionFilter;
@@ -51,6 +52,15 @@ public class SelectorApp implements PropertyChangeListener {
 
     private JProgressBar processingProgress;
 
+    /**
+     * Decodes the image being opened, or null if no image is being loaded.
+     */
+    private ImageLoader loader;
+
+    /**
+     * Writes the selection being saved, or null if no selection is being saved.
+     */
+    private SelectionExporter exporter;
 
     /**
      * Construct a new application instance.  Initializes GUI components, so must be invoked on the
@@ -130,7 +140,10 @@ public class SelectorApp implements PropertyChangeListener {
 
         // Controller: Attach menu item listeners
         openItem.addActionListener(e -> openImage());
-        closeItem.addActionListener(e -> imgPanel.setImage(null));
+        closeItem.addActionListener(e -> {
+            cancelLoading();
+            imgPanel.setImage(null);
+        });
         saveItem.addActionListener(e -> saveSelection());
         exitItem.addActionListener(e -> frame.dispose());
         undoItem.addActionListener(e -> model.undo());
@@ -154,7 +167,8 @@ public class SelectorApp implements PropertyChangeListener {
 
         finishButton = new JButton("Finish");
 
-        String[] models = new String[]{"Point-to-point", "Intelligent Scissors", "RGB Scissors"};
+        String[] models = new String[]{"Point-to-point", "Intelligent Scissors", "RGB Scissors",
+                "Fast Scissors (large images)"};
         selectionModelOptions = new JComboBox(models);
 
 
@@ -173,6 +187,9 @@ public class SelectorApp implements PropertyChangeListener {
             }else if(selectionModelOptions.getSelectedItem().equals("RGB Scissors")){
                 SelectionModel newModel = new ScissorsSelectionModel("RGBWeight", model);
                 setSelectionModel(newModel);
+            }else if(selectionModelOptions.getSelectedItem().equals("Fast Scissors (large images)")){
+                SelectionModel newModel = new ScissorsSelectionModel("Pyramid:CrossGradMono", model);
+                setSelectionModel(newModel);
             }
         });
 
@@ -301,9 +318,8 @@ public class SelectorApp implements PropertyChangeListener {
     }
 
     /**
-     * Allow the user to choose a new image from an "open" dialog.  If they do, start displaying and
-     * selecting from that image.  Show an error message dialog (and retain any previous image) if
-     * the chosen image could not be opened.
+     * Allow the user to choose a new image from an "open" dialog.  If they do, load that image in
+     * the background (see `loadImage()`).
      */
     private void openImage() {
         JFileChooser chooser = new JFileChooser();
@@ -313,34 +329,92 @@ public class SelectorApp implements PropertyChangeListener {
         chooser.setFileFilter(new FileNameExtensionFilter("Image files",
                 ImageIO.getReaderFileSuffixes()));
 
-        boolean imageCanLoad = true;
-
-        while(imageCanLoad){
-            int returnVal = chooser.showOpenDialog(imgPanel);
-            if (returnVal == JFileChooser.APPROVE_OPTION){
-                File selectedFile = chooser.getSelectedFile();
-                BufferedImage selectedImage = null;
-                try {
-                    selectedImage = ImageIO.read(selectedFile);
-                    if (selectedImage == null){
-                        JOptionPane.showMessageDialog(imgPanel,"Could not read the image at " + selectedFile.getPath(),"Unsupported image format",JOptionPane.ERROR_MESSAGE);
-                    }else{
-                        this.setImage(selectedImage);
-                        break;
-                    }
-                } catch (IOException e) {
-                    JOptionPane.showMessageDialog(imgPanel,"Error loading image: " + e.getMessage(),"Image Load Error",JOptionPane.ERROR_MESSAGE);
+        int returnVal = chooser.showOpenDialog(imgPanel);
+        if (returnVal == JFileChooser.APPROVE_OPTION) {
+            loadImage(chooser.getSelectedFile());
+        }
+    }
+
+    /**
+     * Decode the image in `file` on a worker thread, abandoning any image still being loaded.  The
+     * image is displayed as it is decoded, with the progress bar showing how much has been read,
+     * while the current selection model's preprocessing for it starts as soon as it is decoded.
+     * Once it has loaded, start displaying and selecting from it.  If it could not be opened, show
+     * an error message dialog, retain any previous image, and let the user choose another.
+     */
+    private void loadImage(File file) {
+        cancelLoading();
+        loader = new ImageLoader(file, model::prepareImage) {
+            @Override
+            protected void process(List<BufferedImage> previews) {
+                if (loader == this) {
+                    imgPanel.showPreview(previews.getLast());
                 }
-            }else{
-                imageCanLoad = false;
             }
+
+            @Override
+            protected void done() {
+                if (loader == this) {
+                    finishLoading(this);
+                }
+            }
+        };
+        ImageLoader started = loader;
+        started.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName()) && loader == started) {
+                processingProgress.setValue((Integer) e.getNewValue());
+            }
+        });
+        statusLabel.setText("Loading " + file.getName() + "...");
+        started.execute();
+    }
+
+    /**
+     * Start displaying and selecting from the image decoded by `finished`, which must be our
+     * loader and done, or report why it could not be loaded.
+     */
+    private void finishLoading(ImageLoader finished) {
+        loader = null;
+        processingProgress.setValue(0);
+        reflectSelectionState(model.state());
+        String path = finished.file().getPath();
+        try {
+            BufferedImage img = finished.get();
+            if (img != null) {
+                setImage(img);
+                return;
+            }
+            imgPanel.endPreview();
+            JOptionPane.showMessageDialog(imgPanel, "Could not read the image at " + path,
+                    "Unsupported image format", JOptionPane.ERROR_MESSAGE);
+        } catch (ExecutionException e) {
+            imgPanel.endPreview();
+            JOptionPane.showMessageDialog(imgPanel, "Error loading image: "
+                    + e.getCause().getMessage(), "Image Load Error", JOptionPane.ERROR_MESSAGE);
+        } catch (InterruptedException e) {
+            // `get()` does not block once the loader is done, so this cannot happen.
+            throw new AssertionError(e);
         }
+        openImage();
+    }
 
+    /**
+     * Abandon the image being loaded, if any, and go back to displaying our current image.
+     */
+    private void cancelLoading() {
+        if (loader != null) {
+            loader.cancel(true);
+            loader = null;
+            imgPanel.endPreview();
+            processingProgress.setValue(0);
+            reflectSelectionState(model.state());
+        }
     }
 
     /**
-     * Save the selected region of the current image to a file selected from a "save" dialog.
-     * Show an error message dialog if the image could not be saved.
+     * Save the selected region of the current image to a file selected from a "save" dialog, whose
+     * accessory chooses the PNG compression level.  A ".png" extension is added to the file name if
+     * it lacks one.  The image is encoded in the background (see `exportSelection()`).
      */
     private void saveSelection() {
         JFileChooser chooser = new JFileChooser();
@@ -349,30 +423,79 @@ public class SelectorApp implements PropertyChangeListener {
         // We always save in PNG format, so only show existing PNG files
         chooser.setFileFilter(new FileNameExtensionFilter("PNG images", "png"));
 
-        boolean imageCanSave = true;
-
-        while(imageCanSave){
-            int returnVal = chooser.showSaveDialog(null);
-        if (returnVal == JFileChooser.APPROVE_OPTION){
+        // Let the user trade file size for speed
+        JSlider level = new JSlider(0, 9, SelectionExporter.DEFAULT_COMPRESSION_LEVEL);
+        level.setMajorTickSpacing(1);
+        level.setSnapToTicks(true);
+        level.setPaintTicks(true);
+        level.setPaintLabels(true);
+        JPanel accessory = new JPanel(new BorderLayout());
+        accessory.setBorder(BorderFactory.createTitledBorder("Compression"));
+        accessory.add(level, BorderLayout.CENTER);
+        accessory.add(new JLabel("0 = fastest, 9 = smallest"), BorderLayout.PAGE_END);
+        chooser.setAccessory(accessory);
+
+        int returnVal = chooser.showSaveDialog(imgPanel);
+        if (returnVal == JFileChooser.APPROVE_OPTION) {
             File selectedFile = chooser.getSelectedFile();
-            if (!selectedFile.getAbsolutePath().endsWith(".png")){
-                //Renames chosen file to save in if it does not end with ".png"
-                selectedFile.renameTo(new File(chooser.getSelectedFile().getName() + "png"));
-            }
-            try {
-                //Save selected region of the current image to selected file
-                model.saveSelection(new FileOutputStream(selectedFile));
-                break;
-            } catch (IOException ex) {
-                //Acts appropriately if failed to save
-                JOptionPane.showMessageDialog(imgPanel,"Error saving image: " + ex.getMessage(), String.valueOf(ex.getClass()),JOptionPane.ERROR_MESSAGE);
-                imageCanSave = false;
+            if (!selectedFile.getName().toLowerCase().endsWith(".png")) {
+                selectedFile = new File(selectedFile.getParentFile(),
+                        selectedFile.getName() + ".png");
             }
-        }else{
-            imageCanSave = false;
+            exportSelection(selectedFile, level.getValue());
         }
     }
+
+    /**
+     * Write the selected region of the current image to `file` as a PNG image compressed at
+     * `compressionLevel` on a background thread, abandoning any export still in progress.  A
+     * progress dialog with a "Cancel" button is shown if the export takes a while.  Show an error
+     * message dialog if the image could not be saved.
+     */
+    private void exportSelection(File file, int compressionLevel) {
+        if (exporter != null) {
+            exporter.cancel(true);
         }
+        SelectionExporter started = new SelectionExporter(model.selectedRegion(), file,
+                compressionLevel);
+        ProgressMonitor monitor = new ProgressMonitor(frame, "Saving " + file.getName(), null, 0,
+                100);
+        exporter = started;
+        started.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                monitor.setProgress((Integer) e.getNewValue());
+                if (monitor.isCanceled()) {
+                    started.cancel(true);
+                }
+            } else if ("state".equals(e.getPropertyName())
+                    && e.getNewValue() == SwingWorker.StateValue.DONE) {
+                monitor.close();
+                if (exporter == started) {
+                    exporter = null;
+                }
+                reportExport(started);
+            }
+        });
+        started.start();
+    }
+
+    /**
+     * Show an error message dialog if `finished`, which must be done, failed to save its image.
+     */
+    private void reportExport(SelectionExporter finished) {
+        if (finished.isCancelled()) {
+            return;
+        }
+        try {
+            finished.get();
+        } catch (ExecutionException e) {
+            JOptionPane.showMessageDialog(imgPanel, "Error saving image: "
+                    + e.getCause().getMessage(), "Image Save Error", JOptionPane.ERROR_MESSAGE);
+        } catch (InterruptedException e) {
+            // `get()` does not block once the exporter is done, so this cannot happen.
+            throw new AssertionError(e);
+        }
+    }
 
     /**
      * Run an instance of SelectorApp.  No program arguments are expected.
@@ -0,0 +1,122 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for `BidirectionalShortestPaths`, checked against the distances found by `ShortestPaths`
+ * on the graphs from `ShortestPathsTest`.
+ */
+class BidirectionalShortestPathsTest {
+
+    /**
+     * Return the total weight of the edges along `path` in `g`, asserting that each edge exists.
+     */
+    static int pathWeight(SimpleGraph g, List<Integer> path) {
+        int total = 0;
+        for (int i = 1; i < path.size(); ++i) {
+            int endId = path.get(i);
+            SimpleEdge edge = g.getVertex(path.get(i - 1)).outgoingEdges().stream()
+                    .filter(e -> e.endId() == endId)
+                    .min((a, b) -> Integer.compare(a.weight(), b.weight()))
+                    .orElseThrow();
+            total += edge.weight();
+        }
+        return total;
+    }
+
+    @DisplayName("WHEN a path is found between any pair of vertices, THEN it will lead from the "
+            + "source to the destination with the shortest distance, AND unreachable pairs will "
+            + "throw an IllegalArgumentException")
+    @Test
+    void testAllPairs() {
+        for (String text : List.of(ShortestPathsTest.graph1, ShortestPathsTest.graph2)) {
+            SimpleGraph g = SimpleGraph.fromText(text);
+            BidirectionalSimpleGraph bg = new BidirectionalSimpleGraph(g);
+            Weigher<SimpleEdge> w = new BoundedSimpleWeigher(37);
+            BidirectionalShortestPaths<SimpleVertex, SimpleEdge> solver =
+                    new BidirectionalShortestPaths<>(bg, w);
+            for (int src = 0; src < g.vertexCount(); ++src) {
+                PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(src);
+                for (int dst = 0; dst < g.vertexCount(); ++dst) {
+                    if (expected.discovered(dst)) {
+                        List<Integer> path = solver.pathBetween(src, dst);
+                        assertEquals(src, path.getFirst());
+                        assertEquals(dst, path.getLast());
+                        assertEquals(expected.distanceTo(dst), pathWeight(g, path));
+                    } else {
+                        int s = src;
+                        int d = dst;
+                        assertThrows(IllegalArgumentException.class,
+                                () -> solver.pathBetween(s, d));
+                    }
+                }
+            }
+        }
+    }
+
+    @DisplayName("WHEN paths to several targets are found, THEN each will lead from the start to "
+            + "its target with the shortest distance, in the order of the targets, AND an "
+            + "unreachable target's path will be null")
+    @Test
+    void testPathsBetween() {
+        SimpleGraph g = SimpleGraph.fromText(ShortestPathsTest.graph1);
+        Weigher<SimpleEdge> w = new SimpleWeigher();
+        PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(0);
+        int b = g.getVertexByLabel("B").id();
+        int gId = g.getVertexByLabel("G").id();
+
+        BidirectionalShortestPaths<SimpleVertex, SimpleEdge> solver =
+                new BidirectionalShortestPaths<>(new BidirectionalSimpleGraph(g), w);
+        int[] targetIds = {b, gId, 0};
+        List<List<Integer>> paths = solver.pathsBetween(0, targetIds);
+        assertEquals(targetIds.length, paths.size());
+        for (int i = 0; i < targetIds.length; ++i) {
+            List<Integer> path = paths.get(i);
+            assertEquals(0, path.getFirst());
+            assertEquals(targetIds[i], path.getLast());
+            assertEquals(expected.distanceTo(targetIds[i]), pathWeight(g, path));
+        }
+        // The shortest path to G is A-C-E-F-G, which avoids D
+        assertFalse(paths.get(1).contains(g.getVertexByLabel("D").id()));
+        assertTrue(solver.settledCount() > 0);
+
+        // Nothing leaves G
+        assertEquals(Arrays.asList((List<Integer>) null), solver.pathsBetween(gId, new int[]{b}));
+
+        // The paths are copies, which later queries leave alone
+        List<Integer> toG = List.copyOf(paths.get(1));
+        solver.pathBetween(b, gId);
+        assertEquals(toG, paths.get(1));
+    }
+}
+
+/**
+ * A view of a SimpleGraph that also supports visiting the edges entering a vertex (by scanning all
+ * edges, which is fine for small test graphs).
+ */
+class BidirectionalSimpleGraph extends IntSimpleGraph
+        implements BidirectionalGraph<SimpleVertex, SimpleEdge> {
+
+    private final SimpleGraph graph;
+
+    BidirectionalSimpleGraph(SimpleGraph graph) {
+        super(graph);
+        this.graph = graph;
+    }
+
+    @Override
+    public void forEachIncoming(int id, Weigher<SimpleEdge> weigher, IntEdgeVisitor visitor) {
+        for (int startId = 0; startId < graph.vertexCount(); ++startId) {
+            for (SimpleEdge e : graph.getVertex(startId).outgoingEdges()) {
+                if (e.endId() == id) {
+                    visitor.visit(startId, 0, weigher.weight(e));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for `DeltaSteppingPaths`, checked against the distances found by `ShortestPaths`.
+ */
+class DeltaSteppingPathsTest {
+
+    /**
+     * A pool with several threads, whatever the number of processors running the tests.
+     */
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterAll
+    static void shutDown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Return a `width`x`height` grid graph whose vertices are connected to their horizontal and
+     * vertical neighbors by undirected edges of random weights in [0..maxWeight].
+     */
+    static SimpleGraph randomGrid(int width, int height, int maxWeight, Random rng) {
+        SimpleGraph g = new SimpleGraph();
+        for (int id = 0; id < width * height; ++id) {
+            g.addVertex(Integer.toString(id));
+        }
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                int id = x + y * width;
+                if (x + 1 < width) {
+                    int weight = rng.nextInt(maxWeight + 1);
+                    g.addEdge(id, id + 1, weight);
+                    g.addEdge(id + 1, id, weight);
+                }
+                if (y + 1 < height) {
+                    int weight = rng.nextInt(maxWeight + 1);
+                    g.addEdge(id, id + width, weight);
+                    g.addEdge(id + width, id, weight);
+                }
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Assert that `paths` has settled exactly the vertices of `g` that `expected` has, with the
+     * same distances, along paths of those weights.
+     */
+    static void assertSamePaths(SimpleGraph g, PathfindingSnapshot expected,
+            PathfindingSnapshot paths) {
+        for (int id = 0; id < g.vertexCount(); ++id) {
+            assertEquals(expected.settled(id), paths.settled(id));
+            assertEquals(expected.distanceTo(id), paths.distanceTo(id));
+            if (expected.settled(id)) {
+                List<Integer> path = paths.pathTo(id);
+                assertEquals(expected.start(), path.getFirst());
+                assertEquals(expected.distanceTo(id),
+                        BidirectionalShortestPathsTest.pathWeight(g, path));
+            }
+        }
+    }
+
+    @DisplayName("WHEN all paths are found with any bucket width, THEN they will have the same "
+            + "distances as those found by Dijkstra's algorithm")
+    @Test
+    void testSmallGraphs() {
+        for (String text : List.of(ShortestPathsTest.graph1, ShortestPathsTest.graph2)) {
+            SimpleGraph g = SimpleGraph.fromText(text);
+            Weigher<SimpleEdge> w = new BoundedSimpleWeigher(37);
+            for (int delta : new int[]{1, 5, 16, 37, 100}) {
+                DeltaSteppingPaths<SimpleVertex, SimpleEdge> solver =
+                        new DeltaSteppingPaths<>(g, w, pool, delta);
+                for (int start = 0; start < g.vertexCount(); ++start) {
+                    PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(start);
+                    assertSamePaths(g, expected, solver.findAllPaths(start));
+                }
+            }
+        }
+    }
+
+    @DisplayName("WHEN buckets are large enough to be relaxed in parallel, THEN the distances will "
+            + "be the same as those found by Dijkstra's algorithm")
+    @Test
+    void testParallel() {
+        SimpleGraph g = randomGrid(120, 100, 20, new Random(1));
+        Weigher<SimpleEdge> w = new BoundedSimpleWeigher(20);
+        PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(5050);
+        // With every edge light, the first bucket holds every vertex; otherwise, most edges are
+        //  heavy.
+        for (int delta : new int[]{20, 1000, 3}) {
+            DeltaSteppingPaths<SimpleVertex, SimpleEdge> solver =
+                    new DeltaSteppingPaths<>(g, w, pool, delta);
+            assertSamePaths(g, expected, solver.findAllPaths(5050));
+            assertEquals(g.vertexCount(), solver.settledCount());
+        }
+    }
+
+    @DisplayName("WHEN a search is extended in steps, THEN each step will settle at least the "
+            + "requested number of vertices, AND earlier snapshots will be unchanged")
+    @Test
+    void testExtendSearch() {
+        SimpleGraph g = randomGrid(30, 30, 9, new Random(2));
+        Weigher<SimpleEdge> w = new BoundedSimpleWeigher(9);
+        PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(0);
+        DeltaSteppingPaths<SimpleVertex, SimpleEdge> solver =
+                new DeltaSteppingPaths<>(g, w, pool, 2);
+        solver.setStart(0);
+
+        PathfindingSnapshot first = solver.extendSearch(50);
+        int firstSettled = solver.settledCount();
+        assertTrue(firstSettled >= 50 && firstSettled < g.vertexCount());
+        int settled = 0;
+        for (int id = 0; id < g.vertexCount(); ++id) {
+            if (first.settled(id)) {
+                settled += 1;
+                assertEquals(expected.distanceTo(id), first.distanceTo(id));
+            }
+        }
+        assertEquals(firstSettled, settled);
+
+        while (!solver.allPathsFound()) {
+            int before = solver.settledCount();
+            solver.extendSearch(100);
+            assertTrue(solver.settledCount() >= before + 100 || solver.allPathsFound());
+        }
+        assertEquals(g.vertexCount(), solver.settledCount());
+        int stillSettled = 0;
+        for (int id = 0; id < g.vertexCount(); ++id) {
+            stillSettled += first.settled(id) ? 1 : 0;
+        }
+        assertEquals(firstSettled, stillSettled);
+    }
+
+    @DisplayName("WHEN one solver searches from many starts, some abandoned part way through, THEN "
+            + "each search will find the same distances as Dijkstra's algorithm, unaffected by "
+            + "those before it")
+    @Test
+    void testReuse() {
+        SimpleGraph g = randomGrid(60, 50, 15, new Random(3));
+        Weigher<SimpleEdge> w = new BoundedSimpleWeigher(15);
+        DeltaSteppingPaths<SimpleVertex, SimpleEdge> solver =
+                new DeltaSteppingPaths<>(g, w, pool, 4);
+        Random rng = new Random(4);
+        for (int i = 0; i < 20; ++i) {
+            int start = rng.nextInt(g.vertexCount());
+            if (i % 2 == 0) {
+                solver.setStart(start);
+                solver.extendSearch(1 + rng.nextInt(g.vertexCount()));
+            } else {
+                PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(start);
+                assertSamePaths(g, expected, solver.findAllPaths(start));
+                assertEquals(g.vertexCount(), solver.settledCount());
+            }
+        }
+    }
+
+    @DisplayName("WHEN a path weighs more than an `int` distance can hold, THEN the search will "
+            + "throw ArithmeticException rather than find wrong paths")
+    @Test
+    void testOverflow() {
+        SimpleGraph g = new SimpleGraph();
+        for (int id = 0; id < 4; ++id) {
+            g.addVertex(Integer.toString(id));
+            if (id > 0) {
+                g.addEdge(id - 1, id, 1 << 30);
+            }
+        }
+        Weigher<SimpleEdge> w = new BoundedSimpleWeigher(1 << 30);
+        for (int delta : new int[]{1 << 15, 1 << 30}) {
+            DeltaSteppingPaths<SimpleVertex, SimpleEdge> solver =
+                    new DeltaSteppingPaths<>(g, w, pool, delta);
+            assertThrows(ArithmeticException.class, () -> solver.findAllPaths(0));
+            assertEquals(1 << 30, solver.findAllPaths(2).distanceTo(3));
+        }
+    }
+
+    @DisplayName("WHEN a solver made by `SolverEngine.DELTA_STEPPING` settles until a target "
+            + "within a budget, THEN it will report whether the target was settled, AND its paths "
+            + "and settled tree will match Dijkstra's algorithm's")
+    @Test
+    void testPathSolver() {
+        SimpleGraph g = randomGrid(40, 40, 9, new Random(5));
+        Weigher<SimpleEdge> w = new BoundedSimpleWeigher(9);
+        PathSolver solver = SolverEngine.parse("delta-stepping").make(g, w);
+        assertInstanceOf(DeltaSteppingPaths.class, solver);
+        assertEquals(g.vertexCount(), solver.vertexCount());
+        assertThrows(IllegalStateException.class, solver::settledTree);
+
+        int start = 0;
+        int target = g.vertexCount() - 1;
+        PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(start);
+        solver.setStart(start);
+        assertFalse(solver.settleUntil(target, 10));
+        assertTrue(solver.settledCount() >= 10 && solver.settledCount() < g.vertexCount());
+        assertThrows(IllegalArgumentException.class, () -> solver.pathTo(target));
+        assertTrue(solver.settleUntil(target));
+        List<Integer> path = solver.pathTo(target);
+        assertEquals(start, path.getFirst());
+        assertEquals(target, path.getLast());
+        assertEquals(expected.distanceTo(target), BidirectionalShortestPathsTest.pathWeight(g,
+                path));
+
+        SettledPathTree tree = solver.settledTree();
+        assertEquals(solver.settledCount(), tree.settledCount());
+        assertEquals(path, tree.pathTo(target));
+        solver.findAllPaths(target);
+        assertEquals(path, tree.pathTo(target));
+    }
+}
@@ -214,9 +214,73 @@ class MinQueueTest {
 
     /**
      * Helper method for constructing new, empty MinQueues.  Convenient for testing different
-     * implementations.
+     * implementations: subclasses override it to run this suite against another implementation.
      */
-    static MinQueue<Integer> makeQueue() {
+    MinQueue<Integer> makeQueue() {
         return new HeapMinQueue<>();
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Runs the MinQueue test suite against `IntHeapMinQueue`.  Keys used by the suite are all less than
+ * 100.
+ */
+class IntHeapMinQueueTest extends MinQueueTest {
+    @Override
+    MinQueue<Integer> makeQueue() {
+        return new IntHeapMinQueue(100);
+    }
+}
+
+/**
+ * Runs the MinQueue test suite against a 4-ary `IntHeapMinQueue`.
+ */
+class IntHeap4MinQueueTest extends MinQueueTest {
+    @Override
+    MinQueue<Integer> makeQueue() {
+        return new IntHeapMinQueue(100, 4);
+    }
+}
+
+/**
+ * Runs the MinQueue test suite against an 8-ary `IntHeapMinQueue`.
+ */
+class IntHeap8MinQueueTest extends MinQueueTest {
+    @Override
+    MinQueue<Integer> makeQueue() {
+        return new IntHeapMinQueue(100, 8);
+    }
+}
+
+/**
+ * Runs the MinQueue test suite against `LazyHeapMinQueue`.
+ */
+class LazyHeapMinQueueTest extends MinQueueTest {
+    @Override
+    MinQueue<Integer> makeQueue() {
+        return new LazyHeapMinQueue(100);
+    }
+
+    @DisplayName("GIVEN a lazy heap, WHEN elements' priorities are changed, THEN each change will "
+            + "be counted as a duplicate push, AND the stale entries will not be returned")
+    @Test
+    void testDuplicatePushes() {
+        LazyHeapMinQueue q = new LazyHeapMinQueue(10);
+        q.addOrUpdate(1, 5);
+        q.addOrUpdate(2, 6);
+        q.addOrUpdate(1, 3);
+        q.addOrUpdate(2, 6);
+        q.addOrUpdate(2, 9);
+        assertEquals(2, q.duplicatePushes());
+        assertEquals(4, q.entries());
+        assertEquals(2, q.size());
+
+        assertEquals(1, q.removeInt());
+        assertEquals(9, q.minPriority());
+        assertEquals(2, q.removeInt());
+        assertTrue(q.isEmpty());
+
+        q.clear();
+        assertEquals(0, q.duplicatePushes());
+    }
+}
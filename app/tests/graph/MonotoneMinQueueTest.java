@@ -0,0 +1,173 @@
+package graph;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for monotone `IntMinQueue`s, which only need to support the access pattern of a Dijkstra
+ * frontier: no priority may be smaller than the last minimum removed, and (for some
+ * implementations) no priority may exceed it by more than a fixed spread.
+ */
+class MonotoneMinQueueTest {
+
+    /**
+     * The largest amount by which a priority in these tests exceeds the current minimum.
+     */
+    static final int SPREAD = 16;
+
+    @DisplayName("WHEN a new monotone queue is created, THEN it will be empty, AND querying or "
+            + "removing its minimum will throw a NoSuchElementException")
+    @Test
+    void testNew() {
+        IntMinQueue q = makeQueue(10);
+
+        assertTrue(q.isEmpty());
+        assertThrows(NoSuchElementException.class, () -> q.getInt());
+        assertThrows(NoSuchElementException.class, () -> q.minPriority());
+        assertThrows(NoSuchElementException.class, () -> q.removeInt());
+    }
+
+    @DisplayName("GIVEN a monotone queue used like a Dijkstra frontier, WHEN elements are "
+            + "successively removed, THEN each will have the smallest priority in the queue")
+    @Test
+    void testFrontierOrder() {
+        int n = 500;
+        IntMinQueue q = makeQueue(n);
+        // Reference priorities; -1 for elements not in the queue, -2 for removed ones
+        int[] pri = new int[n];
+        Arrays.fill(pri, -1);
+        Random rng = new Random(1);
+
+        q.addOrUpdate(0, 3);
+        pri[0] = 3;
+        int removed = 0;
+        while (!q.isEmpty()) {
+            int min = Arrays.stream(pri).filter(p -> p >= 0).min().getAsInt();
+            assertEquals(min, q.minPriority());
+            int key = q.getInt();
+            assertEquals(key, q.removeInt());
+            assertEquals(min, pri[key]);
+            pri[key] = -2;
+            removed += 1;
+
+            // "Relax" a few edges from the removed element
+            for (int i = 0; i < 4; ++i) {
+                int other = rng.nextInt(n);
+                int p = min + rng.nextInt(SPREAD + 1);
+                if (pri[other] == -1 || (pri[other] >= 0 && p < pri[other])) {
+                    q.addOrUpdate(other, p);
+                    pri[other] = p;
+                }
+            }
+            assertEquals(Arrays.stream(pri).filter(p -> p >= 0).count(), q.size());
+        }
+        assertTrue(removed > n / 2);
+    }
+
+    @DisplayName("GIVEN a non-empty monotone queue, WHEN it is cleared, THEN it will be empty AND "
+            + "previously contained elements can be added again")
+    @Test
+    void testClear() {
+        IntMinQueue q = makeQueue(20);
+        for (int i = 0; i < 20; i += 1) {
+            q.addOrUpdate(i, 100 + i % SPREAD);
+        }
+        q.removeInt();
+
+        q.clear();
+        assertTrue(q.isEmpty());
+        assertEquals(0, q.size());
+
+        q.addOrUpdate(5, 7);
+        q.addOrUpdate(6, 9);
+        assertEquals(2, q.size());
+        assertEquals(5, q.removeInt());
+        assertEquals(6, q.removeInt());
+        assertTrue(q.isEmpty());
+    }
+
+    @DisplayName("GIVEN a monotone queue containing an element x, WHEN x's priority is reduced, "
+            + "THEN the queue's size will not change AND x will be removed in its new order")
+    @Test
+    void testDecreaseKey() {
+        IntMinQueue q = makeQueue(10);
+        q.addOrUpdate(1, 4);
+        q.addOrUpdate(2, 8);
+        q.addOrUpdate(3, 6);
+
+        q.addOrUpdate(2, 5);
+        assertEquals(3, q.size());
+        assertEquals(1, q.removeInt());
+        assertEquals(2, q.removeInt());
+        assertEquals(3, q.removeInt());
+    }
+
+    /**
+     * Helper method for constructing new, empty monotone queues that can hold elements in
+     * `[0..capacity)` with priorities at most `SPREAD` above the minimum.  Subclasses override it
+     * to run this suite against another implementation.
+     */
+    IntMinQueue makeQueue(int capacity) {
+        return new BucketMinQueue(capacity, SPREAD);
+    }
+}
+
+/**
+ * Runs the monotone queue test suite against `RadixMinQueue`.
+ */
+class RadixMinQueueTest extends MonotoneMinQueueTest {
+    @Override
+    IntMinQueue makeQueue(int capacity) {
+        return new RadixMinQueue(capacity);
+    }
+
+    @DisplayName("GIVEN a radix queue, WHEN priorities spanning many bits are added, THEN they will "
+            + "be removed in order, AND a priority below the last minimum will be rejected")
+    @Test
+    void testWideRange() {
+        RadixMinQueue q = new RadixMinQueue(10);
+        int[] priorities = {1 << 30, 7, 1 << 20, 8, 1_000_003, Integer.MAX_VALUE, 7 + (1 << 12)};
+        for (int i = 0; i < priorities.length; ++i) {
+            q.addOrUpdate(i, priorities[i]);
+        }
+        int[] sorted = priorities.clone();
+        Arrays.sort(sorted);
+        for (int p : sorted) {
+            assertEquals(p, q.minPriority());
+            assertEquals(p, priorities[q.removeInt()]);
+            if (!q.isEmpty()) {
+                assertThrows(IllegalArgumentException.class, () -> q.addOrUpdate(9, p - 1));
+            }
+        }
+    }
+}
+
+/**
+ * Tests specific to the fixed priority window of `BucketMinQueue`.
+ */
+class BucketMinQueueTest {
+
+    @DisplayName("GIVEN a bucket queue, WHEN a priority is added that is below the current minimum "
+            + "OR beyond its spread, THEN an IllegalArgumentException will be thrown")
+    @Test
+    void testWindow() {
+        BucketMinQueue q = new BucketMinQueue(10, 4);
+        q.addOrUpdate(0, 10);
+        q.addOrUpdate(1, 14);
+        assertThrows(IllegalArgumentException.class, () -> q.addOrUpdate(2, 15));
+        assertThrows(IllegalArgumentException.class, () -> q.addOrUpdate(2, 9));
+        assertThrows(IllegalArgumentException.class, () -> q.addOrUpdate(2, -1));
+
+        // The window slides forward as the minimum is removed
+        assertEquals(0, q.removeInt());
+        assertEquals(1, q.removeInt());
+        q.addOrUpdate(2, 18);
+        assertThrows(IllegalArgumentException.class, () -> q.addOrUpdate(3, 13));
+        assertEquals(18, q.minPriority());
+    }
+}
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Scanner;
 import java.util.Set;
 import org.junit.jupiter.api.DisplayName;
@@ -129,6 +130,379 @@ class ShortestPathsTest {
         assertFalse(paths.settled(b.id()));
     }
 
+    @DisplayName("WHEN the weigher declares a maximum edge weight, THEN the paths found will have the "
+            + "same distances as with an unbounded weigher")
+    @Test
+    void testBoundedWeigher() {
+        for (String text : List.of(graph1, graph2)) {
+            SimpleGraph g = SimpleGraph.fromText(text);
+            PathfindingSnapshot expected = new ShortestPaths<>(g, new SimpleWeigher())
+                    .findAllPaths(0);
+            PathfindingSnapshot paths = new ShortestPaths<>(g, new BoundedSimpleWeigher(37))
+                    .findAllPaths(0);
+            for (int id = 0; id < g.vertexCount(); ++id) {
+                assertEquals(expected.distanceTo(id), paths.distanceTo(id));
+                assertTrue(paths.settled(id));
+            }
+        }
+    }
+
+    @DisplayName("WHEN the frontier is made by a queue factory, THEN the paths found will have the "
+            + "same distances as with the default frontier")
+    @Test
+    void testFrontierFactory() {
+        SimpleGraph g = SimpleGraph.fromText(graph1);
+        Weigher<SimpleEdge> w = new SimpleWeigher();
+        PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(0);
+        ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(g, w,
+                (n, maxWeight) -> new RadixMinQueue(n));
+        PathfindingSnapshot paths = pathfinder.findAllPaths(0);
+        assertTrue(pathfinder.allPathsFound());
+        for (int id = 0; id < g.vertexCount(); ++id) {
+            assertEquals(expected.distanceTo(id), paths.distanceTo(id));
+        }
+    }
+
+    @DisplayName("WHEN any frontier strategy is used, THEN the paths found will have the same "
+            + "distances")
+    @Test
+    void testFrontierStrategies() {
+        SimpleGraph g = SimpleGraph.fromText(graph2);
+        PathfindingSnapshot expected = new ShortestPaths<>(g, new SimpleWeigher())
+                .findAllPaths(0);
+        for (FrontierStrategy strategy : FrontierStrategy.values()) {
+            PathfindingSnapshot paths = new ShortestPaths<>(g, new BoundedSimpleWeigher(6),
+                    strategy).findAllPaths(0);
+            for (int id = 0; id < g.vertexCount(); ++id) {
+                assertEquals(expected.distanceTo(id), paths.distanceTo(id), strategy.name());
+            }
+        }
+
+        assertEquals(FrontierStrategy.BINARY_HEAP, FrontierStrategy.parse(" binary-heap"));
+        assertThrows(IllegalArgumentException.class, () -> FrontierStrategy.parse("fibonacci"));
+    }
+
+    @DisplayName("WHEN the graph can visit edges as primitives, THEN the paths found will be the "
+            + "same as when iterating over `Edge` objects")
+    @Test
+    void testIntGraph() {
+        for (String text : List.of(graph1, graph2)) {
+            SimpleGraph g = SimpleGraph.fromText(text);
+            Weigher<SimpleEdge> w = new SimpleWeigher();
+            PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(0);
+            IntSimpleGraph intGraph = new IntSimpleGraph(g);
+            PathfindingSnapshot paths = new ShortestPaths<>(intGraph, w).findAllPaths(0);
+            assertTrue(intGraph.visits > 0);
+            for (int id = 0; id < g.vertexCount(); ++id) {
+                assertEquals(expected.distanceTo(id), paths.distanceTo(id));
+                assertEquals(expected.pathTo(id), paths.pathTo(id));
+            }
+        }
+    }
+
+    @DisplayName("WHEN a search is resumed until successively farther targets are settled, THEN "
+            + "each target's path will be the shortest, AND no more vertices will be settled than "
+            + "are as close as the target")
+    @Test
+    void testSettleUntil() {
+        SimpleGraph g = SimpleGraph.fromText(graph1);
+        Weigher<SimpleEdge> w = new SimpleWeigher();
+        PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(0);
+        ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(g, w);
+        pathfinder.setStart(0);
+
+        // Distances from A: A=0, B=9, C=14, D=15, E=31, F=34, G=50
+        int farthest = 0;
+        for (String label : List.of("C", "B", "E", "G")) {
+            int id = g.getVertexByLabel(label).id();
+            assertTrue(pathfinder.settleUntil(id));
+            assertEquals(expected.pathTo(id), pathfinder.pathTo(id));
+            farthest = Math.max(farthest, expected.distanceTo(id));
+            int closer = 0;
+            for (int v = 0; v < g.vertexCount(); ++v) {
+                if (expected.distanceTo(v) <= farthest) {
+                    closer += 1;
+                }
+            }
+            assertTrue(pathfinder.settledCount() <= closer, label);
+        }
+        assertEquals(g.vertexCount(), pathfinder.settledCount());
+    }
+
+    @DisplayName("WHEN a search is resumed until an unreachable vertex is settled, THEN it will "
+            + "report failure, AND asking for a path to that vertex will throw an "
+            + "IllegalArgumentException")
+    @Test
+    void testSettleUntilUnreachable() {
+        SimpleGraph g = new SimpleGraph();
+        SimpleVertex a = g.addVertex("A");
+        SimpleVertex b = g.addVertex("B");
+        ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(g,
+                new SimpleWeigher());
+        pathfinder.setStart(a.id());
+        assertFalse(pathfinder.settleUntil(b.id()));
+        assertTrue(pathfinder.allPathsFound());
+        assertThrows(IllegalArgumentException.class, () -> pathfinder.pathTo(b.id()));
+    }
+
+    @DisplayName("WHEN a search is resumed towards a vertex with a budget too small to settle it, "
+            + "THEN it will report failure after settling exactly that many vertices, AND resuming "
+            + "it again will settle the vertex with its shortest path")
+    @Test
+    void testSettleUntilBudget() {
+        SimpleGraph g = SimpleGraph.fromText(graph1);
+        Weigher<SimpleEdge> w = new SimpleWeigher();
+        PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(0);
+        ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(g, w);
+        pathfinder.setStart(0);
+        int gId = g.getVertexByLabel("G").id();
+        assertFalse(pathfinder.settleUntil(gId, 3));
+        assertEquals(3, pathfinder.settledCount());
+        assertFalse(pathfinder.settleUntil(gId, 0));
+        assertEquals(3, pathfinder.settledCount());
+        assertTrue(pathfinder.settleUntil(gId, g.vertexCount()));
+        assertEquals(expected.pathTo(gId), pathfinder.pathTo(gId));
+    }
+
+    @DisplayName("WHEN search marks are created for more vertices than their versions can count, "
+            + "THEN an IllegalArgumentException will be thrown")
+    @Test
+    void testSearchMarksTooLarge() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SearchMarks(SearchMarks.MAX_VERTICES + 1));
+        assertThrows(IllegalArgumentException.class, () -> new SearchMarks(Integer.MAX_VALUE));
+    }
+
+    @DisplayName("WHEN one solver is reused for searches from every vertex, some of them left "
+            + "unfinished, THEN each search will find the same paths as a new solver")
+    @Test
+    void testReuse() {
+        for (String text : List.of(graph1, graph2)) {
+            SimpleGraph g = SimpleGraph.fromText(text);
+            Weigher<SimpleEdge> w = new SimpleWeigher();
+            ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(g, w);
+            for (int start = 0; start < g.vertexCount(); ++start) {
+                // Leave stale distances and marks behind from a partial search elsewhere
+                pathfinder.setStart(g.vertexCount() - 1 - start);
+                pathfinder.extendSearch(start + 1);
+
+                PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(start);
+                PathfindingSnapshot paths = pathfinder.findAllPaths(start);
+                int reachable = 0;
+                for (int id = 0; id < g.vertexCount(); ++id) {
+                    reachable += expected.settled(id) ? 1 : 0;
+                    assertEquals(expected.discovered(id), paths.discovered(id));
+                    assertEquals(expected.settled(id), paths.settled(id));
+                    assertEquals(expected.distanceTo(id), paths.distanceTo(id));
+                    if (expected.discovered(id)) {
+                        assertEquals(expected.pathTo(id), paths.pathTo(id));
+                        assertEquals(expected.pathTo(id), pathfinder.pathTo(id));
+                    }
+                }
+                assertEquals(reachable, pathfinder.settledCount());
+            }
+        }
+    }
+
+    @DisplayName("WHEN a search is extended after a snapshot is taken, THEN the snapshot will "
+            + "still report the vertices settled when it was taken, AND it will throw an "
+            + "IllegalStateException once a new search starts")
+    @Test
+    void testSnapshotView() {
+        SimpleGraph g = SimpleGraph.fromText(graph1);
+        Weigher<SimpleEdge> w = new SimpleWeigher();
+        PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(0);
+        ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(g, w);
+        pathfinder.setStart(0);
+
+        // Distances from A: A=0, B=9, C=14, D=15, E=31, F=34, G=50
+        PathfindingSnapshot early = pathfinder.extendSearch(3);
+        boolean[] settled = new boolean[g.vertexCount()];
+        boolean[] discovered = new boolean[g.vertexCount()];
+        for (int id = 0; id < g.vertexCount(); ++id) {
+            settled[id] = early.settled(id);
+            discovered[id] = early.discovered(id);
+        }
+        PathfindingSnapshot late = pathfinder.extendSearch(g.vertexCount());
+
+        for (int id = 0; id < g.vertexCount(); ++id) {
+            assertEquals(settled[id], early.settled(id));
+            assertEquals(discovered[id], early.discovered(id));
+            assertEquals(settled[id], expected.distanceTo(id) < 15);
+            if (settled[id]) {
+                assertEquals(expected.distanceTo(id), early.distanceTo(id));
+                assertEquals(expected.pathTo(id), early.pathTo(id));
+            }
+            if (!discovered[id]) {
+                assertEquals(-1, early.distanceTo(id));
+                int dstId = id;
+                assertThrows(IllegalArgumentException.class, () -> early.pathTo(dstId));
+            }
+            assertTrue(late.settled(id));
+            assertEquals(expected.distanceTo(id), late.distanceTo(id));
+        }
+
+        pathfinder.setStart(1);
+        assertThrows(IllegalStateException.class, () -> early.settled(0));
+        assertThrows(IllegalStateException.class, () -> late.pathTo(0));
+    }
+
+    @DisplayName("WHEN a settled tree is copied from a partial search, THEN it will hold the paths "
+            + "to exactly the vertices settled then, AND it will be unaffected by later searches")
+    @Test
+    void testSettledTree() {
+        SimpleGraph g = SimpleGraph.fromText(graph1);
+        Weigher<SimpleEdge> w = new SimpleWeigher();
+        PathfindingSnapshot expected = new ShortestPaths<>(g, w).findAllPaths(0);
+        ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(g, w);
+        assertThrows(IllegalStateException.class, pathfinder::settledTree);
+
+        pathfinder.setStart(0);
+        pathfinder.extendSearch(3);
+        SettledPathTree tree = pathfinder.settledTree();
+        pathfinder.findAllPaths(1);
+
+        assertEquals(0, tree.start());
+        assertEquals(3, tree.settledCount());
+        for (int id = 0; id < g.vertexCount(); ++id) {
+            // Distances from A: A=0, B=9, C=14, D=15, ...
+            assertEquals(expected.distanceTo(id) < 15, tree.settled(id));
+            if (tree.settled(id)) {
+                assertEquals(expected.pathTo(id), tree.pathTo(id));
+            } else {
+                int dstId = id;
+                assertThrows(IllegalArgumentException.class, () -> tree.pathTo(dstId));
+            }
+        }
+    }
+
+    @DisplayName("WHEN a search is restricted to a region, THEN vertices outside it will not be "
+            + "discovered, AND paths will be the shortest inside it, AND starting outside it will "
+            + "throw an IllegalArgumentException")
+    @Test
+    void testRegion() {
+        SimpleGraph g = SimpleGraph.fromText(graph1);
+        Weigher<SimpleEdge> w = new SimpleWeigher();
+        int e = g.getVertexByLabel("E").id();
+        for (Graph<SimpleVertex> graph : List.of(g, new IntSimpleGraph(g))) {
+            ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(graph, w);
+            pathfinder.setRegion(id -> id != e);
+            PathfindingSnapshot paths = pathfinder.findAllPaths(g.getVertexByLabel("A").id());
+
+            assertFalse(paths.discovered(e));
+            assertEquals(g.vertexCount() - 1, pathfinder.settledCount());
+            // Without E, F is reached through D, and G through F
+            assertEquals(35, paths.distanceTo(g.getVertexByLabel("F").id()));
+            assertEquals(51, paths.distanceTo(g.getVertexByLabel("G").id()));
+            assertThrows(IllegalArgumentException.class, () -> pathfinder.setStart(e));
+
+            pathfinder.setRegion(null);
+            assertEquals(34, pathfinder.findAllPaths(0).distanceTo(g.getVertexByLabel("F").id()));
+        }
+    }
+
+    @DisplayName("WHEN distances are stored on or off the heap, THEN the paths found will have the "
+            + "same distances, AND off-heap snapshots will refuse queries once released")
+    @Test
+    void testSolverStorage() {
+        SimpleGraph g = SimpleGraph.fromText(graph1);
+        PathfindingSnapshot expected = new ShortestPaths<>(g, new SimpleWeigher()).findAllPaths(0);
+        for (SolverStorage storage : SolverStorage.values()) {
+            ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(g,
+                    new BoundedSimpleWeigher(37), FrontierStrategy.AUTO, storage);
+            PathfindingSnapshot paths = pathfinder.findAllPaths(0);
+            for (int id = 0; id < g.vertexCount(); ++id) {
+                assertEquals(expected.distanceTo(id), paths.distanceTo(id), storage.name());
+                assertEquals(expected.pathTo(id), paths.pathTo(id), storage.name());
+            }
+            pathfinder.release();
+            if (storage == SolverStorage.OFF_HEAP) {
+                assertThrows(IllegalStateException.class, () -> paths.distanceTo(1));
+            }
+            pathfinder.release();
+        }
+
+        assertEquals(SolverStorage.OFF_HEAP, SolverStorage.parse("Off-Heap "));
+        assertThrows(IllegalArgumentException.class, () -> SolverStorage.parse("disk"));
+    }
+
+    @DisplayName("WHEN AUTO storage could overflow an int by its bound, THEN it will keep "
+            + "distances on the heap until one does, AND then move them all off the heap, AND "
+            + "release that memory when closed")
+    @Test
+    void testWideningStorage() {
+        assertInstanceOf(IntDistanceStore.class, SolverStorage.AUTO.distances(1000, 255));
+        DistanceStore distances = SolverStorage.AUTO.distances(20_000_000, 255);
+        WideningDistanceStore store = assertInstanceOf(WideningDistanceStore.class, distances);
+        store.set(3, 1_000_000);
+        store.set(19_999_999, Integer.MAX_VALUE);
+        assertFalse(store.widened());
+
+        store.set(7, Integer.MAX_VALUE + 1L);
+        assertTrue(store.widened());
+        assertEquals(1_000_000, store.get(3));
+        assertEquals(Integer.MAX_VALUE, store.get(19_999_999));
+        assertEquals(Integer.MAX_VALUE + 1L, store.get(7));
+        assertEquals(20_000_000, store.length());
+
+        store.close();
+        assertThrows(IllegalStateException.class, () -> store.get(3));
+        store.close();
+    }
+
+    @DisplayName("WHEN paths are longer than `Integer.MAX_VALUE`, THEN heap storage will refuse "
+            + "them, AND off-heap storage will find the shortest with any frontier that supports "
+            + "their weights")
+    @Test
+    void testWideDistances() {
+        // A random graph whose edges weigh 2^29 to 2^30 and skip at most two vertices ahead, so
+        //  that most distances overflow an int
+        Random rng = new Random(22);
+        SimpleGraph g = new SimpleGraph();
+        int n = 60;
+        for (int i = 0; i < n; ++i) {
+            g.addVertex("v" + i);
+        }
+        for (int i = 0; i + 1 < n; ++i) {
+            g.addEdge(i, i + 1, (1 << 29) + rng.nextInt(1 << 29));
+        }
+        for (int e = 0; e < 3 * n; ++e) {
+            int from = rng.nextInt(n);
+            int to = Math.max(0, Math.min(n - 1, from + rng.nextInt(7) - 3));
+            g.addEdge(from, to, (1 << 29) + rng.nextInt(1 << 29));
+        }
+        Weigher<SimpleEdge> w = new BoundedSimpleWeigher(1 << 30);
+
+        assertThrows(ArithmeticException.class, () -> new ShortestPaths<>(g, w,
+                FrontierStrategy.AUTO, SolverStorage.HEAP).findAllPaths(0));
+        for (FrontierStrategy strategy : List.of(FrontierStrategy.BINARY_HEAP,
+                FrontierStrategy.LAZY_HEAP, FrontierStrategy.RADIX)) {
+            // AUTO storage moves off the heap once the first distance overflows an int.
+            ShortestPaths<SimpleVertex, SimpleEdge> pathfinder = new ShortestPaths<>(g, w,
+                    strategy);
+            PathfindingSnapshot paths = pathfinder.findAllPaths(0);
+            assertTrue(paths.longDistanceTo(n - 1) > Integer.MAX_VALUE);
+            assertThrows(ArithmeticException.class, () -> paths.distanceTo(n - 1));
+            // Shortest distances are those of their paths, and no edge offers a shorter one.
+            for (int id = 0; id < n; ++id) {
+                long distance = 0;
+                List<Integer> path = paths.pathTo(id);
+                for (int i = 0; i + 1 < path.size(); ++i) {
+                    int from = path.get(i);
+                    int to = path.get(i + 1);
+                    distance += g.getVertex(from).outgoingEdges().stream()
+                            .filter(e -> e.endId() == to).mapToInt(SimpleEdge::weight).min()
+                            .orElseThrow();
+                }
+                assertEquals(distance, paths.longDistanceTo(id), strategy.name());
+                for (SimpleEdge e : g.getVertex(id).outgoingEdges()) {
+                    assertTrue(paths.longDistanceTo(e.endId()) <= distance + e.weight());
+                }
+            }
+            pathfinder.release();
+        }
+    }
+
     @DisplayName("Extending a search should not settle more than the specified number of vertices")
     @Test
     void testExtendSearch() {
@@ -240,3 +614,54 @@ class SimpleWeigher implements Weigher<SimpleEdge> {
         return edge.weight();
     }
 }
+
+/**
+ * A SimpleWeigher that declares an upper bound on its graph's edge weights.
+ */
+class BoundedSimpleWeigher extends SimpleWeigher {
+
+    private final int maxWeight;
+
+    BoundedSimpleWeigher(int maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    @Override
+    public int maxWeight() {
+        return maxWeight;
+    }
+}
+
+/**
+ * A view of a SimpleGraph that also supports visiting edges as primitives, counting the number of
+ * vertices whose edges have been visited that way.
+ */
+class IntSimpleGraph implements IntGraph<SimpleVertex, SimpleEdge> {
+
+    private final SimpleGraph graph;
+    int visits = 0;
+
+    IntSimpleGraph(SimpleGraph graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    public int vertexCount() {
+        return graph.vertexCount();
+    }
+
+    @Override
+    public SimpleVertex getVertex(int id) {
+        return graph.getVertex(id);
+    }
+
+    @Override
+    public void forEachNeighbor(int id, Weigher<SimpleEdge> weigher, IntEdgeVisitor visitor) {
+        visits += 1;
+        int dir = 0;
+        for (SimpleEdge e : graph.getVertex(id).outgoingEdges()) {
+            visitor.visit(e.endId(), dir, weigher.weight(e));
+            dir += 1;
+        }
+    }
+}
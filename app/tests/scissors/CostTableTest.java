@@ -0,0 +1,94 @@
+package scissors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the scissors weighers, which look up weights in a `CostTable`, agree with weights
+ * computed directly from the image.
+ */
+class CostTableTest {
+
+    /**
+     * Return a `width`x`height` image filled with random colors from `rng`.
+     */
+    static BufferedImage randomImage(int width, int height, Random rng) {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                img.setRGB(x, y, rng.nextInt());
+            }
+        }
+        return img;
+    }
+
+    @DisplayName("WHEN a CrossGradMono weigher weighs any edge in any direction, THEN its weight "
+            + "will equal the weight computed from the grayscale image")
+    @Test
+    void testCrossGradMono() {
+        // Tall enough to span several row bands, plus degenerate single-row and -column images
+        int[][] sizes = {{1, 1}, {1, 7}, {7, 1}, {13, 70}};
+        Random rng = new Random(1);
+        for (int[] size : sizes) {
+            ImageGraph graph = new ImageGraph(randomImage(size[0], size[1], rng));
+            var weigher = new ScissorsWeights.CrossGradMonoWeight(graph);
+            assertAllEdges(graph, weigher, weigher::computeWeight);
+        }
+    }
+
+    @DisplayName("WHEN an RGB weigher weighs any edge in any direction, THEN its weight will equal "
+            + "the weight computed from the color image")
+    @Test
+    void testRGB() {
+        ImageGraph graph = new ImageGraph(randomImage(13, 70, new Random(2)));
+        var weigher = new ScissorsWeights.RGBWeight(graph);
+        assertAllEdges(graph, weigher, weigher::computeWeight);
+    }
+
+    @DisplayName("WHEN an image has too many pixels for a cost table's array, THEN creating one "
+            + "will throw IllegalArgumentException naming the image's size")
+    @Test
+    void testTooLarge() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new CostTable(40_000, 20_000, (x, y, dir) -> 0));
+        assertTrue(e.getMessage().contains("40000x20000"), e.getMessage());
+    }
+
+    /**
+     * Assert that `weigher` gives every edge in `graph`, both as an `ImageEdge` and through
+     * `ImageGraph.forEachNeighbor()` and `forEachIncoming()`, the weight computed by `expected`.
+     */
+    static void assertAllEdges(ImageGraph graph, ScissorsWeights.PixelWeigher weigher,
+            CostTable.PixelCost expected) {
+        for (int id = 0; id < graph.vertexCount(); ++id) {
+            ImageVertex v = graph.getVertex(id);
+            int edges = 0;
+            for (ImageEdge e : v.outgoingEdges()) {
+                assertEquals(expected.cost(v.x(), v.y(), e.dir()), weigher.weight(e));
+                edges += 1;
+            }
+            int[] visited = {0};
+            graph.forEachNeighbor(id, weigher, (endId, dir, weight) -> {
+                assertEquals(v.neighborId(dir), endId);
+                assertEquals(expected.cost(v.x(), v.y(), dir), weight);
+                visited[0] += 1;
+            });
+            assertEquals(edges, visited[0]);
+
+            // Every neighbor has an edge back to `id`, which leaves it in the opposite direction
+            int[] incoming = {0};
+            int endId = id;
+            graph.forEachIncoming(id, weigher, (startId, dir, weight) -> {
+                ImageVertex u = graph.getVertex(startId);
+                assertEquals(endId, u.neighborId(dir));
+                assertEquals(expected.cost(u.x(), u.y(), dir), weight);
+                incoming[0] += 1;
+            });
+            assertEquals(edges, incoming[0]);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package scissors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import graph.Weigher;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the per-image `ImageAnalysis` cache.
+ */
+class ImageAnalysisTest {
+
+    @DisplayName("WHEN the same image is analyzed twice, THEN the graph and weighers will be "
+            + "shared, AND a different image will get its own analysis")
+    @Test
+    void testSharing() throws Exception {
+        BufferedImage img = CostTableTest.randomImage(5, 4, new Random(1));
+        ImageAnalysis analysis = ImageAnalysis.of(img);
+        assertSame(analysis, ImageAnalysis.of(img));
+        assertEquals(20, analysis.graph().vertexCount());
+
+        Future<Weigher<ImageEdge>> mono = analysis.weigher("CrossGradMono");
+        assertSame(mono, analysis.weigher("CrossGradMono"));
+        assertNotSame(mono.get(), analysis.weigher("RGBWeight").get());
+
+        BufferedImage other = CostTableTest.randomImage(5, 4, new Random(1));
+        assertNotSame(analysis, ImageAnalysis.of(other));
+    }
+
+    @DisplayName("WHEN an image is prefetched for coarse-to-fine searches, THEN its pyramid's "
+            + "levels will be built in the background without being prepared")
+    @Test
+    void testPrefetch() throws Exception {
+        BufferedImage img = CostTableTest.randomImage(600, 500, new Random(3));
+        ImageAnalysis analysis = ImageAnalysis.of(img);
+        analysis.prefetch("CrossGradMono", true);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (analysis.pyramid().levels().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, analysis.pyramid().levels().size());
+        for (ImageAnalysis level : analysis.pyramid().levels()) {
+            assertNotNull(level.weigher("CrossGradMono").get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @DisplayName("WHEN a weigher name is not recognized, THEN its future will fail with an "
+            + "IllegalArgumentException")
+    @Test
+    void testUnknownWeigher() {
+        ImageAnalysis analysis = ImageAnalysis.of(CostTableTest.randomImage(2, 2, new Random(2)));
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> analysis.weigher("Unknown").get());
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+}
@@ -0,0 +1,139 @@
+package scissors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import graph.Graph;
+import graph.PathfindingSnapshot;
+import graph.ShortestPaths;
+import graph.Weigher;
+import java.awt.Rectangle;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for `ImageGraph`'s support for compact path trees, and for its sub-rectangle and corridor
+ * views.
+ */
+class ImageGraphTest {
+
+    @DisplayName("WHEN an edge is visited from a pixel in some direction, THEN the pixel will be "
+            + "recovered from the edge's end and direction")
+    @Test
+    void testStartIdOf() {
+        ImageGraph graph = new ImageGraph(CostTableTest.randomImage(4, 3, new Random(1)));
+        Weigher<ImageEdge> weigher = new ScissorsWeights.CrossGradMonoWeight(graph);
+        for (int id = 0; id < graph.vertexCount(); ++id) {
+            int startId = id;
+            graph.forEachNeighbor(id, weigher, (endId, dir, weight) -> {
+                assertTrue(dir >= 0 && dir < graph.directionCount());
+                assertEquals(startId, graph.startIdOf(endId, dir));
+            });
+        }
+    }
+
+    @DisplayName("WHEN paths are found in an ImageGraph, whose predecessors are stored as "
+            + "directions, THEN they will be the same as those found by visiting `ImageEdge`s")
+    @Test
+    void testDirectionPredecessors() {
+        ImageGraph graph = new ImageGraph(CostTableTest.randomImage(13, 9, new Random(2)));
+        Weigher<ImageEdge> weigher = new ScissorsWeights.CrossGradMonoWeight(graph);
+        // Hides `graph`'s optional interfaces, so predecessors are stored as vertex IDs
+        Graph<ImageVertex> plain = new Graph<>() {
+            @Override
+            public int vertexCount() {
+                return graph.vertexCount();
+            }
+
+            @Override
+            public ImageVertex getVertex(int id) {
+                return graph.getVertex(id);
+            }
+        };
+
+        int startId = graph.vertexCount() / 2;
+        PathfindingSnapshot expected = new ShortestPaths<ImageVertex, ImageEdge>(plain, weigher)
+                .findAllPaths(startId);
+        ShortestPaths<ImageVertex, ImageEdge> pathfinder = new ShortestPaths<>(graph, weigher);
+        PathfindingSnapshot paths = pathfinder.findAllPaths(startId);
+        for (int id = 0; id < graph.vertexCount(); ++id) {
+            assertEquals(expected.distanceTo(id), paths.distanceTo(id));
+            assertEquals(expected.pathTo(id), paths.pathTo(id));
+            assertEquals(expected.pathTo(id), pathfinder.pathTo(id));
+        }
+    }
+
+    @DisplayName("WHEN paths are found in a sub-rectangle view, THEN they will be those found in "
+            + "the whole graph restricted to the rectangle, with IDs translated")
+    @Test
+    void testSubgraph() {
+        ImageGraph graph = new ImageGraph(CostTableTest.randomImage(13, 9, new Random(3)));
+        Weigher<ImageEdge> weigher = new ScissorsWeights.CrossGradMonoWeight(graph);
+        // Extends past the right edge, which clips it to 8x5
+        ImageSubgraph sub = new ImageSubgraph(graph, new Rectangle(5, 2, 20, 5));
+        assertEquals(new Rectangle(5, 2, 8, 5), sub.bounds());
+        assertEquals(40, sub.vertexCount());
+
+        int startId = 4 * 13 + 7;
+        ShortestPaths<ImageVertex, ImageEdge> whole = new ShortestPaths<>(graph, weigher);
+        whole.setRegion(sub::contains);
+        PathfindingSnapshot expected = whole.findAllPaths(startId);
+        PathfindingSnapshot paths = new ShortestPaths<>(sub, weigher)
+                .findAllPaths(sub.localId(startId));
+        for (int id = 0; id < graph.vertexCount(); ++id) {
+            assertEquals(sub.contains(id), expected.settled(id));
+            if (sub.contains(id)) {
+                assertEquals(id, sub.globalId(sub.localId(id)));
+                assertEquals(expected.distanceTo(id), paths.distanceTo(sub.localId(id)));
+                assertEquals(expected.pathTo(id),
+                        sub.toGlobal(paths.pathTo(sub.localId(id))));
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new ImageSubgraph(graph, new Rectangle(13, 0, 2, 2)));
+    }
+
+    @DisplayName("WHEN paths are found in a corridor view of overlapping and clipped rectangles, "
+            + "THEN it will number only the corridor's pixels, AND the paths will be those found "
+            + "in the whole graph restricted to the corridor, with IDs translated")
+    @Test
+    void testCorridor() {
+        ImageGraph graph = new ImageGraph(CostTableTest.randomImage(13, 9, new Random(4)));
+        Weigher<ImageEdge> weigher = new ScissorsWeights.CrossGradMonoWeight(graph);
+        // A diagonal staircase of blocks, overlapping and touching, starting off the image
+        List<Rectangle> blocks = List.of(new Rectangle(-2, -2, 5, 5), new Rectangle(2, 2, 4, 3),
+                new Rectangle(6, 4, 3, 3), new Rectangle(8, 6, 9, 9), new Rectangle(20, 0, 2, 2));
+        CorridorGraph corridor = new CorridorGraph(graph, blocks);
+        Rectangle image = new Rectangle(graph.width(), graph.height());
+        int inside = 0;
+        for (int id = 0; id < graph.vertexCount(); ++id) {
+            int x = id % graph.width();
+            int y = id / graph.width();
+            boolean expected = image.contains(x, y)
+                    && blocks.stream().anyMatch(b -> b.contains(x, y));
+            assertEquals(expected, corridor.contains(id), x + "," + y);
+            inside += expected ? 1 : 0;
+        }
+        assertEquals(inside, corridor.vertexCount());
+
+        int startId = 0;
+        ShortestPaths<ImageVertex, ImageEdge> whole = new ShortestPaths<>(graph, weigher);
+        whole.setRegion(corridor::contains);
+        PathfindingSnapshot expected = whole.findAllPaths(startId);
+        ShortestPaths<ImageVertex, ImageEdge> local = new ShortestPaths<>(corridor, weigher);
+        PathfindingSnapshot paths = local.findAllPaths(corridor.localId(startId));
+        for (int id = 0; id < graph.vertexCount(); ++id) {
+            assertEquals(corridor.contains(id), expected.settled(id));
+            if (corridor.contains(id)) {
+                int localId = corridor.localId(id);
+                assertEquals(id, corridor.globalId(localId));
+                assertEquals(expected.distanceTo(id), paths.distanceTo(localId));
+                assertEquals(expected.pathTo(id), corridor.toGlobal(paths.pathTo(localId)));
+                assertEquals(expected.pathTo(id), corridor.toGlobal(local.pathTo(localId)));
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new CorridorGraph(graph, List.of(new Rectangle(13, 0, 2, 2))));
+    }
+}
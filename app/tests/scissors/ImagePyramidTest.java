@@ -0,0 +1,104 @@
+package scissors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import graph.PathfindingSnapshot;
+import graph.ShortestPaths;
+import graph.Weigher;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for coarse-to-fine path finding with `ImagePyramid` and `CorridorSearch`.
+ */
+class ImagePyramidTest {
+
+    /**
+     * Return the total weight of the edges along `path` in `graph` weighed by `weigher`, asserting
+     * that each step is to a neighboring pixel.
+     */
+    static int pathWeight(ImageGraph graph, Weigher<ImageEdge> weigher, List<Integer> path) {
+        int total = 0;
+        for (int i = 1; i < path.size(); ++i) {
+            int endId = path.get(i);
+            int[] weight = {-1};
+            graph.forEachNeighbor(path.get(i - 1), weigher, (id, dir, w) -> {
+                if (id == endId) {
+                    weight[0] = w;
+                }
+            });
+            assertTrue(weight[0] >= 0, "Step " + i + " is not to a neighbor");
+            total += weight[0];
+        }
+        return total;
+    }
+
+    @DisplayName("WHEN an image is halved, THEN its dimensions will be rounded up, AND each pixel "
+            + "will average the block it covers")
+    @Test
+    void testHalve() {
+        BufferedImage img = new BufferedImage(5, 3, BufferedImage.TYPE_INT_RGB);
+        img.setRGB(0, 0, 0x102030);
+        img.setRGB(1, 0, 0x302010);
+        img.setRGB(0, 1, 0x000000);
+        img.setRGB(1, 1, 0x040404);
+        img.setRGB(4, 2, 0xFF0080);
+
+        BufferedImage halved = ImagePyramid.halve(img);
+        assertEquals(3, halved.getWidth());
+        assertEquals(2, halved.getHeight());
+        assertEquals(0x111111, halved.getRGB(0, 0) & 0xFFFFFF);
+        // The bottom-right block is a single pixel, clamped at both edges
+        assertEquals(0xFF0080, halved.getRGB(2, 1) & 0xFFFFFF);
+    }
+
+    @DisplayName("WHEN a corridor covers the whole image, THEN the refined path will be as short "
+            + "as the shortest path in the image")
+    @Test
+    void testWideCorridor() throws Exception {
+        BufferedImage img = CostTableTest.randomImage(6, 6, new Random(1));
+        ImageGraph graph = new ImageGraph(img);
+        Weigher<ImageEdge> weigher = ScissorsWeights.makeWeigher("CrossGradMono", graph);
+        ImageGraph coarse = new ImageGraph(ImagePyramid.halve(img));
+        // The center of the 3x3 coarse image, whose block dilated by `RADIUS` covers everything
+        assertEquals(2, CorridorSearch.RADIUS);
+        List<Integer> coarsePath = List.of(0, 4, 8);
+
+        PathfindingSnapshot expected = new ShortestPaths<>(graph, weigher).findAllPaths(0);
+        List<Integer> path = new CorridorSearch(graph, weigher).refine(coarse, coarsePath, 0, 35);
+        assertEquals(0, path.getFirst());
+        assertEquals(35, path.getLast());
+        assertEquals(expected.distanceTo(35), pathWeight(graph, weigher, path));
+    }
+
+    @DisplayName("WHEN a coarse path is refined through several levels, THEN the result will be a "
+            + "path between the full-resolution ends, AND it will be no shorter than the shortest "
+            + "path")
+    @Test
+    void testRefine() throws Exception {
+        BufferedImage img = CostTableTest.randomImage(41, 30, new Random(2));
+        ImagePyramid pyramid = new ImagePyramid(new ImageAnalysis(img), 100);
+        pyramid.prepare("CrossGradMono");
+        List<ImageAnalysis> levels = pyramid.levels();
+        assertEquals(List.of(41, 21, 11), levels.stream().map(l -> l.graph().width()).toList());
+
+        ImageGraph graph = levels.getFirst().graph();
+        Weigher<ImageEdge> weigher = levels.getFirst().weigher("CrossGradMono").get();
+        PathfindingSnapshot expected = new ShortestPaths<>(graph, weigher).findAllPaths(0);
+        ShortestPaths<ImageVertex, ImageEdge> coarseSearch = new ShortestPaths<>(
+                pyramid.coarsest().graph(), pyramid.coarsest().weigher("CrossGradMono").get());
+        coarseSearch.findAllPaths(pyramid.coarseId(0));
+        for (int endId : new int[]{0, 40, 41 * 29, 41 * 30 - 1, 41 * 15 + 20}) {
+            List<Integer> coarsePath = coarseSearch.pathTo(pyramid.coarseId(endId));
+            List<Integer> path = pyramid.refine("CrossGradMono", coarsePath, 0, endId);
+            assertEquals(0, path.getFirst());
+            assertEquals(endId, path.getLast());
+            assertTrue(pathWeight(graph, weigher, path) >= expected.distanceTo(endId));
+        }
+        assertThrows(IllegalStateException.class,
+                () -> pyramid.refine("RGBWeight", List.of(0), 0, 0));
+    }
+}
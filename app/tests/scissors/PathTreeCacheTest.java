@@ -0,0 +1,126 @@
+package scissors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import graph.PathSolver;
+import graph.SettledPathTree;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the byte-budgeted `PathTreeCache`.
+ */
+class PathTreeCacheTest {
+
+    /**
+     * Return the tree of the paths settled from the pixel with ID `startId` in `analysis`'s graph
+     * by settling `count` pixels.
+     */
+    static SettledPathTree settle(ImageAnalysis analysis, int startId, int count)
+            throws Exception {
+        PathSolver solver = analysis.acquirePaths("CrossGradMono");
+        solver.setStart(startId);
+        solver.extendSearch(count);
+        SettledPathTree tree = solver.settledTree();
+        analysis.releasePaths("CrossGradMono", solver);
+        return tree;
+    }
+
+    @DisplayName("WHEN trees are cached beyond the budget, THEN the least recently used will be "
+            + "evicted, AND the paths of those kept will be those found by a new search")
+    @Test
+    void testEviction() throws Exception {
+        ImageAnalysis analysis = ImageAnalysis.of(CostTableTest.randomImage(20, 10, new Random(1)));
+        SettledPathTree first = settle(analysis, 0, 50);
+        SettledPathTree second = settle(analysis, 1, 50);
+        SettledPathTree third = settle(analysis, 2, 50);
+        // Room for the first tree and either of the others
+        PathTreeCache cache = new PathTreeCache(first.byteSize()
+                + Math.max(second.byteSize(), third.byteSize()));
+
+        cache.put(analysis, "CrossGradMono", first);
+        cache.put(analysis, "CrossGradMono", second);
+        assertSame(first, cache.get(analysis, "CrossGradMono", 0));
+        cache.put(analysis, "CrossGradMono", third);
+        assertSame(first, cache.get(analysis, "CrossGradMono", 0));
+        assertNull(cache.get(analysis, "CrossGradMono", 1));
+        assertSame(third, cache.get(analysis, "CrossGradMono", 2));
+        assertNull(cache.get(analysis, "RGBWeight", 2));
+        assertEquals(first.byteSize() + third.byteSize(), cache.byteSize());
+
+        PathSolver solver = analysis.acquirePaths("CrossGradMono");
+        solver.findAllPaths(2);
+        for (int id = 0; id < analysis.graph().vertexCount(); ++id) {
+            if (third.settled(id)) {
+                assertEquals(solver.pathTo(id), third.pathTo(id));
+            }
+        }
+    }
+
+    @DisplayName("WHEN a whole image's paths are settled, THEN their tree will take little more "
+            + "than a byte per pixel, AND its paths will be those of the search, AND a partial "
+            + "tree will hold exactly the pixels settled")
+    @Test
+    void testTreeSize() throws Exception {
+        ImageAnalysis analysis = ImageAnalysis.of(CostTableTest.randomImage(100, 60,
+                new Random(4)));
+        int n = analysis.graph().vertexCount();
+        SettledPathTree whole = settle(analysis, 3050, n);
+        assertEquals(n, whole.settledCount());
+        assertTrue(whole.byteSize() < 1.2 * n + 100, Long.toString(whole.byteSize()));
+        SettledPathTree partial = settle(analysis, 3050, 700);
+
+        PathSolver solver = analysis.acquirePaths("CrossGradMono");
+        solver.findAllPaths(3050);
+        int settled = 0;
+        for (int id = 0; id < n; ++id) {
+            assertEquals(solver.pathTo(id), whole.pathTo(id));
+            if (partial.settled(id)) {
+                settled += 1;
+                assertEquals(whole.pathTo(id), partial.pathTo(id));
+            }
+        }
+        assertEquals(partial.settledCount(), settled);
+        assertTrue(partial.settledCount() >= 700 && partial.settledCount() < n);
+        analysis.releasePaths("CrossGradMono", solver);
+    }
+
+    @DisplayName("WHEN a tree is cached from a start that already has one, THEN the tree that "
+            + "settled more pixels will be kept, AND trees larger than the budget will not be "
+            + "cached")
+    @Test
+    void testReplacement() throws Exception {
+        ImageAnalysis analysis = ImageAnalysis.of(CostTableTest.randomImage(20, 10, new Random(2)));
+        SettledPathTree small = settle(analysis, 5, 20);
+        SettledPathTree large = settle(analysis, 5, 100);
+        PathTreeCache cache = new PathTreeCache(large.byteSize());
+
+        cache.put(analysis, "CrossGradMono", small);
+        cache.put(analysis, "CrossGradMono", large);
+        assertSame(large, cache.get(analysis, "CrossGradMono", 5));
+        cache.put(analysis, "CrossGradMono", small);
+        assertSame(large, cache.get(analysis, "CrossGradMono", 5));
+        assertEquals(large.byteSize(), cache.byteSize());
+
+        cache.put(analysis, "CrossGradMono", settle(analysis, 6, 200));
+        assertNull(cache.get(analysis, "CrossGradMono", 6));
+        assertSame(large, cache.get(analysis, "CrossGradMono", 5));
+    }
+
+    @DisplayName("WHEN an analysis is evicted, THEN only its trees will be discarded")
+    @Test
+    void testEvictAnalysis() throws Exception {
+        ImageAnalysis analysis = ImageAnalysis.of(CostTableTest.randomImage(8, 8, new Random(3)));
+        ImageAnalysis other = ImageAnalysis.of(CostTableTest.randomImage(8, 8, new Random(3)));
+        PathTreeCache cache = new PathTreeCache(PathTreeCache.DEFAULT_BUDGET);
+        cache.put(analysis, "CrossGradMono", settle(analysis, 0, 10));
+        SettledPathTree kept = settle(other, 0, 10);
+        cache.put(other, "CrossGradMono", kept);
+
+        cache.evict(analysis);
+        assertNull(cache.get(analysis, "CrossGradMono", 0));
+        assertSame(kept, cache.get(other, "CrossGradMono", 0));
+        assertEquals(kept.byteSize(), cache.byteSize());
+    }
+}
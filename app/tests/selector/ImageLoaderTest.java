@@ -0,0 +1,143 @@
+package selector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for decoding images in the background with `ImageLoader`.
+ */
+class ImageLoaderTest {
+
+    /**
+     * A directory for the image files read by these tests.
+     */
+    @TempDir
+    File dir;
+
+    /**
+     * Return a `width`x`height` image of random colors, after writing it to a file named `name` in
+     * `dir` in the format named `format`.
+     */
+    private BufferedImage writeImage(String name, String format, int width, int height)
+            throws IOException {
+        Random rng = new Random(width * 31 + height);
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                img.setRGB(x, y, rng.nextInt());
+            }
+        }
+        assertTrue(ImageIO.write(img, format, new File(dir, name)));
+        return img;
+    }
+
+    @DisplayName("WHEN an image is loaded, THEN it will be the image `ImageIO.read()` decodes, AND "
+            + "it will be prepared on the worker thread, AND the image being decoded will be "
+            + "published as a preview, AND progress will reach 100")
+    @Test
+    void testLoad() throws Exception {
+        for (String format : List.of("png", "jpg")) {
+            File file = new File(dir, "load." + format);
+            writeImage(file.getName(), format, 300, 200);
+            BufferedImage expected = ImageIO.read(file);
+
+            AtomicReference<BufferedImage> prepared = new AtomicReference<>();
+            AtomicReference<BufferedImage> preview = new AtomicReference<>();
+            CountDownLatch previewed = new CountDownLatch(1);
+            ImageLoader loader = new ImageLoader(file, img -> {
+                assertFalse(SwingUtilities.isEventDispatchThread());
+                prepared.set(img);
+            }) {
+                @Override
+                protected void process(List<BufferedImage> previews) {
+                    preview.compareAndSet(null, previews.getFirst());
+                    previewed.countDown();
+                }
+            };
+            loader.execute();
+            BufferedImage img = loader.get(10, TimeUnit.SECONDS);
+
+            assertSame(img, prepared.get(), format);
+            assertEquals(100, loader.getProgress(), format);
+            assertEquals(expected.getWidth(), img.getWidth());
+            assertEquals(expected.getHeight(), img.getHeight());
+            for (int y = 0; y < img.getHeight(); ++y) {
+                for (int x = 0; x < img.getWidth(); ++x) {
+                    assertEquals(expected.getRGB(x, y), img.getRGB(x, y), format);
+                }
+            }
+            // Previews are delivered to the EDT in batches, possibly after the loader is done.
+            assertTrue(previewed.await(10, TimeUnit.SECONDS), format);
+            assertSame(img, preview.get(), format);
+        }
+    }
+
+    @DisplayName("WHEN a file is not an image, THEN the result will be null without preparing "
+            + "anything, AND WHEN a file does not exist, THEN loading will fail with an "
+            + "IOException")
+    @Test
+    void testFailures() throws Exception {
+        File text = new File(dir, "notes.txt");
+        Files.writeString(text.toPath(), "Not an image");
+        ImageLoader loader = new ImageLoader(text, img -> fail("Prepared " + img));
+        loader.execute();
+        assertNull(loader.get(10, TimeUnit.SECONDS));
+
+        ImageLoader missing = new ImageLoader(new File(dir, "missing.png"), img -> {});
+        missing.execute();
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> missing.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+    }
+
+    @DisplayName("WHEN a file's header declares more pixels than an image can hold, THEN loading "
+            + "will fail with an IOException naming its size, without decoding or preparing "
+            + "anything")
+    @Test
+    void testTooLarge() throws Exception {
+        // A PNG signature, header, and end, with no pixel data at all
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeBytes("IHDR");
+        headerOut.writeInt(50_000);
+        headerOut.writeInt(50_000);
+        headerOut.write(new byte[]{8, 2, 0, 0, 0});
+        for (byte[] chunk : List.of(header.toByteArray(), "IEND".getBytes())) {
+            out.writeInt(chunk.length - 4);
+            out.write(chunk);
+            CRC32 crc = new CRC32();
+            crc.update(chunk);
+            out.writeInt((int) crc.getValue());
+        }
+        File file = new File(dir, "huge.png");
+        Files.write(file.toPath(), bytes.toByteArray());
+
+        ImageLoader loader = new ImageLoader(file, img -> fail("Prepared " + img));
+        loader.execute();
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> loader.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertTrue(e.getCause().getMessage().contains("50000x50000"), e.getCause().getMessage());
+    }
+}
@@ -0,0 +1,162 @@
+package selector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for writing PNG images with `ParallelPngWriter`.
+ */
+class ParallelPngWriterTest {
+
+    /**
+     * Return a `width`x`height` image of type `type` with smooth gradients, noise, and partial
+     * transparency (if `type` has alpha).
+     */
+    private static BufferedImage makeImage(int width, int height, int type) {
+        Random rng = new Random(width * 31 + height);
+        BufferedImage img = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                int alpha = ((x + y) % 7 == 0) ? 0 : 255 - (x % 64);
+                img.setRGB(x, y, (alpha << 24) | ((x & 0xff) << 16) | ((y & 0xff) << 8)
+                        | rng.nextInt(32));
+            }
+        }
+        return img;
+    }
+
+    /**
+     * Return `img` written as a PNG file by `writer`, after checking that it completed and reported
+     * progress ending at 100.
+     */
+    private static byte[] write(ParallelPngWriter writer, BufferedImage img) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Integer> progress = new ArrayList<>();
+        assertTrue(writer.write(img, out, progress::add));
+        assertFalse(progress.isEmpty());
+        assertEquals(100, progress.getLast());
+        return out.toByteArray();
+    }
+
+    @DisplayName("WHEN images with and without alpha are written at various compression levels, "
+            + "with and without filtering, split into many chunks on several threads, THEN "
+            + "`ImageIO` will read back the same pixels")
+    @Test
+    void testRoundTrip() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Rows of 1201 bytes, so chunks end mid-way through a dictionary-sized window
+            List<BufferedImage> images = List.of(
+                    makeImage(300, 500, BufferedImage.TYPE_INT_ARGB),
+                    makeImage(300, 500, BufferedImage.TYPE_INT_RGB),
+                    makeImage(123, 45, BufferedImage.TYPE_3BYTE_BGR),
+                    makeImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+            for (int level : new int[]{0, 1, 6, 9}) {
+                for (boolean filterRows : new boolean[]{false, true}) {
+                    ParallelPngWriter writer = new ParallelPngWriter(level, filterRows, pool);
+                    for (BufferedImage img : images) {
+                        BufferedImage back = ImageIO.read(new ByteArrayInputStream(
+                                write(writer, img)));
+                        assertEquals(img.getColorModel().hasAlpha(),
+                                back.getColorModel().hasAlpha());
+                        assertEquals(img.getWidth(), back.getWidth());
+                        assertEquals(img.getHeight(), back.getHeight());
+                        for (int y = 0; y < img.getHeight(); ++y) {
+                            for (int x = 0; x < img.getWidth(); ++x) {
+                                assertEquals(img.getRGB(x, y), back.getRGB(x, y), "Level "
+                                        + level + (filterRows ? " filtered" : "") + " at " + x
+                                        + "," + y);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @DisplayName("WHEN an image is written in many chunks, with or without filtering, THEN its "
+            + "file will be within 2% of the size of the same rows deflated sequentially at the "
+            + "same level and strategy, since each chunk is primed with the end of the one before, "
+            + "AND filtering will make it smaller")
+    @Test
+    void testCompressionRatio() throws Exception {
+        BufferedImage img = makeImage(1000, 1000, BufferedImage.TYPE_INT_ARGB);
+        int level = 6;
+        int[] pixels = img.getRGB(0, 0, img.getWidth(), img.getHeight(), null, 0,
+                img.getWidth());
+        int[] sizes = new int[2];
+        for (boolean filterRows : new boolean[]{false, true}) {
+            byte[] parallel = write(new ParallelPngWriter(level, filterRows), img);
+
+            byte[] rows = ParallelPngWriter.filter(pixels, null, img.getWidth(), 4, filterRows);
+            Deflater deflater = new Deflater(level);
+            if (filterRows) {
+                deflater.setStrategy(Deflater.FILTERED);
+            }
+            deflater.setInput(rows);
+            deflater.finish();
+            byte[] buffer = new byte[1 << 16];
+            long sequential = 0;
+            while (!deflater.finished()) {
+                sequential += deflater.deflate(buffer);
+            }
+            deflater.end();
+            assertTrue(parallel.length > ParallelPngWriter.CHUNK_SIZE, "" + parallel.length);
+            assertTrue(parallel.length < sequential * 1.02, parallel.length + " vs. "
+                    + sequential);
+            sizes[filterRows ? 1 : 0] = parallel.length;
+        }
+        assertTrue(sizes[1] < sizes[0], sizes[1] + " vs. " + sizes[0]);
+    }
+
+    @DisplayName("WHEN the Adler-32s of two sequences of bytes are combined, THEN the result will "
+            + "be the Adler-32 of their concatenation")
+    @Test
+    void testCombineAdler() {
+        Random rng = new Random(1);
+        for (int length : new int[]{0, 1, 100, 65520, 65521, 65522, 200_000}) {
+            byte[] first = new byte[rng.nextInt(1000)];
+            byte[] second = new byte[length];
+            rng.nextBytes(first);
+            rng.nextBytes(second);
+            Adler32 adler1 = new Adler32();
+            adler1.update(first);
+            Adler32 adler2 = new Adler32();
+            adler2.update(second);
+            Adler32 expected = new Adler32();
+            expected.update(first);
+            expected.update(second);
+            assertEquals((int) expected.getValue(), ParallelPngWriter.combineAdler(
+                    (int) adler1.getValue(), (int) adler2.getValue(), length), "" + length);
+        }
+    }
+
+    @DisplayName("WHEN a write is aborted from its progress callback, THEN it will return false "
+            + "without writing the rest of the image, AND the writer may be reused")
+    @Test
+    void testAbort() throws Exception {
+        BufferedImage img = makeImage(500, 1000, BufferedImage.TYPE_INT_ARGB);
+        ParallelPngWriter writer = new ParallelPngWriter(1, true);
+        byte[] whole = write(writer, img);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertFalse(writer.write(img, out, percent -> writer.abort()));
+        assertTrue(out.size() < whole.length / 2, out.size() + " vs. " + whole.length);
+
+        assertArrayEquals(whole, write(writer, img));
+    }
+}
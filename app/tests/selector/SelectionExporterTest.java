@@ -0,0 +1,217 @@
+package selector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for saving selections in the background with `SelectionExporter`.
+ */
+class SelectionExporterTest {
+
+    /**
+     * A directory for the image files written by these tests.
+     */
+    @TempDir
+    File dir;
+
+    /**
+     * Return a `width`x`height` image of smoothly varying colors with some noise, which compresses
+     * somewhat, like a photograph.
+     */
+    private static BufferedImage makeImage(int width, int height) {
+        Random rng = new Random(width * 31 + height);
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                img.setRGB(x, y, (x << 16) | (y << 8) | rng.nextInt(16));
+            }
+        }
+        return img;
+    }
+
+    /**
+     * Return a selection model for `img` in the SELECTED state whose selection is the polygon with
+     * vertices `points`.
+     */
+    private static SelectionModel makeSelection(BufferedImage img, Point... points) {
+        SelectionModel model = new PointToPointSelectionModel(false);
+        model.setImage(img);
+        for (Point p : points) {
+            model.addPoint(p);
+        }
+        model.finishSelection();
+        return model;
+    }
+
+    /**
+     * Export `region` to `file` at `compressionLevel` with `encoder`, and return the file once it
+     * is written.
+     */
+    private static File export(RenderedImage region, File file, int compressionLevel,
+            PngEncoder encoder) throws Exception {
+        SelectionExporter exporter = new SelectionExporter(region, file, compressionLevel,
+                encoder);
+        exporter.start();
+        File written = exporter.get(30, TimeUnit.SECONDS);
+        assertEquals(100, exporter.getProgress());
+        return written;
+    }
+
+    @DisplayName("WHEN a selection is exported by any encoder, THEN the file will contain the "
+            + "selection's bounding box, with the pixels inside the selection copied as a clipped "
+            + "`Graphics2D` would copy them and the pixels outside transparent, AND no temporary "
+            + "file will remain")
+    @Test
+    void testExport() throws Exception {
+        BufferedImage img = makeImage(200, 300);
+        Point[] points = {new Point(10, 5), new Point(190, 40), new Point(120, 290),
+                new Point(30, 200)};
+        SelectionModel model = makeSelection(img, points);
+
+        Polygon clip = new Polygon();
+        for (Point p : points) {
+            clip.addPoint(p.x, p.y);
+        }
+        Rectangle bounds = clip.getBounds();
+        clip.translate(-bounds.x, -bounds.y);
+        BufferedImage expected = new BufferedImage(bounds.width, bounds.height,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = expected.createGraphics();
+        g.setClip(clip);
+        g.drawImage(img, -bounds.x, -bounds.y, null);
+        g.dispose();
+
+        for (PngEncoder encoder : PngEncoder.values()) {
+            File file = new File(dir, "selection.png");
+            assertSame(file, export(model.selectedRegion(), file,
+                    SelectionExporter.DEFAULT_COMPRESSION_LEVEL, encoder));
+            BufferedImage saved = ImageIO.read(file);
+            assertEquals(bounds.width, saved.getWidth());
+            assertEquals(bounds.height, saved.getHeight());
+            int transparent = 0;
+            for (int y = 0; y < saved.getHeight(); ++y) {
+                for (int x = 0; x < saved.getWidth(); ++x) {
+                    assertEquals(expected.getRGB(x, y), saved.getRGB(x, y),
+                            encoder + " at " + x + "," + y);
+                    if (saved.getRGB(x, y) == 0) {
+                        transparent += 1;
+                    }
+                }
+            }
+            assertTrue(transparent > 0);
+            assertArrayEquals(new String[]{file.getName()}, dir.list());
+        }
+    }
+
+    @DisplayName("WHEN no encoder is configured, THEN the JDK's writer will be preferred on one "
+            + "processor, AND the parallel writer on several, AND WHEN one is configured, THEN "
+            + "it will be used on any number")
+    @Test
+    void testPreferred() {
+        assertEquals(PngEncoder.IMAGE_IO, PngEncoder.preferred(1));
+        assertEquals(PngEncoder.PARALLEL, PngEncoder.preferred(PngEncoder.MIN_PARALLEL_PROCESSORS));
+        assertEquals(PngEncoder.PARALLEL, PngEncoder.preferred(64));
+
+        String old = System.setProperty(PngEncoder.PROPERTY, "image-io");
+        try {
+            assertEquals(PngEncoder.IMAGE_IO, PngEncoder.preferred());
+        } finally {
+            if (old == null) {
+                System.clearProperty(PngEncoder.PROPERTY);
+            } else {
+                System.setProperty(PngEncoder.PROPERTY, old);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> PngEncoder.parse("pigz"));
+    }
+
+    @DisplayName("WHEN a selection is exported by any encoder at compression levels 0 and 9, THEN "
+            + "both files will contain the same pixels, AND level 0's file will be larger, AND "
+            + "each level will map to a compression quality the JDK's writer maps back to that "
+            + "level, AND WHEN the level is out of range, THEN construction will fail")
+    @Test
+    void testCompressionLevel() throws Exception {
+        for (int level = 0; level <= 9; ++level) {
+            float quality = PngEncoder.compressionQuality(level);
+            assertTrue(quality >= 0 && quality <= 1);
+            assertEquals(level, (int) (9 * (1 - quality)));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new SelectionExporter(makeImage(1, 1), new File(dir, "bad.png"), 10));
+
+        BufferedImage img = makeImage(256, 256);
+        for (PngEncoder encoder : PngEncoder.values()) {
+            File fast = export(img, new File(dir, encoder + "-fast.png"), 0, encoder);
+            File small = export(img, new File(dir, encoder + "-small.png"), 9, encoder);
+            assertTrue(fast.length() > small.length(), encoder + ": " + fast.length() + " <= "
+                    + small.length());
+            BufferedImage fastImg = ImageIO.read(fast);
+            BufferedImage smallImg = ImageIO.read(small);
+            for (int y = 0; y < img.getHeight(); ++y) {
+                for (int x = 0; x < img.getWidth(); ++x) {
+                    assertEquals(img.getRGB(x, y), fastImg.getRGB(x, y), encoder.toString());
+                    assertEquals(img.getRGB(x, y), smallImg.getRGB(x, y), encoder.toString());
+                }
+            }
+        }
+    }
+
+    @DisplayName("GIVEN an existing file, WHEN an export replacing it is cancelled part way "
+            + "through by any encoder, THEN the existing file will be unchanged, AND no temporary "
+            + "file will remain")
+    @Test
+    void testCancel() throws Exception {
+        File file = new File(dir, "existing.png");
+        Files.writeString(file.toPath(), "Keep me");
+        BufferedImage img = makeImage(100, 100);
+
+        for (PngEncoder encoder : PngEncoder.values()) {
+            // A region that blocks on its first read of pixels until the export has been cancelled
+            CountDownLatch reading = new CountDownLatch(1);
+            CountDownLatch cancelled = new CountDownLatch(1);
+            RenderedImage region = (RenderedImage) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[]{RenderedImage.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("getData") && reading.getCount() > 0) {
+                            reading.countDown();
+                            cancelled.await(10, TimeUnit.SECONDS);
+                        }
+                        try {
+                            return method.invoke(img, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+
+            SelectionExporter exporter = new SelectionExporter(region, file, 0, encoder);
+            exporter.start();
+            assertTrue(reading.await(10, TimeUnit.SECONDS), encoder.toString());
+            assertTrue(exporter.cancel(true), encoder.toString());
+            cancelled.countDown();
+
+            // Exports run one at a time, so once a second export is done, the first has cleaned
+            //  up.
+            File other = export(img, new File(dir, "other.png"), 0, encoder);
+            assertEquals("Keep me", Files.readString(file.toPath()), encoder.toString());
+            assertEquals(2, dir.list().length, encoder.toString());
+            assertTrue(other.exists());
+        }
+    }
+}